@@ -0,0 +1,32 @@
+package fact.it.apigateway.config;
+
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+@Configuration
+public class RateLimitConfig {
+
+    // Who a RequestRateLimiter bucket belongs to: the JWT subject, or the client IP on public routes
+    @Bean
+    public KeyResolver principalOrClientIpKeyResolver() {
+        return exchange -> exchange.getPrincipal()
+                .filter(principal -> !(principal instanceof AnonymousAuthenticationToken))
+                .map(principal -> "sub:" + principal.getName())
+                .switchIfEmpty(Mono.fromSupplier(() -> "ip:" + clientIp(exchange)));
+    }
+
+    // The connection's address, not X-Forwarded-For: a client could pick a new header value per request
+    private static String clientIp(ServerWebExchange exchange) {
+        InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+        if (remote == null) {
+            return "unknown";
+        }
+        return remote.getAddress() == null ? remote.getHostString() : remote.getAddress().getHostAddress();
+    }
+}
@@ -1,12 +1,22 @@
 package fact.it.apigateway.config;
 
+import fact.it.apigateway.security.CachingReactiveJwtDecoder;
+import fact.it.apigateway.security.JwkSetCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
 
 import static org.springframework.security.config.Customizer.withDefaults;
 
@@ -27,4 +37,24 @@ public class SecurityConfig {
                 .oauth2ResourceServer(oauth2 -> oauth2.jwt(withDefaults()))
                 .build();
     }
+
+    @Bean
+    public JwkSetCache jwkSetCache(WebClient.Builder webClientBuilder,
+                                   @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+                                   @Value("${gateway.jwt.jwks-refresh-after:5m}") Duration refreshAfter,
+                                   @Value("${gateway.jwt.jwks-min-fetch-interval:30s}") Duration minFetchInterval) {
+        return new JwkSetCache(webClientBuilder.build(), jwkSetUri, refreshAfter, minFetchInterval, Duration.ofSeconds(5));
+    }
+
+    // Picked up by oauth2ResourceServer().jwt(): RS256 against the cached JWKS, same issuer check as before,
+    // and tokens already verified are answered from memory until their exp
+    @Bean
+    public ReactiveJwtDecoder jwtDecoder(JwkSetCache jwkSetCache,
+                                         @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuer,
+                                         @Value("${gateway.jwt.verified-token-cache.max-size:100000}") long maxSize,
+                                         MeterRegistry meterRegistry) {
+        NimbusReactiveJwtDecoder verifier = NimbusReactiveJwtDecoder.withJwkSource(jwkSetCache::keysFor).build();
+        verifier.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuer));
+        return new CachingReactiveJwtDecoder(verifier, maxSize, meterRegistry);
+    }
 }
@@ -0,0 +1,136 @@
+package fact.it.apigateway.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Answers {@code GET /doctors/{id}/overview} itself: the doctor ({@code /api/doctor/{id}}) and its slots
+ * ({@code /api/doctor/{id}/timeslots}, from/to passed through) are fetched from the route's URI in parallel and
+ * returned as {@code {"doctor": ..., "timeslots": [...], "partial": false}}. If the slot call fails or takes longer
+ * than the configured timeout ({@code - DoctorOverview=1s}) the doctor is returned with {@code "timeslots": null},
+ * {@code "partial": true} and Cache-Control: no-store, so the response cache does not keep it.
+ * An error from the doctor call is passed on as is; an empty doctor body (doctor-service answers an unknown id with
+ * 200 and no body) becomes a 404. Both bodies are spliced in unparsed.
+ */
+@Component
+public class DoctorOverviewGatewayFilterFactory extends AbstractGatewayFilterFactory<DoctorOverviewGatewayFilterFactory.Config> {
+
+    private final WebClient webClient;
+    private final MeterRegistry meterRegistry;
+
+    public DoctorOverviewGatewayFilterFactory(WebClient.Builder webClientBuilder, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.webClient = webClientBuilder.build();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("slotTimeout");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String id = UriUtils.encodePathSegment(ServerWebExchangeUtils.getUriTemplateVariables(exchange).get("id"),
+                    StandardCharsets.UTF_8);
+            URI doctorUri = UriComponentsBuilder.fromUri(route.getUri()).path("/api/doctor/" + id)
+                    .build(true).toUri();
+            // The client's query is already encoded, so it goes along untouched
+            URI slotsUri = UriComponentsBuilder.fromUri(route.getUri()).path("/api/doctor/" + id + "/timeslots")
+                    .query(exchange.getRequest().getURI().getRawQuery())
+                    .build(true).toUri();
+
+            Mono<Upstream> doctor = call(doctorUri);
+            Mono<Optional<byte[]>> slots = call(slotsUri)
+                    .timeout(config.getSlotTimeout())
+                    .map(upstream -> upstream.status().is2xxSuccessful() ? Optional.of(upstream.body()) : Optional.<byte[]>empty())
+                    .onErrorResume(e -> Mono.just(Optional.empty()));
+            // zip subscribes to both at once; a failed doctor call cancels the slot call
+            return Mono.zip(doctor, slots).flatMap(both -> write(exchange, route, both.getT1(), both.getT2()));
+        };
+    }
+
+    private Mono<Upstream> call(URI uri) {
+        return webClient.get().uri(uri)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchangeToMono(response -> response.bodyToMono(byte[].class)
+                        .defaultIfEmpty(new byte[0])
+                        .map(body -> new Upstream(response.statusCode(), response.headers().contentType(), body)));
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, Route route, Upstream doctor, Optional<byte[]> slots) {
+        ServerHttpResponse response = exchange.getResponse();
+        if (!doctor.status().is2xxSuccessful()) {
+            response.setStatusCode(doctor.status());
+            doctor.contentType().ifPresent(response.getHeaders()::setContentType);
+            exchange.getAttributes().put(ServerWebExchangeUtils.CLIENT_RESPONSE_HEADER_NAMES, Set.of(HttpHeaders.CONTENT_TYPE));
+            return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(doctor.body())));
+        }
+        if (doctor.body().length == 0) {
+            response.setStatusCode(HttpStatus.NOT_FOUND);
+            exchange.getAttributes().put(ServerWebExchangeUtils.CLIENT_RESPONSE_HEADER_NAMES, Set.<String>of());
+            return response.setComplete();
+        }
+        boolean partial = slots.isEmpty();
+        meterRegistry.counter("gateway.doctor.overview", "route", route.getId(), "result", partial ? "partial" : "complete")
+                .increment();
+        response.setStatusCode(doctor.status());
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        if (partial) {
+            response.getHeaders().setCacheControl("no-store");
+        }
+        byte[] head = "{\"doctor\":".getBytes(StandardCharsets.UTF_8);
+        byte[] middle = ",\"timeslots\":".getBytes(StandardCharsets.UTF_8);
+        byte[] tail = (",\"partial\":" + partial + "}").getBytes(StandardCharsets.UTF_8);
+        byte[] slotsBody = slots.orElse("null".getBytes(StandardCharsets.UTF_8));
+        response.getHeaders().setContentLength(head.length + doctor.body().length + middle.length + slotsBody.length + tail.length);
+        // As NettyRoutingFilter records for a proxied call: the headers that make up the answer, so ResponseCache
+        // and RequestCoalescingFilter keep them apart from what other filters and Spring Security add
+        exchange.getAttributes().put(ServerWebExchangeUtils.CLIENT_RESPONSE_HEADER_NAMES, partial
+                ? Set.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_LENGTH, HttpHeaders.CACHE_CONTROL)
+                : Set.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_LENGTH));
+        return response.writeWith(Flux.just(head, doctor.body(), middle, slotsBody, tail)
+                .map(bytes -> (DataBuffer) response.bufferFactory().wrap(bytes)));
+    }
+
+    private record Upstream(HttpStatusCode status, Optional<MediaType> contentType, byte[] body) {
+    }
+
+    public static class Config {
+
+        private Duration slotTimeout = Duration.ofSeconds(1);
+
+        public Duration getSlotTimeout() {
+            return slotTimeout;
+        }
+
+        public void setSlotTimeout(Duration slotTimeout) {
+            this.slotTimeout = slotTimeout;
+        }
+    }
+}
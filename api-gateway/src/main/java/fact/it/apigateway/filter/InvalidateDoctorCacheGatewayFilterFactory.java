@@ -0,0 +1,79 @@
+package fact.it.apigateway.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+
+/**
+ * For {@code POST /timeslots/reserve}: when doctor-service answers {@code reserved: true}, every cached
+ * {@code /doctors/{doctorId}...} response is dropped, so the next listing shows the slot as taken.
+ * The reservation body is a few bytes, so it is buffered, inspected and passed on unchanged.
+ */
+@Component
+public class InvalidateDoctorCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<Object> {
+
+    private final ResponseCache responseCache;
+    private final ObjectMapper objectMapper;
+
+    public InvalidateDoctorCacheGatewayFilterFactory(ResponseCache responseCache, ObjectMapper objectMapper) {
+        super(Object.class);
+        this.responseCache = responseCache;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public GatewayFilter apply(Object config) {
+        return new OrderedGatewayFilter((exchange, chain) -> chain.filter(exchange.mutate()
+                .response(new InspectingResponse(exchange.getResponse()))
+                .build()), NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    void invalidateFor(byte[] reservation) {
+        try {
+            JsonNode body = objectMapper.readTree(reservation);
+            if (body != null && body.path("reserved").asBoolean() && body.hasNonNull("doctorId")) {
+                responseCache.invalidatePath("/doctors/" + body.get("doctorId").asText());
+            }
+        } catch (IOException e) {
+            // Not a reservation result (an error page, say): nothing was reserved
+        }
+    }
+
+    private class InspectingResponse extends ServerHttpResponseDecorator {
+
+        InspectingResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (getStatusCode() == null || !getStatusCode().is2xxSuccessful()) {
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(body)
+                    .map(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+                        return bytes;
+                    })
+                    .defaultIfEmpty(new byte[0])
+                    .flatMap(bytes -> {
+                        invalidateFor(bytes);
+                        return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                    });
+        }
+    }
+}
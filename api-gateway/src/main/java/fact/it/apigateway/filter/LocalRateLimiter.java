@@ -0,0 +1,141 @@
+package fact.it.apigateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process {@link org.springframework.cloud.gateway.filter.ratelimit.RateLimiter} for the RequestRateLimiter route
+ * filter: one token bucket per route and caller, no Redis. Limits are set per route in the filter args as
+ * {@code local-rate-limiter.replenish-rate} (tokens per second) and {@code local-rate-limiter.burst-capacity}.
+ * A bucket is a single timestamp, the moment it will be full again, moved forward by CAS; a bucket that would be
+ * full anyway is indistinguishable from a new one, so it is dropped after that moment and only active callers take memory.
+ */
+@Component
+public class LocalRateLimiter extends AbstractRateLimiter<LocalRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+    static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    private final Cache<String, Bucket> buckets;
+    private final MeterRegistry meterRegistry;
+
+    public LocalRateLimiter(ConfigurationService configurationService, MeterRegistry meterRegistry,
+                            @Value("${gateway.rate-limit.max-buckets:1000000}") long maxBuckets) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.meterRegistry = meterRegistry;
+        this.buckets = Caffeine.newBuilder()
+                // Safety net against a flood of distinct keys; eviction only ever hands a caller a fresh bucket
+                .maximumSize(maxBuckets)
+                .expireAfter(new Expiry<String, Bucket>() {
+                    @Override
+                    public long expireAfterCreate(String key, Bucket bucket, long currentTime) {
+                        return bucket.capacityNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Bucket bucket, long currentTime, long currentDuration) {
+                        return bucket.capacityNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Bucket bucket, long currentTime, long currentDuration) {
+                        // Every read may take a token; a full refill takes at most capacityNanos from here
+                        return bucket.capacityNanos;
+                    }
+                })
+                .build();
+        Gauge.builder("gateway.ratelimit.buckets", buckets, Cache::estimatedSize)
+                .description("Callers with a partly used rate limit bucket")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        // A route without local-rate-limiter args gets the Config defaults
+        Config config = getConfig().getOrDefault(routeId, Config.DEFAULTS);
+        long now = System.nanoTime();
+        Bucket bucket = buckets.get(routeId + " " + id, key -> new Bucket(config, now));
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos == 0) {
+            return Mono.just(new Response(true, Map.of(REMAINING_HEADER, String.valueOf(bucket.remaining(now)))));
+        }
+        meterRegistry.counter("gateway.ratelimit.rejected", "route", routeId).increment();
+        long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        return Mono.just(new Response(false, Map.of(REMAINING_HEADER, "0", HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))));
+    }
+
+    // Token bucket as a single "full again at" timestamp (GCRA): taking a token pushes it one interval into the future,
+    // and the bucket is empty once it lies more than the burst capacity ahead of now
+    static final class Bucket {
+
+        private final long intervalNanos;
+        private final long capacityNanos;
+        private final AtomicLong fullAt;
+
+        Bucket(Config config, long now) {
+            this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, config.getReplenishRate());
+            this.capacityNanos = intervalNanos * Math.max(1, config.getBurstCapacity());
+            this.fullAt = new AtomicLong(now);
+        }
+
+        // 0 when a token was taken, otherwise how long until the next one
+        long tryAcquire(long now) {
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + intervalNanos;
+                long debt = next - now;
+                if (debt > capacityNanos) {
+                    return debt - capacityNanos;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        long remaining(long now) {
+            return (capacityNanos - Math.max(0, fullAt.get() - now)) / intervalNanos;
+        }
+    }
+
+    public static class Config {
+
+        static final Config DEFAULTS = new Config();
+
+        // Tokens added per second: the sustained request rate
+        private int replenishRate = 10;
+        // Bucket size: how many requests may arrive at once after a quiet period
+        private int burstCapacity = 20;
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public Config setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+            return this;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public Config setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package fact.it.apigateway.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single flight for identical concurrent GETs on the routes in {@code gateway.coalescing.routes}: the first request
+ * goes upstream, requests for the same URL arriving while it is in flight wait for its response and get a copy.
+ * A waiter that hears nothing within {@code gateway.coalescing.max-wait}, or whose leader fails or is cancelled,
+ * makes its own upstream call. Responses are buffered, so only routes with bounded bodies belong in the list.
+ */
+@Component
+public class RequestCoalescingFilter implements GlobalFilter, Ordered {
+
+    // Decorates the response, so it has to run before NettyWriteResponseFilter
+    static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
+    private final Set<String> routeIds;
+    private final Duration maxWait;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Sinks.One<CapturedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public RequestCoalescingFilter(@Value("${gateway.coalescing.routes:}") List<String> routeIds,
+                                   @Value("${gateway.coalescing.max-wait:2s}") Duration maxWait,
+                                   MeterRegistry meterRegistry) {
+        this.routeIds = Set.copyOf(routeIds);
+        this.maxWait = maxWait;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null || !routeIds.contains(route.getId()) || exchange.getRequest().getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+        String key = keyOf(route.getId(), exchange.getRequest());
+        Sinks.One<CapturedResponse> flight = Sinks.one();
+        Sinks.One<CapturedResponse> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            count(route, "follower");
+            return leader.asMono()
+                    .timeout(maxWait)
+                    .map(captured -> replay(exchange, captured))
+                    .onErrorResume(e -> {
+                        count(route, "fallback");
+                        return Mono.just(chain.filter(exchange));
+                    })
+                    .flatMap(write -> write);
+        }
+        count(route, "leader");
+        return chain.filter(exchange.mutate().response(new CapturingResponse(exchange, key, flight)).build())
+                .doFinally(signal -> {
+                    // Normally already done when the response was captured; this covers errors and cancellation
+                    inFlight.remove(key, flight);
+                    flight.tryEmitError(new IllegalStateException("Coalesced request ended without a response"));
+                });
+    }
+
+    // Same URL, and the same Accept and Authorization, since either can change the answer
+    static String keyOf(String routeId, ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        return routeId + " " + ResponseCacheGatewayFilterFactory.keyOf(request)
+                + " " + headers.getFirst(HttpHeaders.ACCEPT) + " " + headers.getFirst(HttpHeaders.AUTHORIZATION);
+    }
+
+    private Mono<Void> replay(ServerWebExchange exchange, CapturedResponse captured) {
+        return Mono.defer(() -> {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(captured.status());
+            response.getHeaders().putAll(captured.headers());
+            return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(captured.body())));
+        });
+    }
+
+    private void count(Route route, String role) {
+        meterRegistry.counter("gateway.coalescing.requests", "route", route.getId(), "role", role).increment();
+    }
+
+    // Hands the leader's response to the waiters as soon as it is complete, then passes it on unchanged
+    private class CapturingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final String key;
+        private final Sinks.One<CapturedResponse> flight;
+
+        CapturingResponse(ServerWebExchange exchange, String key, Sinks.One<CapturedResponse> flight) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.key = key;
+            this.flight = flight;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return DataBufferUtils.join(body)
+                    .map(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+                        return bytes;
+                    })
+                    .defaultIfEmpty(new byte[0])
+                    .flatMap(bytes -> {
+                        // Out of the map first: a request arriving from now on starts a fresh flight
+                        inFlight.remove(key, flight);
+                        HttpHeaders headers = ResponseCacheGatewayFilterFactory.upstreamHeaders(exchange, getHeaders());
+                        headers.setContentLength(bytes.length);
+                        flight.tryEmitValue(new CapturedResponse(getStatusCode(), headers, bytes));
+                        return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                    });
+        }
+    }
+
+    private record CapturedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+}
@@ -0,0 +1,113 @@
+package fact.it.apigateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Store behind the ResponseCache route filter: upstream GET responses keyed by path and query.
+// Every entry expires after its own TTL (the route's, or less if the upstream asks for it),
+// and the whole cache is bounded by the bytes it holds, least recently used going first.
+// Keys are also indexed by their /{collection}/{id} prefix, so invalidating one doctor touches only its own entries.
+@Component
+public class ResponseCache {
+
+    private final Cache<String, CachedResponse> cache;
+    private final Map<String, Set<String>> keysByPrefix = new ConcurrentHashMap<>();
+
+    public ResponseCache(@Value("${gateway.response-cache.max-size:64MB}") DataSize maxSize,
+                         MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, CachedResponse response) -> key.length() + response.body().length)
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+                        return response.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse response, long currentTime, long currentDuration) {
+                        return response.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse response, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                // Evicted and expired keys leave the index too; a replaced key is still cached
+                .removalListener((String key, CachedResponse response, RemovalCause cause) -> {
+                    if (cause != RemovalCause.REPLACED) {
+                        unindex(key);
+                    }
+                })
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size, ... under cache=gateway-responses
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway-responses");
+        Gauge.builder("gateway.response.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of cacheable GETs answered from the gateway response cache")
+                .register(meterRegistry);
+    }
+
+    CachedResponse get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    void put(String key, CachedResponse response) {
+        cache.put(key, response);
+        keysByPrefix.computeIfAbsent(prefixOf(key), prefix -> ConcurrentHashMap.newKeySet()).add(key);
+    }
+
+    // Drops every response at or below a /{collection}/{id} path: "/doctors/7" also removes
+    // /doctors/7/timeslots?from=..., not /doctors/70
+    public void invalidatePath(String path) {
+        Set<String> keys = keysByPrefix.get(prefixOf(path));
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            if (key.equals(path) || key.startsWith(path + "/") || key.startsWith(path + "?")) {
+                cache.invalidate(key);
+            }
+        }
+    }
+
+    // Runs in the same map bin as put's index update, so a key cached again meanwhile stays indexed
+    private void unindex(String key) {
+        keysByPrefix.computeIfPresent(prefixOf(key), (prefix, keys) -> {
+            if (!cache.asMap().containsKey(key)) {
+                keys.remove(key);
+            }
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    // "/doctors/7/timeslots?from=..." -> "/doctors/7"
+    static String prefixOf(String key) {
+        int query = key.indexOf('?');
+        String path = query < 0 ? key : key.substring(0, query);
+        int second = path.indexOf('/', 1);
+        if (second < 0) {
+            return path;
+        }
+        int third = path.indexOf('/', second + 1);
+        return third < 0 ? path : path.substring(0, third);
+    }
+
+    record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, long storedAtNanos, long ttlNanos) {
+    }
+}
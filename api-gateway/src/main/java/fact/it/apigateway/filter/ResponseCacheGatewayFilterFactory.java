@@ -0,0 +1,210 @@
+package fact.it.apigateway.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches successful GET responses of a route in {@link ResponseCache}: {@code - ResponseCache=30s} in a route's filters.
+ * It runs ahead of the route's other filters, so entries are keyed by the public path. Cache-Control is honoured both ways:
+ * upstream no-store, no-cache, private or max-age=0 keeps a response out, a smaller (s-)max-age shortens the route TTL,
+ * and a client sending no-cache, no-store or max-age=0 skips the lookup. Answers carry X-Cache: HIT or MISS.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    static final String X_CACHE = "X-Cache";
+
+    private final ResponseCache responseCache;
+    private final MeterRegistry meterRegistry;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCache responseCache, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.responseCache = responseCache;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttl");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // The response decorator must be in place before NettyWriteResponseFilter (as with ModifyResponseBody),
+        // and hits are answered before RequestCoalescingFilter could make them wait on an upstream call
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+            String key = keyOf(request);
+            List<String> requestDirectives = directives(request.getHeaders());
+            boolean revalidate = requestDirectives.contains("no-cache") || requestDirectives.contains("no-store")
+                    || requestDirectives.contains("max-age=0");
+            if (!revalidate) {
+                ResponseCache.CachedResponse cached = responseCache.get(key);
+                if (cached != null) {
+                    return serve(exchange, cached);
+                }
+            }
+            Duration routeTtl = requestDirectives.contains("no-store") ? Duration.ZERO : config.getTtl();
+            exchange.getResponse().getHeaders().set(X_CACHE, "MISS");
+            return chain.filter(exchange.mutate().response(new CachingResponse(exchange, key, routeTtl)).build());
+        }, RequestCoalescingFilter.ORDER - 1);
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, ResponseCache.CachedResponse cached) {
+        long start = System.nanoTime();
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(cached.status());
+        response.getHeaders().putAll(cached.headers());
+        response.getHeaders().set(HttpHeaders.AGE, String.valueOf(TimeUnit.NANOSECONDS.toSeconds(start - cached.storedAtNanos())));
+        response.getHeaders().set(X_CACHE, "HIT");
+        Timer timer = Timer.builder("gateway.response.cache.served")
+                .description("Time to answer a request from the gateway response cache")
+                .tag("route", routeId(exchange))
+                .register(meterRegistry);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body())))
+                .doFinally(signal -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    static String keyOf(ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        return query == null ? request.getURI().getRawPath() : request.getURI().getRawPath() + "?" + query;
+    }
+
+    // How long the upstream lets this response be shared, capped by the route TTL; zero means not at all
+    public static Duration storableFor(HttpHeaders headers, Duration routeTtl) {
+        if (headers.containsKey(HttpHeaders.SET_COOKIE) || "*".equals(headers.getFirst(HttpHeaders.VARY))) {
+            return Duration.ZERO;
+        }
+        Duration ttl = routeTtl;
+        Duration maxAge = null;
+        for (String directive : directives(headers)) {
+            if (directive.equals("no-store") || directive.equals("no-cache") || directive.equals("private")) {
+                return Duration.ZERO;
+            }
+            // s-maxage is meant for shared caches like this one and wins over max-age
+            if (directive.startsWith("s-maxage=")) {
+                maxAge = seconds(directive.substring("s-maxage=".length()));
+            } else if (directive.startsWith("max-age=") && maxAge == null) {
+                maxAge = seconds(directive.substring("max-age=".length()));
+            }
+        }
+        if (maxAge != null && maxAge.compareTo(ttl) < 0) {
+            ttl = maxAge;
+        }
+        return ttl;
+    }
+
+    private static List<String> directives(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl == null) {
+            return List.of();
+        }
+        return List.of(cacheControl.toLowerCase(Locale.ROOT).replace(" ", "").split(","));
+    }
+
+    private static Duration seconds(String value) {
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.replace("\"", ""))));
+        } catch (NumberFormatException e) {
+            return Duration.ZERO;
+        }
+    }
+
+    // Only what the upstream sent: the Cache-Control, Pragma and X-* headers Spring Security adds on the way out
+    // must neither block caching nor be replayed from the cache
+    static HttpHeaders upstreamHeaders(ServerWebExchange exchange, HttpHeaders headers) {
+        Set<String> upstreamNames = exchange.getAttribute(ServerWebExchangeUtils.CLIENT_RESPONSE_HEADER_NAMES);
+        HttpHeaders upstream = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (upstreamNames == null || upstreamNames.stream().anyMatch(name::equalsIgnoreCase)) {
+                upstream.addAll(name, values);
+            }
+        });
+        upstream.remove(HttpHeaders.TRANSFER_ENCODING);
+        upstream.remove(HttpHeaders.CONNECTION);
+        upstream.remove(X_CACHE);
+        return upstream;
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route == null ? "unknown" : route.getId();
+    }
+
+    // Buffers a 200 body on its way to the client and stores a copy when the headers allow it
+    private class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final String key;
+        private final Duration routeTtl;
+
+        CachingResponse(ServerWebExchange exchange, String key, Duration routeTtl) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.key = key;
+            this.routeTtl = routeTtl;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = upstreamHeaders(exchange, getHeaders());
+            Duration ttl = HttpStatus.OK.equals(getStatusCode()) ? storableFor(headers, routeTtl) : Duration.ZERO;
+            if (ttl.isZero()) {
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(body)
+                    .map(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+                        return bytes;
+                    })
+                    .defaultIfEmpty(new byte[0])
+                    .flatMap(bytes -> {
+                        headers.setContentLength(bytes.length);
+                        responseCache.put(key, new ResponseCache.CachedResponse(getStatusCode(), headers, bytes,
+                                System.nanoTime(), ttl.toNanos()));
+                        return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                    });
+        }
+    }
+
+    public static class Config {
+
+        private Duration ttl = Duration.ofSeconds(30);
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
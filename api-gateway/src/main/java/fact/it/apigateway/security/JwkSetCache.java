@@ -0,0 +1,127 @@
+package fact.it.apigateway.security;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Signing keys from the {@code jwk-set-uri}, kept in memory for the JWT decoder. Once the keys are older than
+ * {@code refreshAfter} the next token triggers a fetch in the background and is verified with the keys at hand;
+ * a failed fetch keeps the old keys serving. A token signed with an unknown key id makes the caller wait for
+ * a fresh set (key rotation). Fetches are shared between concurrent callers and at most one per
+ * {@code minFetchInterval} is attempted, so an unreachable JWKS endpoint is not hammered; until the first
+ * fetch succeeds, tokens arriving inside that interval are rejected without a call.
+ */
+public class JwkSetCache {
+
+    private static final Logger log = LoggerFactory.getLogger(JwkSetCache.class);
+
+    private final WebClient webClient;
+    private final String jwkSetUri;
+    private final long refreshAfterNanos;
+    private final long minFetchIntervalNanos;
+    private final Duration fetchTimeout;
+    private final AtomicReference<Keys> current = new AtomicReference<>();
+    private final AtomicReference<Mono<Keys>> fetching = new AtomicReference<>();
+    private final AtomicLong lastFetchStartedNanos = new AtomicLong();
+
+    public JwkSetCache(WebClient webClient, String jwkSetUri, Duration refreshAfter, Duration minFetchInterval,
+                       Duration fetchTimeout) {
+        this.webClient = webClient;
+        this.jwkSetUri = jwkSetUri;
+        this.refreshAfterNanos = refreshAfter.toNanos();
+        this.minFetchIntervalNanos = minFetchInterval.toNanos();
+        this.fetchTimeout = fetchTimeout;
+        // nanoTime has an arbitrary origin: start as if the last fetch was just long enough ago
+        this.lastFetchStartedNanos.set(System.nanoTime() - minFetchIntervalNanos);
+    }
+
+    // JWK source for NimbusReactiveJwtDecoder.withJwkSource: the keys matching the token's kid and algorithm
+    public Flux<JWK> keysFor(SignedJWT jwt) {
+        JWKSelector selector = new JWKSelector(JWKMatcher.forJWSHeader(jwt.getHeader()));
+        Keys keys = current.get();
+        long now = System.nanoTime();
+        if (keys == null) {
+            // Nothing to fall back on, but an unreachable endpoint is still asked at most once per interval
+            if (!mayFetch(now)) {
+                return Flux.error(new IllegalStateException("No signing keys from " + jwkSetUri + " yet, the last fetch failed"));
+            }
+            return fetch().flatMapIterable(fetched -> fetched.select(selector));
+        }
+        List<JWK> matching = keys.select(selector);
+        if (matching.isEmpty() && mayFetch(now)) {
+            return fetch().flatMapIterable(fetched -> fetched.select(selector));
+        }
+        if (now - keys.fetchedAtNanos() > refreshAfterNanos && mayFetch(now)) {
+            fetch().subscribe(fetched -> { }, e -> { });
+        }
+        return Flux.fromIterable(matching);
+    }
+
+    private boolean mayFetch(long now) {
+        return fetching.get() != null || now - lastFetchStartedNanos.get() >= minFetchIntervalNanos;
+    }
+
+    // One fetch at a time; whoever asks while it runs gets the same result
+    private Mono<Keys> fetch() {
+        while (true) {
+            Mono<Keys> inFlight = fetching.get();
+            if (inFlight != null) {
+                return inFlight;
+            }
+            Sinks.One<Keys> result = Sinks.one();
+            Mono<Keys> shared = result.asMono();
+            if (!fetching.compareAndSet(null, shared)) {
+                continue;
+            }
+            lastFetchStartedNanos.set(System.nanoTime());
+            webClient.get().uri(jwkSetUri)
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .timeout(fetchTimeout)
+                    .map(body -> {
+                        try {
+                            return new Keys(JWKSet.parse(body), System.nanoTime());
+                        } catch (ParseException e) {
+                            throw new IllegalStateException("Invalid JWK set from " + jwkSetUri, e);
+                        }
+                    })
+                    .subscribe(keys -> {
+                        current.set(keys);
+                        fetching.set(null);
+                        result.tryEmitValue(keys);
+                    }, e -> {
+                        fetching.set(null);
+                        Keys stale = current.get();
+                        if (stale == null) {
+                            result.tryEmitError(e);
+                        } else {
+                            log.warn("Refreshing signing keys from {} failed, keeping the current ones: {}", jwkSetUri, e.toString());
+                            result.tryEmitValue(stale);
+                        }
+                    });
+            return shared;
+        }
+    }
+
+    private record Keys(JWKSet jwkSet, long fetchedAtNanos) {
+
+        List<JWK> select(JWKSelector selector) {
+            return selector.select(jwkSet);
+        }
+    }
+}
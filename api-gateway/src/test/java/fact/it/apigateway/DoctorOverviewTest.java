@@ -0,0 +1,120 @@
+package fact.it.apigateway;
+
+import fact.it.apigateway.filter.DoctorOverviewGatewayFilterFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoctorOverviewTest {
+
+    // Shaped like doctor-service's DoctorResponse and TimeSlotDto
+    private static final String DOCTOR = "{\"id\":7,\"name\":\"Anna Peeters\",\"specialty\":\"Cardiology\"}";
+    private static final String SLOTS = "[{\"id\":1,\"startAt\":\"2030-01-07T09:00:00\",\"endAt\":\"2030-01-07T09:30:00\","
+            + "\"status\":\"AVAILABLE\",\"doctorId\":7}]";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<URI> calls = new CopyOnWriteArrayList<>();
+    // doctor-service answers the doctor call only once this completes
+    private final Sinks.Empty<Void> doctorReady = Sinks.empty();
+    private HttpStatus doctorStatus = HttpStatus.OK;
+    private String doctorBody = DOCTOR;
+    private Duration slotsDelay = Duration.ZERO;
+
+    private final WebClient.Builder doctorService = WebClient.builder().exchangeFunction(request -> {
+        calls.add(request.url());
+        if (request.url().getPath().endsWith("/timeslots")) {
+            return Mono.delay(slotsDelay).map(tick -> json(HttpStatus.OK, SLOTS));
+        }
+        return doctorReady.asMono().then(Mono.fromSupplier(() ->
+                doctorStatus == HttpStatus.OK ? json(HttpStatus.OK, doctorBody) : json(doctorStatus, "{\"error\":\"Doctor not found\"}")));
+    });
+
+    private static ClientResponse json(HttpStatus status, String body) {
+        return ClientResponse.create(status).header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE).body(body).build();
+    }
+
+    private Mono<MockServerWebExchange> overview(String path, Duration slotTimeout) {
+        DoctorOverviewGatewayFilterFactory.Config config = new DoctorOverviewGatewayFilterFactory.Config();
+        config.setSlotTimeout(slotTimeout);
+        GatewayFilter filter = new DoctorOverviewGatewayFilterFactory(doctorService, meterRegistry).apply(config);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                Route.async().id("doctor-overview").uri("http://doctor-service:8083").predicate(e -> true).build());
+        ServerWebExchangeUtils.putUriTemplateVariables(exchange, Map.of("id", "7"));
+        return filter.filter(exchange, e -> Mono.error(new AssertionError("The overview is answered by the filter")))
+                .thenReturn(exchange)
+                .cache();
+    }
+
+    @Test
+    void testDoctorAndSlotsAreFetchedInParallelAndMerged() {
+        Mono<MockServerWebExchange> done = overview("/doctors/7/overview?from=2030-01-07T00:00:00&to=2030-01-08T00:00:00", Duration.ofSeconds(5));
+        done.subscribe();
+
+        // Both calls are out while the doctor has not answered yet
+        assertEquals(2, calls.size());
+        assertTrue(calls.contains(URI.create("http://doctor-service:8083/api/doctor/7")));
+        assertTrue(calls.contains(URI.create("http://doctor-service:8083/api/doctor/7/timeslots?from=2030-01-07T00:00:00&to=2030-01-08T00:00:00")));
+
+        doctorReady.tryEmitEmpty();
+        MockServerWebExchange exchange = done.block(Duration.ofSeconds(5));
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals("{\"doctor\":" + DOCTOR + ",\"timeslots\":" + SLOTS + ",\"partial\":false}",
+                exchange.getResponse().getBodyAsString().block());
+        assertNull(exchange.getResponse().getHeaders().getCacheControl());
+        assertEquals(1, meterRegistry.counter("gateway.doctor.overview", "route", "doctor-overview", "result", "complete").count());
+    }
+
+    @Test
+    void testSlowSlotCallGivesPartialUncachedResponse() {
+        slotsDelay = Duration.ofSeconds(5);
+        doctorReady.tryEmitEmpty();
+        MockServerWebExchange exchange = overview("/doctors/7/overview", Duration.ofMillis(100)).block(Duration.ofSeconds(2));
+
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals("{\"doctor\":" + DOCTOR + ",\"timeslots\":null,\"partial\":true}", exchange.getResponse().getBodyAsString().block());
+        assertEquals("no-store", exchange.getResponse().getHeaders().getCacheControl());
+        assertEquals(1, meterRegistry.counter("gateway.doctor.overview", "route", "doctor-overview", "result", "partial").count());
+    }
+
+    @Test
+    void testDoctorErrorIsPassedOn() {
+        doctorStatus = HttpStatus.NOT_FOUND;
+        doctorReady.tryEmitEmpty();
+        MockServerWebExchange exchange = overview("/doctors/7/overview", Duration.ofSeconds(1)).block(Duration.ofSeconds(5));
+
+        assertEquals(HttpStatus.NOT_FOUND, exchange.getResponse().getStatusCode());
+        assertEquals("{\"error\":\"Doctor not found\"}", exchange.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void testUnknownDoctorWithEmptyBodyIsNotFound() {
+        // doctor-service answers an unknown id with 200 and no body
+        doctorBody = "";
+        doctorReady.tryEmitEmpty();
+        MockServerWebExchange exchange = overview("/doctors/404/overview", Duration.ofSeconds(1)).block(Duration.ofSeconds(5));
+
+        assertEquals(HttpStatus.NOT_FOUND, exchange.getResponse().getStatusCode());
+        assertEquals("", exchange.getResponse().getBodyAsString().defaultIfEmpty("").block());
+        assertTrue(meterRegistry.find("gateway.doctor.overview").counters().isEmpty());
+    }
+}
@@ -0,0 +1,169 @@
+package fact.it.apigateway;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+import fact.it.apigateway.config.SecurityConfig;
+import fact.it.apigateway.security.JwkSetCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtVerificationTest {
+
+    private static final String ISSUER = "https://accounts.google.com";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger jwksFetches = new AtomicInteger();
+    private volatile JWKSet published;
+    private volatile boolean jwksDown;
+    private HttpServer jwksServer;
+    private RSAKey key1;
+    private RSAKey key2;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        key1 = new RSAKeyGenerator(2048).keyID("key-1").generate();
+        key2 = new RSAKeyGenerator(2048).keyID("key-2").generate();
+        published = new JWKSet(key1.toPublicJWK());
+        jwksServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        jwksServer.createContext("/certs", exchange -> {
+            jwksFetches.incrementAndGet();
+            byte[] body = published.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(jwksDown ? 503 : 200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        jwksServer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jwksServer.stop(0);
+    }
+
+    private ReactiveJwtDecoder decoder(Duration refreshAfter, Duration minFetchInterval) {
+        SecurityConfig securityConfig = new SecurityConfig();
+        JwkSetCache jwkSetCache = securityConfig.jwkSetCache(WebClient.builder(),
+                "http://localhost:" + jwksServer.getAddress().getPort() + "/certs", refreshAfter, minFetchInterval);
+        return securityConfig.jwtDecoder(jwkSetCache, ISSUER, 1000, meterRegistry);
+    }
+
+    private static String token(RSAKey key, String subject, Instant expiresAt) throws JOSEException {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(ISSUER)
+                .subject(subject)
+                .issueTime(new Date())
+                .expirationTime(Date.from(expiresAt))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+
+    private static Jwt decode(ReactiveJwtDecoder decoder, String token) {
+        return decoder.decode(token).block(Duration.ofSeconds(5));
+    }
+
+    private double tokenCacheGets(String result) {
+        return meterRegistry.get("cache.gets").tags("cache", "gateway-verified-tokens", "result", result)
+                .functionCounter().count();
+    }
+
+    @Test
+    void testVerifiedTokenIsServedFromCacheUntilExp() throws Exception {
+        ReactiveJwtDecoder decoder = decoder(Duration.ofMinutes(5), Duration.ofSeconds(30));
+        String token = token(key1, "google-subject-42", Instant.now().plusSeconds(2));
+
+        Jwt first = decode(decoder, token);
+        Jwt second = decode(decoder, token);
+        assertEquals("google-subject-42", first.getSubject());
+        assertSame(first, second);
+        assertEquals(1, jwksFetches.get());
+        assertEquals(1, tokenCacheGets("hit"));
+
+        // Once exp has passed the entry is gone and the token goes through full verification again
+        Mono.delay(Duration.ofMillis(2500)).block();
+        decode(decoder, token);
+        assertEquals(1, tokenCacheGets("hit"));
+        assertEquals(2, tokenCacheGets("miss"));
+    }
+
+    @Test
+    void testTamperedOrExpiredTokensAreRejected() throws Exception {
+        ReactiveJwtDecoder decoder = decoder(Duration.ofMinutes(5), Duration.ofSeconds(30));
+        String token = token(key1, "google-subject-42", Instant.now().plusSeconds(3600));
+        decode(decoder, token);
+
+        String[] parts = token.split("\\.");
+        String otherClaims = token(key1, "someone-else", Instant.now().plusSeconds(3600)).split("\\.")[1];
+        assertThrows(JwtException.class, () -> decode(decoder, parts[0] + "." + otherClaims + "." + parts[2]));
+        assertThrows(JwtException.class, () -> decode(decoder, token(key1, "google-subject-42", Instant.now().minusSeconds(120))));
+    }
+
+    @Test
+    void testRotatedKeyIsFetchedAndStaleKeysKeepServing() throws Exception {
+        ReactiveJwtDecoder decoder = decoder(Duration.ZERO, Duration.ZERO);
+        decode(decoder, token(key1, "a", Instant.now().plusSeconds(3600)));
+
+        // A token signed with a key the gateway has not seen makes it fetch the set again
+        published = new JWKSet(List.of(key1.toPublicJWK(), key2.toPublicJWK()));
+        assertEquals("b", decode(decoder, token(key2, "b", Instant.now().plusSeconds(3600))).getSubject());
+
+        // JWKS endpoint down: the keys already fetched keep verifying new tokens
+        jwksDown = true;
+        int fetchesBefore = jwksFetches.get();
+        assertEquals("c", decode(decoder, token(key2, "c", Instant.now().plusSeconds(3600))).getSubject());
+        assertEquals("d", decode(decoder, token(key1, "d", Instant.now().plusSeconds(3600))).getSubject());
+        assertTrue(jwksFetches.get() > fetchesBefore);
+    }
+
+    @Test
+    void testUnknownKeyRefetchIsThrottled() throws Exception {
+        ReactiveJwtDecoder decoder = decoder(Duration.ofMinutes(5), Duration.ofMinutes(1));
+        decode(decoder, token(key1, "a", Instant.now().plusSeconds(3600)));
+
+        // Tokens signed with a key that is not published fail without a JWKS call each
+        for (int i = 0; i < 5; i++) {
+            String forged = token(key2, "x" + i, Instant.now().plusSeconds(3600));
+            assertThrows(JwtException.class, () -> decode(decoder, forged));
+        }
+        assertEquals(1, jwksFetches.get());
+    }
+
+    @Test
+    void testInitialFetchFailureIsThrottled() throws Exception {
+        ReactiveJwtDecoder decoder = decoder(Duration.ofMinutes(5), Duration.ofMinutes(1));
+        jwksDown = true;
+
+        // No keys were ever loaded: the first token tries the endpoint, the rest fail fast inside the interval
+        for (int i = 0; i < 5; i++) {
+            String token = token(key1, "x" + i, Instant.now().plusSeconds(3600));
+            assertThrows(RuntimeException.class, () -> decode(decoder, token));
+        }
+        assertEquals(1, jwksFetches.get());
+    }
+}
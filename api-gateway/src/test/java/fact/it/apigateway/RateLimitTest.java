@@ -0,0 +1,85 @@
+package fact.it.apigateway;
+
+import fact.it.apigateway.config.RateLimitConfig;
+import fact.it.apigateway.filter.LocalRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LocalRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new LocalRateLimiter(null, meterRegistry, 1000);
+        rateLimiter.getConfig().put("appointments-create", new LocalRateLimiter.Config().setReplenishRate(1).setBurstCapacity(3));
+        rateLimiter.getConfig().put("doctor-routes", new LocalRateLimiter.Config().setReplenishRate(10).setBurstCapacity(2));
+    }
+
+    private RateLimiter.Response call(String routeId, String key) {
+        return rateLimiter.isAllowed(routeId, key).block();
+    }
+
+    @Test
+    void testBurstIsAllowedThenRejectedWithRetryAfter() {
+        for (int i = 2; i >= 0; i--) {
+            RateLimiter.Response response = call("appointments-create", "sub:alice");
+            assertTrue(response.isAllowed());
+            assertEquals(String.valueOf(i), response.getHeaders().get("X-RateLimit-Remaining"));
+        }
+        RateLimiter.Response rejected = call("appointments-create", "sub:alice");
+        assertFalse(rejected.isAllowed());
+        assertEquals("1", rejected.getHeaders().get(HttpHeaders.RETRY_AFTER));
+
+        // Other callers and other routes have buckets of their own
+        assertTrue(call("appointments-create", "sub:bob").isAllowed());
+        assertTrue(call("doctor-routes", "sub:alice").isAllowed());
+
+        assertEquals(1, meterRegistry.counter("gateway.ratelimit.rejected", "route", "appointments-create").count());
+        assertEquals(3, meterRegistry.get("gateway.ratelimit.buckets").gauge().value());
+    }
+
+    @Test
+    void testTokensComeBackAtTheReplenishRate() {
+        assertTrue(call("doctor-routes", "ip:10.0.0.7").isAllowed());
+        assertTrue(call("doctor-routes", "ip:10.0.0.7").isAllowed());
+        assertFalse(call("doctor-routes", "ip:10.0.0.7").isAllowed());
+
+        // 10 per second: one token every 100ms, and never more than the burst capacity however long the wait
+        Mono.delay(Duration.ofMillis(300)).block();
+        int allowed = 0;
+        while (call("doctor-routes", "ip:10.0.0.7").isAllowed()) {
+            allowed++;
+        }
+        assertEquals(2, allowed);
+    }
+
+    @Test
+    void testKeyIsSubjectOrClientIp() {
+        KeyResolver keyResolver = new RateLimitConfig().principalOrClientIpKeyResolver();
+        MockServerWebExchange anonymous = MockServerWebExchange.from(MockServerHttpRequest.get("/doctors/7")
+                .remoteAddress(new InetSocketAddress("10.0.0.7", 51234))
+                .header("X-Forwarded-For", "1.2.3.4"));
+        assertEquals("ip:10.0.0.7", keyResolver.resolve(anonymous).block());
+
+        ServerWebExchange authenticated = anonymous.mutate()
+                .principal(Mono.just(new TestingAuthenticationToken("google-subject-42", null, "ROLE_USER")))
+                .build();
+        assertEquals("sub:google-subject-42", keyResolver.resolve(authenticated).block());
+    }
+}
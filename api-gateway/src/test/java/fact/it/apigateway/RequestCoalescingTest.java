@@ -0,0 +1,100 @@
+package fact.it.apigateway;
+
+import fact.it.apigateway.filter.RequestCoalescingFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescingTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestCoalescingFilter filter =
+            new RequestCoalescingFilter(List.of("doctor-timeslots"), Duration.ofMillis(200), meterRegistry);
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    // Upstream answers only once this completes, so the test decides how long a flight stays open
+    private final Sinks.Empty<Void> upstreamReady = Sinks.empty();
+
+    private final GatewayFilterChain upstream = exchange -> upstreamReady.asMono().then(Mono.defer(() -> {
+        int call = upstreamCalls.incrementAndGet();
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        byte[] body = ("[{\"call\":" + call + "}]").getBytes(StandardCharsets.UTF_8);
+        return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(body)));
+    }));
+
+    private MockServerWebExchange exchange(String routeId, MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                Route.async().id(routeId).uri("http://localhost:8083").predicate(e -> true).build());
+        return exchange;
+    }
+
+    private double count(String role) {
+        return meterRegistry.counter("gateway.coalescing.requests", "route", "doctor-timeslots", "role", role).count();
+    }
+
+    @Test
+    void testConcurrentIdenticalGetsShareOneUpstreamCall() {
+        List<MockServerWebExchange> exchanges = new ArrayList<>();
+        List<Mono<Void>> requests = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            MockServerWebExchange exchange = exchange("doctor-timeslots", MockServerHttpRequest.get("/doctors/7/timeslots"));
+            exchanges.add(exchange);
+            requests.add(filter.filter(exchange, upstream).cache());
+        }
+        requests.forEach(Mono::subscribe);
+        upstreamReady.tryEmitEmpty();
+        Mono.when(requests).block(Duration.ofSeconds(5));
+
+        assertEquals(1, upstreamCalls.get());
+        for (MockServerWebExchange exchange : exchanges) {
+            assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+            assertEquals("[{\"call\":1}]", exchange.getResponse().getBodyAsString().block());
+        }
+        assertEquals(1, count("leader"));
+        assertEquals(49, count("follower"));
+
+        // The flight is over: the next request goes upstream again
+        MockServerWebExchange later = exchange("doctor-timeslots", MockServerHttpRequest.get("/doctors/7/timeslots"));
+        filter.filter(later, upstream).block(Duration.ofSeconds(5));
+        assertEquals("[{\"call\":2}]", later.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void testWaitIsBoundedAndOtherRequestsAreLeftAlone() {
+        Mono<Void> leader = filter.filter(exchange("doctor-timeslots", MockServerHttpRequest.get("/doctors/7/timeslots")), upstream).cache();
+        leader.subscribe();
+
+        // Different URL, other route, non-GET: none of them join the open flight
+        Mono<Void> otherUrl = filter.filter(exchange("doctor-timeslots", MockServerHttpRequest.get("/doctors/8/timeslots")), upstream).cache();
+        Mono<Void> otherRoute = filter.filter(exchange("doctor-routes", MockServerHttpRequest.get("/doctors/7/timeslots")), upstream).cache();
+        Mono<Void> post = filter.filter(exchange("doctor-timeslots", MockServerHttpRequest.post("/doctors/7/timeslots")), upstream).cache();
+        List.of(otherUrl, otherRoute, post).forEach(Mono::subscribe);
+
+        // The leader is stuck, so a follower gives up after max-wait and calls upstream itself
+        MockServerWebExchange follower = exchange("doctor-timeslots", MockServerHttpRequest.get("/doctors/7/timeslots"));
+        Mono<Void> followerDone = filter.filter(follower, upstream).cache();
+        followerDone.subscribe();
+        Mono.delay(Duration.ofMillis(400)).block();
+        upstreamReady.tryEmitEmpty();
+        Mono.when(leader, otherUrl, otherRoute, post, followerDone).block(Duration.ofSeconds(5));
+
+        assertEquals(5, upstreamCalls.get());
+        assertEquals(1, count("fallback"));
+        assertNotNull(follower.getResponse().getBodyAsString().block());
+    }
+}
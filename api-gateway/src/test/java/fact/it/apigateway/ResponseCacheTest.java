@@ -0,0 +1,144 @@
+package fact.it.apigateway;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fact.it.apigateway.filter.InvalidateDoctorCacheGatewayFilterFactory;
+import fact.it.apigateway.filter.ResponseCache;
+import fact.it.apigateway.filter.ResponseCacheGatewayFilterFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private ResponseCache responseCache;
+    private GatewayFilter cacheFilter;
+    private String upstreamCacheControl;
+
+    private final GatewayFilterChain upstream = exchange -> {
+        int call = upstreamCalls.incrementAndGet();
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        if (upstreamCacheControl != null) {
+            exchange.getResponse().getHeaders().setCacheControl(upstreamCacheControl);
+        }
+        byte[] body = ("{\"call\":" + call + "}").getBytes(StandardCharsets.UTF_8);
+        return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(body)));
+    };
+
+    @BeforeEach
+    void setUp() {
+        responseCache = new ResponseCache(DataSize.ofMegabytes(1), meterRegistry);
+        ResponseCacheGatewayFilterFactory.Config config = new ResponseCacheGatewayFilterFactory.Config();
+        config.setTtl(Duration.ofMinutes(1));
+        cacheFilter = new ResponseCacheGatewayFilterFactory(responseCache, meterRegistry).apply(config);
+    }
+
+    private MockServerWebExchange get(String path, String... headers) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path);
+        for (int i = 0; i < headers.length; i += 2) {
+            request.header(headers[i], headers[i + 1]);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        cacheFilter.filter(exchange, upstream).block();
+        return exchange;
+    }
+
+    private static String body(MockServerWebExchange exchange) {
+        return exchange.getResponse().getBodyAsString().block();
+    }
+
+    @Test
+    void testRepeatedGetIsServedFromCache() {
+        MockServerWebExchange first = get("/doctors/7/timeslots?from=2030-01-07");
+        MockServerWebExchange second = get("/doctors/7/timeslots?from=2030-01-07");
+        MockServerWebExchange otherQuery = get("/doctors/7/timeslots?from=2030-01-08");
+
+        assertEquals(2, upstreamCalls.get());
+        assertEquals("MISS", first.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("HIT", second.getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals(body(first), body(second));
+        assertEquals(MediaType.APPLICATION_JSON, second.getResponse().getHeaders().getContentType());
+        assertEquals("{\"call\":2}", body(otherQuery));
+        assertEquals(1, meterRegistry.get("gateway.response.cache.served").timer().count());
+        assertEquals(1.0 / 3, meterRegistry.get("gateway.response.cache.hit.ratio").gauge().value(), 1e-9);
+    }
+
+    @Test
+    void testCacheControlIsHonoured() {
+        upstreamCacheControl = "private, max-age=60";
+        get("/doctors/1");
+        get("/doctors/1");
+        assertEquals(2, upstreamCalls.get());
+
+        upstreamCacheControl = null;
+        get("/doctors/2");
+        MockServerWebExchange revalidated = get("/doctors/2", HttpHeaders.CACHE_CONTROL, "no-cache");
+        assertEquals("{\"call\":4}", body(revalidated));
+        // The revalidated response replaced the cached one
+        assertEquals("{\"call\":4}", body(get("/doctors/2")));
+        assertEquals(4, upstreamCalls.get());
+    }
+
+    @Test
+    void testUpstreamMaxAgeShortensTheRouteTtl() {
+        HttpHeaders headers = new HttpHeaders();
+        assertEquals(Duration.ofMinutes(1), ResponseCacheGatewayFilterFactory.storableFor(headers, Duration.ofMinutes(1)));
+        headers.setCacheControl("public, max-age=600, s-maxage=5");
+        assertEquals(Duration.ofSeconds(5), ResponseCacheGatewayFilterFactory.storableFor(headers, Duration.ofMinutes(1)));
+        headers.setCacheControl("max-age=0");
+        assertTrue(ResponseCacheGatewayFilterFactory.storableFor(headers, Duration.ofMinutes(1)).isZero());
+    }
+
+    @Test
+    void testSuccessfulReservationInvalidatesThatDoctorOnly() {
+        get("/doctors/7");
+        get("/doctors/7/timeslots");
+        get("/doctors/70/timeslots");
+        InvalidateDoctorCacheGatewayFilterFactory invalidation = new InvalidateDoctorCacheGatewayFilterFactory(responseCache, new ObjectMapper());
+        GatewayFilter filter = invalidation.apply(new Object());
+
+        for (String reservation : new String[]{
+                "{\"timeslotId\":5,\"doctorId\":7,\"reserved\":false}",
+                "{\"timeslotId\":5,\"doctorId\":7,\"reserved\":true}"}) {
+            MockServerWebExchange reserve = MockServerWebExchange.from(MockServerHttpRequest.post("/timeslots/reserve"));
+            filter.filter(reserve, exchange -> {
+                exchange.getResponse().setStatusCode(HttpStatus.OK);
+                return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory()
+                        .wrap(reservation.getBytes(StandardCharsets.UTF_8))));
+            }).block();
+            assertEquals(reservation, body(reserve));
+        }
+
+        assertEquals("HIT", get("/doctors/70/timeslots").getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("MISS", get("/doctors/7/timeslots").getResponse().getHeaders().getFirst("X-Cache"));
+        assertEquals("MISS", get("/doctors/7").getResponse().getHeaders().getFirst("X-Cache"));
+    }
+
+    @Test
+    void testEntriesCachedAgainAfterInvalidationAreInvalidatedAgain() {
+        for (int round = 0; round < 3; round++) {
+            get("/doctors/7/timeslots?from=2030-01-07T00:00:00");
+            assertEquals("HIT", get("/doctors/7/timeslots?from=2030-01-07T00:00:00").getResponse().getHeaders().getFirst("X-Cache"));
+            responseCache.invalidatePath("/doctors/7");
+            assertEquals("MISS", get("/doctors/7/timeslots?from=2030-01-07T00:00:00").getResponse().getHeaders().getFirst("X-Cache"));
+            responseCache.invalidatePath("/doctors/7");
+        }
+    }
+}
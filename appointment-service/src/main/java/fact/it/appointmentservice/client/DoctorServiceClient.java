@@ -0,0 +1,61 @@
+package fact.it.appointmentservice.client;
+
+import fact.it.appointmentservice.dto.BatchReserveSlotRequest;
+import fact.it.appointmentservice.dto.HoldSlotResponse;
+import fact.it.appointmentservice.dto.ReserveSlotRequest;
+import fact.it.appointmentservice.dto.ReserveSlotResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Typed calls to doctor-service's time slot endpoints
+public class DoctorServiceClient {
+
+    private final DownstreamClient downstream;
+
+    public DoctorServiceClient(DownstreamClient downstream) {
+        this.downstream = downstream;
+    }
+
+    public Mono<HoldSlotResponse> holdSlot(Long timeslotId) {
+        return post("hold-slot", "/api/timeslot/hold", new ReserveSlotRequest(timeslotId), HoldSlotResponse.class);
+    }
+
+    public Mono<ReserveSlotResponse> confirmSlot(Long timeslotId) {
+        return post("confirm-slot", "/api/timeslot/confirm", new ReserveSlotRequest(timeslotId), ReserveSlotResponse.class);
+    }
+
+    public Mono<Boolean> releaseSlot(Long timeslotId) {
+        return post("release-slot", "/api/timeslot/release", new ReserveSlotRequest(timeslotId), Boolean.class);
+    }
+
+    // Batch variants: one result per requested id, in request order
+    public Mono<List<HoldSlotResponse>> holdSlots(List<Long> timeslotIds) {
+        return postBatch("hold-slots", "/api/timeslot/hold/batch", timeslotIds, HoldSlotResponse.class);
+    }
+
+    public Mono<List<ReserveSlotResponse>> confirmSlots(List<Long> timeslotIds) {
+        return postBatch("confirm-slots", "/api/timeslot/confirm/batch", timeslotIds, ReserveSlotResponse.class);
+    }
+
+    public Mono<List<Boolean>> releaseSlots(List<Long> timeslotIds) {
+        return postBatch("release-slots", "/api/timeslot/release/batch", timeslotIds, Boolean.class);
+    }
+
+    private <T> Mono<List<T>> postBatch(String operation, String path, List<Long> timeslotIds, Class<T> responseType) {
+        return downstream.call(operation, client -> client.post()
+                .uri(path)
+                .bodyValue(new BatchReserveSlotRequest(timeslotIds))
+                .retrieve()
+                .bodyToFlux(responseType)
+                .collectList());
+    }
+
+    private <T> Mono<T> post(String operation, String path, Object body, Class<T> responseType) {
+        return downstream.call(operation, client -> client.post()
+                .uri(path)
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(responseType));
+    }
+}
@@ -0,0 +1,164 @@
+package fact.it.appointmentservice.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+// One downstream service: its own connection pool, timeouts, bulkhead and circuit breaker.
+// Every call is timed as downstream.requests{downstream, operation, outcome};
+// rejected calls never reach the pool and are also counted as downstream.rejections{downstream, reason}.
+// Pool usage is published by Reactor Netty as reactor.netty.connection.provider.*{name=<downstream>}.
+public class DownstreamClient {
+
+    private final String name;
+    private final WebClient webClient;
+    private final ConnectionProvider connectionProvider;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final MeterRegistry meterRegistry;
+    private final Counter bulkheadRejections;
+    private final Counter circuitOpenRejections;
+
+    public DownstreamClient(String name, DownstreamProperties properties, WebClient.Builder builder, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.meterRegistry = meterRegistry;
+
+        // Reactor Netty's default pool only allows ~2x its connection count in pending acquires,
+        // which the reactive booking path overruns as soon as bookings stop being capped by Tomcat threads.
+        this.connectionProvider = ConnectionProvider.builder(name)
+                .maxConnections(properties.getMaxConnections())
+                .pendingAcquireMaxCount(properties.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .metrics(true)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getResponseTimeout());
+        this.webClient = builder
+                .baseUrl("http://" + properties.getBaseUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(properties.getSlidingWindowSize())
+                .minimumNumberOfCalls(properties.getMinimumNumberOfCalls())
+                .failureRateThreshold(properties.getFailureRateThreshold())
+                .slowCallDurationThreshold(properties.getSlowCallThreshold())
+                .waitDurationInOpenState(properties.getOpenStateWait())
+                .permittedNumberOfCallsInHalfOpenState(properties.getHalfOpenCalls())
+                // A 4xx is the caller's problem and a full bulkhead is our own back-pressure: neither means the service is down
+                .recordException(DownstreamClient::isServiceFailure)
+                .build());
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(properties.getMaxConcurrentCalls())
+                .build());
+        this.circuitBreaker = circuitBreakers.circuitBreaker(name);
+        this.bulkhead = bulkheads.bulkhead(name);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+
+        this.bulkheadRejections = rejectionCounter("bulkhead");
+        this.circuitOpenRejections = rejectionCounter("circuit_open");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    // The circuit breaker wraps the bulkhead, so an open circuit rejects before a permit is even taken
+    public <T> Mono<T> call(String operation, Function<WebClient, Mono<T>> request) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return request.apply(webClient)
+                    .transformDeferred(BulkheadOperator.of(bulkhead))
+                    .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                    .doOnSuccess(result -> sample.stop(timer(operation, "success")))
+                    .doOnError(e -> sample.stop(timer(operation, outcome(e))))
+                    .doOnCancel(() -> sample.stop(timer(operation, "cancelled")));
+        });
+    }
+
+    public void dispose() {
+        connectionProvider.dispose();
+    }
+
+    private String outcome(Throwable e) {
+        if (e instanceof BulkheadFullException) {
+            bulkheadRejections.increment();
+            return "rejected";
+        }
+        if (e instanceof CallNotPermittedException) {
+            circuitOpenRejections.increment();
+            return "rejected";
+        }
+        if (e instanceof WebClientResponseException response) {
+            return response.getStatusCode().is4xxClientError() ? "client_error" : "server_error";
+        }
+        if (isTimeout(e)) {
+            return "timeout";
+        }
+        return "error";
+    }
+
+    private static boolean isServiceFailure(Throwable e) {
+        if (e instanceof BulkheadFullException) {
+            return false;
+        }
+        return !(e instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError());
+    }
+
+    private static boolean isTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ReadTimeoutException || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return Timer.builder("downstream.requests")
+                .description("Latency of calls to a downstream service")
+                .tag("downstream", name)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private Counter rejectionCounter(String reason) {
+        return Counter.builder("downstream.rejections")
+                .description("Calls refused before reaching a downstream service")
+                .tag("downstream", name)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
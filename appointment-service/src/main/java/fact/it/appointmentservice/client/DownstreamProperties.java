@@ -0,0 +1,34 @@
+package fact.it.appointmentservice.client;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+// Tuning for one downstream service, bound from downstream.<name>.* in application.properties
+@Data
+public class DownstreamProperties {
+
+    // host:port, no protocol, no trailing slash
+    private String baseUrl;
+
+    // Connection pool
+    private int maxConnections = 200;
+    private int pendingAcquireMaxCount = 1000;
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    // Timeouts
+    private Duration connectTimeout = Duration.ofSeconds(1);
+    private Duration responseTimeout = Duration.ofSeconds(3);
+
+    // Bulkhead: calls beyond this are rejected straight away instead of queueing on the pool
+    private int maxConcurrentCalls = 200;
+
+    // Circuit breaker
+    private int slidingWindowSize = 100;
+    private int minimumNumberOfCalls = 20;
+    private float failureRateThreshold = 50;
+    private Duration slowCallThreshold = Duration.ofSeconds(2);
+    private Duration openStateWait = Duration.ofSeconds(10);
+    private int halfOpenCalls = 10;
+}
@@ -0,0 +1,44 @@
+package fact.it.appointmentservice.client;
+
+import fact.it.appointmentservice.dto.PatientLookupRequest;
+import fact.it.appointmentservice.dto.PatientResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+// Typed calls to patient-service
+public class PatientServiceClient {
+
+    static final int MAX_LOOKUP_IDS = 1000;
+
+    private final DownstreamClient downstream;
+
+    public PatientServiceClient(DownstreamClient downstream) {
+        this.downstream = downstream;
+    }
+
+    public Mono<PatientResponse> getPatient(String nationalId) {
+        return downstream.call("get-patient", client -> client.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/patient").queryParam("nationalId", nationalId).build())
+                .retrieve()
+                .bodyToMono(PatientResponse.class));
+    }
+
+    // Unknown national IDs (returned as {nationalId, found: false}) are left out of the map.
+    // patient-service caps one lookup at MAX_LOOKUP_IDS, so bigger batches go out as consecutive chunks.
+    public Mono<Map<String, PatientResponse>> lookupPatients(List<String> nationalIds) {
+        return Flux.fromIterable(nationalIds)
+                .buffer(MAX_LOOKUP_IDS)
+                .concatMap(chunk -> downstream.call("lookup-patients", client -> client.post()
+                        .uri("/api/patient/lookup")
+                        .bodyValue(new PatientLookupRequest(chunk))
+                        .retrieve()
+                        .bodyToFlux(PatientResponse.class)
+                        .collectList()))
+                .flatMapIterable(patients -> patients)
+                .filter(patient -> patient.getId() != null)
+                .collectMap(PatientResponse::getNationalId);
+    }
+}
@@ -0,0 +1,49 @@
+package fact.it.appointmentservice.config;
+
+import fact.it.appointmentservice.client.DoctorServiceClient;
+import fact.it.appointmentservice.client.DownstreamClient;
+import fact.it.appointmentservice.client.DownstreamProperties;
+import fact.it.appointmentservice.client.PatientServiceClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+// Each downstream gets its own pool and resilience settings, so a slow doctor-service
+// can only exhaust its own connections and permits, never patient-service's.
+@Configuration
+public class DownstreamClientConfig {
+
+    @Bean
+    @ConfigurationProperties("downstream.patient-service")
+    public DownstreamProperties patientServiceProperties() {
+        return new DownstreamProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("downstream.doctor-service")
+    public DownstreamProperties doctorServiceProperties() {
+        return new DownstreamProperties();
+    }
+
+    @Bean
+    public PatientServiceClient patientServiceClient(WebClient.Builder builder, MeterRegistry meterRegistry) {
+        return new PatientServiceClient(patientServiceDownstream(builder, meterRegistry));
+    }
+
+    @Bean
+    public DoctorServiceClient doctorServiceClient(WebClient.Builder builder, MeterRegistry meterRegistry) {
+        return new DoctorServiceClient(doctorServiceDownstream(builder, meterRegistry));
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public DownstreamClient patientServiceDownstream(WebClient.Builder builder, MeterRegistry meterRegistry) {
+        return new DownstreamClient("patient-service", patientServiceProperties(), builder.clone(), meterRegistry);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public DownstreamClient doctorServiceDownstream(WebClient.Builder builder, MeterRegistry meterRegistry) {
+        return new DownstreamClient("doctor-service", doctorServiceProperties(), builder.clone(), meterRegistry);
+    }
+}
@@ -0,0 +1,20 @@
+package fact.it.appointmentservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class SchedulerConfig {
+
+    // Blocking JPA calls from the reactive booking path run here.
+    // Sized like the Hikari pool so we never queue more threads than there are connections.
+    @Bean(destroyMethod = "dispose")
+    public Scheduler persistenceScheduler(
+            @Value("${appointment.persistence.threads:10}") int threads,
+            @Value("${appointment.persistence.queue-size:10000}") int queueSize) {
+        return Schedulers.newBoundedElastic(threads, queueSize, "appointment-db");
+    }
+}
@@ -1,13 +1,27 @@
 package fact.it.appointmentservice.controller;
 
-import fact.it.appointmentservice.dto.AppointmentRequest;
-import fact.it.appointmentservice.dto.AppointmentResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import fact.it.appointmentservice.dto.*;
 import fact.it.appointmentservice.service.AppointmentService;
+import fact.it.appointmentservice.service.IdempotencyStore;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/appointment")
@@ -15,17 +29,104 @@ import java.util.List;
 public class AppointmentController {
 
     private final AppointmentService appointmentService;
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    @Value("${appointment.booking.reactive:true}")
+    private boolean reactiveBooking;
+
+    // With an Idempotency-Key, retries of the same booking return the first outcome instead of booking again
     @PostMapping
     @ResponseStatus(HttpStatus.OK)
-    public String placeAppointment(@RequestBody AppointmentRequest request) {
-        boolean result = appointmentService.placeAppointment(request);
-        return result ? "Appointment booked successfully" : "Appointment booking failed";
+    public Mono<String> placeAppointment(@RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                         @RequestBody AppointmentRequest request) {
+        Supplier<Mono<Boolean>> booking = () -> reactiveBooking
+                ? appointmentService.placeAppointmentAsync(request)
+                : Mono.fromCallable(() -> appointmentService.placeAppointment(request));
+        Mono<Boolean> result = idempotencyKey == null || idempotencyKey.isBlank()
+                ? booking.get()
+                : idempotencyStore.execute(idempotencyKey, request, booking)
+                        .onErrorMap(IdempotencyStore.IdempotencyKeyReusedException.class,
+                                e -> new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage()));
+        return result.map(ok -> ok ? "Appointment booked successfully" : "Appointment booking failed");
     }
 
-    @GetMapping
+    @PostMapping("/batch")
     @ResponseStatus(HttpStatus.OK)
-    public List<AppointmentResponse> getAllAppointments() {
-        return appointmentService.getAllAppointments();
+    public Mono<List<AppointmentBatchItemResponse>> placeAppointments(@RequestBody List<AppointmentRequest> requests) {
+        return appointmentService.placeAppointments(requests);
+    }
+
+    // /api/appointment?doctorId=1&limit=100, then ?after=<X-Next-Cursor> for the next page
+    @GetMapping
+    public ResponseEntity<List<AppointmentResponse>> getAppointments(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Long doctorId,
+            @RequestParam(required = false) String patientId,
+            @RequestParam(required = false) Long timeslotId) {
+        return pageResponse(appointmentService.getAppointments(new AppointmentFilter(doctorId, patientId, timeslotId), after, limit));
+    }
+
+    @GetMapping("/patient/{patientId}")
+    public ResponseEntity<List<AppointmentResponse>> getAppointmentsByPatient(
+            @PathVariable String patientId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        return pageResponse(appointmentService.getAppointmentsByPatient(patientId, after, limit));
+    }
+
+    @GetMapping("/doctor/{doctorId}")
+    public ResponseEntity<List<AppointmentResponse>> getAppointmentsByDoctor(
+            @PathVariable Long doctorId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        return pageResponse(appointmentService.getAppointmentsByDoctor(doctorId, after, limit));
+    }
+
+    // 404 for an unknown number
+    @GetMapping("/number/{appointmentNumber}")
+    public ResponseEntity<AppointmentResponse> getAppointment(@PathVariable String appointmentNumber) {
+        return ResponseEntity.of(appointmentService.getAppointment(appointmentNumber));
+    }
+
+    // One JSON object per line, written while the rows are read, so memory stays flat for any table size.
+    // Written on the request thread on purpose: a long export must not hit the async request timeout.
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamAppointments(
+            @RequestParam(required = false) Long doctorId,
+            @RequestParam(required = false) String patientId,
+            @RequestParam(required = false) Long timeslotId,
+            HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        ObjectWriter writer = objectMapper.writerFor(AppointmentResponse.class);
+        OutputStream out = response.getOutputStream();
+        appointmentService.streamAppointments(new AppointmentFilter(doctorId, patientId, timeslotId), row -> {
+            try {
+                out.write(writer.writeValueAsBytes(row));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.flush();
+    }
+
+    // A downstream that is shedding load or has its circuit open answers fast with 503, so clients can back off
+    @ExceptionHandler({CallNotPermittedException.class, BulkheadFullException.class})
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String downstreamUnavailable(RuntimeException e) {
+        return e.getMessage();
+    }
+
+    private ResponseEntity<List<AppointmentResponse>> pageResponse(AppointmentPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor().toString());
+        }
+        return response.body(page.getItems());
     }
 }
@@ -0,0 +1,21 @@
+package fact.it.appointmentservice.controller;
+
+import fact.it.appointmentservice.service.PatientCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+// Called by patient-service whenever a patient is updated or deleted
+@RestController
+@RequestMapping("/api/cache/patient")
+@RequiredArgsConstructor
+public class PatientCacheController {
+
+    private final PatientCache patientCache;
+
+    @DeleteMapping("/{nationalId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void invalidate(@PathVariable String nationalId) {
+        patientCache.invalidate(nationalId);
+    }
+}
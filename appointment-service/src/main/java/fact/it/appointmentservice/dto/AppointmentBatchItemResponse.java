@@ -0,0 +1,18 @@
+package fact.it.appointmentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AppointmentBatchItemResponse {
+    private String patientNationalId;
+    private Long timeslotId;
+    private boolean booked;
+    private String appointmentNumber; // only set when booked
+    private String message;
+}
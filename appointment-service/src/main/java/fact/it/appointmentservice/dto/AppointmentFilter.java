@@ -0,0 +1,17 @@
+package fact.it.appointmentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Optional listing filters; null fields are ignored
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AppointmentFilter {
+    private Long doctorId;
+    private String patientId;
+    private Long timeslotId;
+}
@@ -0,0 +1,17 @@
+package fact.it.appointmentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AppointmentPage {
+    private List<AppointmentResponse> items;
+    private Long nextCursor; // null on the last page
+}
@@ -13,4 +13,5 @@ public class AppointmentResponse {
     private Long doctorId;
     private Long timeslotId;
     private String reason;
+    private Long id; // keyset cursor for paging
 }
@@ -0,0 +1,19 @@
+package fact.it.appointmentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class HoldSlotResponse {
+    private Long timeslotId;
+    private boolean held;
+    private LocalDateTime heldUntil;
+    private String message;
+}
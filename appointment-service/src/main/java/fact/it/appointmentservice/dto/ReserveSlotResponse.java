@@ -10,6 +10,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 public class ReserveSlotResponse {
+    private Long timeslotId;
     private boolean reserved;
     private String message;
 }
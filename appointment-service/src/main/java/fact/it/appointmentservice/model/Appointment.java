@@ -3,8 +3,15 @@ package fact.it.appointmentservice.model;
 import jakarta.persistence.*;
 import lombok.*;
 
+// InnoDB secondary indexes carry the primary key, so the patient/doctor indexes also serve "... AND id > ? ORDER BY id".
+// The unique timeslot index is the last line of defence against double bookings.
 @Entity
-@Table(name = "appointment")
+@Table(name = "appointment", indexes = {
+        @Index(name = "ux_appointment_number", columnList = "appointment_number", unique = true),
+        @Index(name = "ux_appointment_timeslot", columnList = "timeslot_id", unique = true),
+        @Index(name = "ix_appointment_patient", columnList = "patient_id"),
+        @Index(name = "ix_appointment_doctor", columnList = "doctor_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
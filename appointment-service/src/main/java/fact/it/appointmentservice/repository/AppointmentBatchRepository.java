@@ -0,0 +1,9 @@
+package fact.it.appointmentservice.repository;
+
+import fact.it.appointmentservice.model.Appointment;
+
+import java.util.List;
+
+public interface AppointmentBatchRepository {
+    void insertAll(List<Appointment> appointments);
+}
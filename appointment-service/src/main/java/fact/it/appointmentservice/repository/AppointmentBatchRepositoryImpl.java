@@ -0,0 +1,38 @@
+package fact.it.appointmentservice.repository;
+
+import fact.it.appointmentservice.model.Appointment;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// IDENTITY ids stop Hibernate from batching inserts, so bulk inserts go straight through JDBC.
+// Together with rewriteBatchedStatements on the MySQL URL each chunk becomes one multi-row INSERT.
+@RequiredArgsConstructor
+public class AppointmentBatchRepositoryImpl implements AppointmentBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO appointment (appointment_number, patient_id, doctor_id, timeslot_id, reason) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${appointment.batch.insert-size:500}")
+    private int insertBatchSize;
+
+    @Override
+    @Transactional
+    public void insertAll(List<Appointment> appointments) {
+        if (appointments.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, appointments, insertBatchSize, (ps, a) -> {
+            ps.setString(1, a.getAppointmentNumber());
+            ps.setString(2, a.getPatientId());
+            ps.setObject(3, a.getDoctorId());
+            ps.setObject(4, a.getTimeslotId());
+            ps.setString(5, a.getReason());
+        });
+    }
+}
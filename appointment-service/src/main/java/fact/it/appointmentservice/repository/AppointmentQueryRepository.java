@@ -0,0 +1,13 @@
+package fact.it.appointmentservice.repository;
+
+import fact.it.appointmentservice.dto.AppointmentFilter;
+import fact.it.appointmentservice.dto.AppointmentResponse;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface AppointmentQueryRepository {
+    List<AppointmentResponse> findPage(AppointmentFilter filter, long afterId, int limit);
+
+    void streamAll(AppointmentFilter filter, Consumer<AppointmentResponse> consumer);
+}
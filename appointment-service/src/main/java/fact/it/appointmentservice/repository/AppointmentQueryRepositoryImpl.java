@@ -0,0 +1,82 @@
+package fact.it.appointmentservice.repository;
+
+import fact.it.appointmentservice.dto.AppointmentFilter;
+import fact.it.appointmentservice.dto.AppointmentResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Listing reads rows straight into AppointmentResponse, without entities or a persistence context.
+// Paging is keyset on the primary key (id > cursor ORDER BY id), so every page costs the same however deep it is.
+@RequiredArgsConstructor
+public class AppointmentQueryRepositoryImpl implements AppointmentQueryRepository {
+
+    private static final String SELECT =
+            "SELECT id, appointment_number, patient_id, doctor_id, timeslot_id, reason FROM appointment WHERE id > ?";
+
+    private static final RowMapper<AppointmentResponse> ROW_MAPPER = (rs, rowNum) -> new AppointmentResponse(
+            rs.getString("appointment_number"),
+            rs.getString("patient_id"),
+            rs.getObject("doctor_id", Long.class),
+            rs.getObject("timeslot_id", Long.class),
+            rs.getString("reason"),
+            rs.getLong("id"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${appointment.stream.fetch-size:500}")
+    private int streamFetchSize;
+
+    @Override
+    public List<AppointmentResponse> findPage(AppointmentFilter filter, long afterId, int limit) {
+        List<Object> args = new ArrayList<>();
+        args.add(afterId);
+        String sql = SELECT + where(filter, args) + " ORDER BY id LIMIT ?";
+        args.add(limit);
+        return jdbcTemplate.query(sql, ROW_MAPPER, args.toArray());
+    }
+
+    // Rows are handed to the consumer while the cursor is open; nothing is collected.
+    // MySQL Connector/J buffers whole result sets unless the fetch size is Integer.MIN_VALUE (see application.properties).
+    @Override
+    public void streamAll(AppointmentFilter filter, Consumer<AppointmentResponse> consumer) {
+        List<Object> args = new ArrayList<>();
+        args.add(0L);
+        String sql = SELECT + where(filter, args) + " ORDER BY id";
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(sql);
+            ps.setFetchSize(streamFetchSize);
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        }, rs -> {
+            consumer.accept(ROW_MAPPER.mapRow(rs, 0));
+        });
+    }
+
+    private String where(AppointmentFilter filter, List<Object> args) {
+        if (filter == null) {
+            return "";
+        }
+        StringBuilder where = new StringBuilder();
+        if (filter.getDoctorId() != null) {
+            where.append(" AND doctor_id = ?");
+            args.add(filter.getDoctorId());
+        }
+        if (filter.getPatientId() != null) {
+            where.append(" AND patient_id = ?");
+            args.add(filter.getPatientId());
+        }
+        if (filter.getTimeslotId() != null) {
+            where.append(" AND timeslot_id = ?");
+            args.add(filter.getTimeslotId());
+        }
+        return where.toString();
+    }
+}
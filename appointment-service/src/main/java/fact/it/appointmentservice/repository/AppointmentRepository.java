@@ -1,9 +1,38 @@
 package fact.it.appointmentservice.repository;
 
+import fact.it.appointmentservice.dto.AppointmentResponse;
 import fact.it.appointmentservice.model.Appointment;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
-}
\ No newline at end of file
+public interface AppointmentRepository extends JpaRepository<Appointment, Long>, AppointmentBatchRepository, AppointmentQueryRepository {
+
+    // Constructor projections: rows go straight into the response DTO, no managed entities
+    @Query("select new fact.it.appointmentservice.dto.AppointmentResponse(a.appointmentNumber, a.patientId, a.doctorId, a.timeslotId, a.reason, a.id) " +
+            "from Appointment a where a.patientId = :patientId and a.id > :after order by a.id")
+    List<AppointmentResponse> findByPatientId(@Param("patientId") String patientId, @Param("after") Long after, Limit limit);
+
+    @Query("select new fact.it.appointmentservice.dto.AppointmentResponse(a.appointmentNumber, a.patientId, a.doctorId, a.timeslotId, a.reason, a.id) " +
+            "from Appointment a where a.doctorId = :doctorId and a.id > :after order by a.id")
+    List<AppointmentResponse> findByDoctorId(@Param("doctorId") Long doctorId, @Param("after") Long after, Limit limit);
+
+    @Query("select new fact.it.appointmentservice.dto.AppointmentResponse(a.appointmentNumber, a.patientId, a.doctorId, a.timeslotId, a.reason, a.id) " +
+            "from Appointment a where a.appointmentNumber = :appointmentNumber")
+    Optional<AppointmentResponse> findByAppointmentNumber(@Param("appointmentNumber") String appointmentNumber);
+
+    // Batch-inserted rows carry no generated id, so they are removed by their number
+    @Modifying
+    @Transactional
+    @Query("delete from Appointment a where a.appointmentNumber in :appointmentNumbers")
+    int deleteByAppointmentNumbers(@Param("appointmentNumbers") Collection<String> appointmentNumbers);
+}
@@ -1,80 +1,333 @@
 package fact.it.appointmentservice.service;
 
+import fact.it.appointmentservice.client.DoctorServiceClient;
+import fact.it.appointmentservice.client.PatientServiceClient;
 import fact.it.appointmentservice.dto.*;
 import fact.it.appointmentservice.model.Appointment;
 import fact.it.appointmentservice.repository.AppointmentRepository;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
-@Transactional
 public class AppointmentService {
 
     private final AppointmentRepository appointmentRepository;
-    private final WebClient webClient;
+    private final PatientServiceClient patientServiceClient;
+    private final DoctorServiceClient doctorServiceClient;
+    private final Scheduler persistenceScheduler;
+    private final PatientCache patientCache;
 
-    @Value("${patientservice.baseurl}")
-    private String patientServiceBaseUrl;
+    @Value("${appointment.page.default-size:100}")
+    private int defaultPageSize;
 
-    @Value("${doctorservice.baseurl}")
-    private String doctorServiceBaseUrl;
+    @Value("${appointment.page.max-size:1000}")
+    private int maxPageSize;
 
+    // Blocking mode: the same hold, insert, confirm flow as placeAppointmentAsync, but the calling thread waits
+    // on every downstream call and runs the JPA calls itself, so the two modes can be compared end to end.
     public boolean placeAppointment(AppointmentRequest request) {
-        // 1) Fetch patient by nationalId from patient-service (assumes patient-service on 8080)
-        PatientResponse patient = webClient.get()
-                .uri("http://" + patientServiceBaseUrl + "/api/patient",
-                        uriBuilder -> uriBuilder.queryParam("nationalId", request.getPatientNationalId()).build())
-                .retrieve()
-                .bodyToMono(PatientResponse.class)
-                .block();
-
+        Long timeslotId = request.getTimeslotId();
+        PatientResponse patient = fetchPatient(request.getPatientNationalId()).block();
         if (patient == null || patient.getId() == null) {
-            return false; // patient not found
+            return false;
+        }
+        HoldSlotResponse hold = holdSlot(timeslotId).block();
+        if (hold == null || !hold.isHeld()) {
+            return false;
         }
 
-        ReserveSlotResponse reserve = webClient.post()
-                .uri("http://" + doctorServiceBaseUrl + "/api/timeslot/reserve")
-                .bodyValue(new ReserveSlotRequest(request.getTimeslotId()))
-                .retrieve()
-                .bodyToMono(ReserveSlotResponse.class)
-                .block();
+        Appointment saved;
+        try {
+            saved = appointmentRepository.save(buildAppointment(request, patient));
+        } catch (RuntimeException e) {
+            releaseSlot(timeslotId).block();
+            // a duplicate key on timeslot_id means the slot is already booked: a normal rejection, not a 500
+            if (e instanceof DataIntegrityViolationException) {
+                return false;
+            }
+            throw e;
+        }
+
+        ReserveSlotResponse confirm;
+        try {
+            confirm = confirmSlot(timeslotId).block();
+        } catch (RuntimeException e) {
+            deleteAppointment(saved);
+            throw e;
+        }
+        if (confirm == null || !confirm.isReserved()) {
+            // hold expired before we confirmed: the slot may already belong to someone else
+            deleteAppointment(saved);
+            return false;
+        }
+        return true;
+    }
+
+    // Reactive mode: downstream calls are chained without holding a thread,
+    // only the JPA calls are offloaded to the bounded persistence scheduler.
+    // The slot is only held while the appointment is inserted, and confirmed afterwards,
+    // so a failed insert hands the slot straight back instead of leaking it.
+    public Mono<Boolean> placeAppointmentAsync(AppointmentRequest request) {
+        Long timeslotId = request.getTimeslotId();
+        return fetchPatient(request.getPatientNationalId())
+                .filter(patient -> patient.getId() != null)
+                .flatMap(patient -> holdSlot(timeslotId)
+                        .filter(HoldSlotResponse::isHeld)
+                        .flatMap(hold -> onPersistence(() -> appointmentRepository.save(buildAppointment(request, patient)))
+                                // a duplicate key on timeslot_id means the slot is already booked: a normal rejection, not a 500
+                                .onErrorResume(e -> releaseSlot(timeslotId).then(e instanceof DataIntegrityViolationException
+                                        ? Mono.empty() : Mono.error(e))))
+                        .flatMap(saved -> confirmSlot(timeslotId)
+                                .filter(ReserveSlotResponse::isReserved)
+                                // hold expired before we confirmed: the slot may already belong to someone else
+                                .switchIfEmpty(onPersistence(() -> deleteAppointment(saved)).then(Mono.empty()))
+                                .onErrorResume(e -> onPersistence(() -> deleteAppointment(saved)).then(Mono.error(e)))))
+                .map(confirmed -> true)
+                .defaultIfEmpty(false);
+    }
 
-        if (reserve == null || !reserve.isReserved()) {
-            return false; // reservation failed or already reserved
+    // Whole batch costs one patient lookup, one hold call, one batched insert and one confirm call.
+    // As for a single booking the slots are only held while the rows are inserted, so a failed insert
+    // hands them back. Each item gets its own status so a bad row never aborts the rest of the import.
+    public Mono<List<AppointmentBatchItemResponse>> placeAppointments(List<AppointmentRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return Mono.just(List.of());
         }
+        List<String> nationalIds = requests.stream()
+                .map(AppointmentRequest::getPatientNationalId)
+                .distinct()
+                .toList();
+
+        return lookupPatients(nationalIds).flatMap(patients -> {
+            AppointmentBatchItemResponse[] results = new AppointmentBatchItemResponse[requests.size()];
+            List<Integer> candidates = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                if (patients.containsKey(requests.get(i).getPatientNationalId())) {
+                    candidates.add(i);
+                } else {
+                    results[i] = failed(requests.get(i), "Patient not found");
+                }
+            }
+            if (candidates.isEmpty()) {
+                return Mono.just(Arrays.asList(results));
+            }
+
+            List<Long> timeslotIds = candidates.stream()
+                    .map(i -> requests.get(i).getTimeslotId())
+                    .toList();
+
+            return holdSlots(timeslotIds).flatMap(holds -> {
+                Map<Integer, Appointment> toInsert = new LinkedHashMap<>();
+                for (int c = 0; c < candidates.size(); c++) {
+                    int i = candidates.get(c);
+                    AppointmentRequest request = requests.get(i);
+                    HoldSlotResponse hold = c < holds.size() ? holds.get(c) : null;
+                    if (hold == null || !hold.isHeld()) {
+                        results[i] = failed(request, hold != null ? hold.getMessage() : "Time slot reservation failed");
+                    } else {
+                        toInsert.put(i, buildAppointment(request, patients.get(request.getPatientNationalId())));
+                    }
+                }
+                if (toInsert.isEmpty()) {
+                    return Mono.just(Arrays.asList(results));
+                }
 
-        Appointment appt = Appointment.builder()
+                return onPersistence(() -> insertAll(toInsert))
+                        .onErrorResume(e -> Mono.just(Map.of()))
+                        .flatMap(saved -> {
+                            List<Appointment> notSaved = new ArrayList<>();
+                            toInsert.forEach((i, appt) -> {
+                                if (!saved.containsKey(i)) {
+                                    results[i] = failed(requests.get(i), "Persisting appointment failed");
+                                    notSaved.add(appt);
+                                }
+                            });
+                            Mono<Void> release = notSaved.isEmpty() ? Mono.empty() : releaseSlots(timeslotIdsOf(notSaved));
+                            return release.then(confirmInserted(requests, saved, results));
+                        })
+                        .thenReturn(Arrays.asList(results));
+            });
+        });
+    }
+
+    // One duplicate timeslot_id fails the whole JDBC batch, so on failure every row is inserted on its own
+    // and only the rows that really are bad fail. Returns the rows that were saved.
+    private Map<Integer, Appointment> insertAll(Map<Integer, Appointment> rows) {
+        try {
+            appointmentRepository.insertAll(new ArrayList<>(rows.values()));
+            return rows;
+        } catch (RuntimeException batchFailure) {
+            Map<Integer, Appointment> saved = new LinkedHashMap<>();
+            rows.forEach((i, appt) -> {
+                try {
+                    appointmentRepository.insertAll(List.of(appt));
+                    saved.put(i, appt);
+                } catch (RuntimeException rowFailure) {
+                    // reported as failed by the caller
+                }
+            });
+            return saved;
+        }
+    }
+
+    // Rows whose hold expired before the confirm, or whose confirm call failed, are deleted again
+    private Mono<Void> confirmInserted(List<AppointmentRequest> requests, Map<Integer, Appointment> saved,
+                                       AppointmentBatchItemResponse[] results) {
+        if (saved.isEmpty()) {
+            return Mono.empty();
+        }
+        return doctorServiceClient.confirmSlots(timeslotIdsOf(saved.values()))
+                .onErrorResume(e -> Mono.just(List.of()))
+                .flatMap(confirmations -> {
+                    List<String> unconfirmed = new ArrayList<>();
+                    int c = 0;
+                    for (Map.Entry<Integer, Appointment> entry : saved.entrySet()) {
+                        ReserveSlotResponse confirm = c < confirmations.size() ? confirmations.get(c) : null;
+                        c++;
+                        AppointmentRequest request = requests.get(entry.getKey());
+                        if (confirm != null && confirm.isReserved()) {
+                            results[entry.getKey()] = booked(request, entry.getValue());
+                        } else {
+                            results[entry.getKey()] = failed(request, confirm != null ? confirm.getMessage() : "Time slot confirmation failed");
+                            unconfirmed.add(entry.getValue().getAppointmentNumber());
+                        }
+                    }
+                    // Not released: a lapsed hold may already be someone else's, and a live one expires on its own
+                    return unconfirmed.isEmpty() ? Mono.empty()
+                            : onPersistence(() -> appointmentRepository.deleteByAppointmentNumbers(unconfirmed)).then();
+                });
+    }
+
+    // Keyset page: pass the previous page's nextCursor as `after` to continue
+    public AppointmentPage getAppointments(AppointmentFilter filter, Long after, Integer limit) {
+        return page(after, limit, (cursor, size) -> appointmentRepository.findPage(filter, cursor, size));
+    }
+
+    public AppointmentPage getAppointmentsByPatient(String patientId, Long after, Integer limit) {
+        return page(after, limit, (cursor, size) -> appointmentRepository.findByPatientId(patientId, cursor, Limit.of(size)));
+    }
+
+    public AppointmentPage getAppointmentsByDoctor(Long doctorId, Long after, Integer limit) {
+        return page(after, limit, (cursor, size) -> appointmentRepository.findByDoctorId(doctorId, cursor, Limit.of(size)));
+    }
+
+    public Optional<AppointmentResponse> getAppointment(String appointmentNumber) {
+        return appointmentRepository.findByAppointmentNumber(appointmentNumber);
+    }
+
+    public void streamAppointments(AppointmentFilter filter, Consumer<AppointmentResponse> consumer) {
+        appointmentRepository.streamAll(filter, consumer);
+    }
+
+    private AppointmentPage page(Long after, Integer limit, BiFunction<Long, Integer, List<AppointmentResponse>> fetch) {
+        int size = limit == null || limit <= 0 ? defaultPageSize : Math.min(limit, maxPageSize);
+        // One extra row tells us whether another page exists without a COUNT
+        List<AppointmentResponse> rows = fetch.apply(after == null ? 0L : after, size + 1);
+        if (rows.size() <= size) {
+            return AppointmentPage.builder().items(rows).build();
+        }
+        List<AppointmentResponse> items = rows.subList(0, size);
+        return AppointmentPage.builder()
+                .items(items)
+                .nextCursor(items.get(size - 1).getId())
+                .build();
+    }
+
+    private Mono<PatientResponse> fetchPatient(String nationalId) {
+        return patientCache.get(nationalId, patientServiceClient::getPatient);
+    }
+
+    private Mono<HoldSlotResponse> holdSlot(Long timeslotId) {
+        return doctorServiceClient.holdSlot(timeslotId);
+    }
+
+    private Mono<ReserveSlotResponse> confirmSlot(Long timeslotId) {
+        return doctorServiceClient.confirmSlot(timeslotId);
+    }
+
+    // Best effort: if this call is lost too, the hold still expires on its own in doctor-service
+    private Mono<Void> releaseSlot(Long timeslotId) {
+        return doctorServiceClient.releaseSlot(timeslotId)
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    private <T> Mono<T> onPersistence(Callable<T> work) {
+        return Mono.fromCallable(work).subscribeOn(persistenceScheduler);
+    }
+
+    private Appointment deleteAppointment(Appointment appointment) {
+        appointmentRepository.delete(appointment);
+        return appointment;
+    }
+
+    private Mono<Map<String, PatientResponse>> lookupPatients(List<String> nationalIds) {
+        return patientCache.getAll(nationalIds, missing -> patientServiceClient.lookupPatients(List.copyOf(missing)));
+    }
+
+    private Mono<List<HoldSlotResponse>> holdSlots(List<Long> timeslotIds) {
+        return doctorServiceClient.holdSlots(timeslotIds);
+    }
+
+    // Best effort, like releaseSlot
+    private Mono<Void> releaseSlots(List<Long> timeslotIds) {
+        return doctorServiceClient.releaseSlots(timeslotIds)
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    private static List<Long> timeslotIdsOf(Collection<Appointment> appointments) {
+        return appointments.stream().map(Appointment::getTimeslotId).toList();
+    }
+
+    private AppointmentBatchItemResponse booked(AppointmentRequest request, Appointment appt) {
+        return AppointmentBatchItemResponse.builder()
+                .patientNationalId(request.getPatientNationalId())
+                .timeslotId(request.getTimeslotId())
+                .booked(true)
+                .appointmentNumber(appt.getAppointmentNumber())
+                .message("Appointment booked successfully")
+                .build();
+    }
+
+    private AppointmentBatchItemResponse failed(AppointmentRequest request, String message) {
+        return AppointmentBatchItemResponse.builder()
+                .patientNationalId(request.getPatientNationalId())
+                .timeslotId(request.getTimeslotId())
+                .booked(false)
+                .message(message)
+                .build();
+    }
+
+    private Appointment buildAppointment(AppointmentRequest request, PatientResponse patient) {
+        return Appointment.builder()
                 .appointmentNumber(UUID.randomUUID().toString())
                 .patientId(patient.getId())
                 .doctorId(request.getDoctorId())
                 .timeslotId(request.getTimeslotId())
                 .reason(request.getReason())
                 .build();
-
-        appointmentRepository.save(appt);
-        return true;
-    }
-
-    public List<AppointmentResponse> getAllAppointments() {
-        return appointmentRepository.findAll().stream()
-                .map(this::mapToResponse)
-                .toList();
     }
 
-    private AppointmentResponse mapToResponse(Appointment a) {
+    AppointmentResponse mapToResponse(Appointment a) {
         return new AppointmentResponse(
                 a.getAppointmentNumber(),
                 a.getPatientId(),
                 a.getDoctorId(),
                 a.getTimeslotId(),
-                a.getReason()
+                a.getReason(),
+                a.getId()
         );
     }
 }
@@ -0,0 +1,68 @@
+package fact.it.appointmentservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import fact.it.appointmentservice.dto.AppointmentRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+// Dedupe store behind the Idempotency-Key header of POST /api/appointment.
+// The first request for a key runs the booking; retries, concurrent or later, get the same future and
+// never reach patient-service or doctor-service. Failed bookings are forgotten so the client can retry them.
+@Component
+public class IdempotencyStore {
+
+    private final Cache<String, Execution> executions;
+    private final Counter replays;
+
+    public IdempotencyStore(@Value("${appointment.idempotency.max-size:100000}") long maxSize,
+                            @Value("${appointment.idempotency.ttl:24h}") Duration ttl,
+                            MeterRegistry meterRegistry) {
+        this.executions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.replays = meterRegistry.counter("appointment.idempotency.replays");
+    }
+
+    public Mono<Boolean> execute(String key, AppointmentRequest request, Supplier<Mono<Boolean>> booking) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        Execution execution = new Execution(request, result);
+        Execution existing = executions.asMap().putIfAbsent(key, execution);
+        if (existing != null) {
+            if (!existing.request().equals(request)) {
+                return Mono.error(new IdempotencyKeyReusedException(key));
+            }
+            replays.increment();
+            // suppressCancel: a retry giving up must not cancel the booking the first request started
+            return Mono.fromFuture(existing.result(), true);
+        }
+
+        // defer: a supplier that throws fails this future like an error signal would, instead of leaving it pending
+        Mono.defer(booking).toFuture().whenComplete((booked, error) -> {
+            if (error != null) {
+                executions.asMap().remove(key, execution);
+                result.completeExceptionally(error);
+            } else {
+                result.complete(booked);
+            }
+        });
+        return Mono.fromFuture(result, true);
+    }
+
+    private record Execution(AppointmentRequest request, CompletableFuture<Boolean> result) {
+    }
+
+    public static class IdempotencyKeyReusedException extends RuntimeException {
+        public IdempotencyKeyReusedException(String key) {
+            super("Idempotency-Key " + key + " was already used for a different request");
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package fact.it.appointmentservice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import fact.it.appointmentservice.dto.PatientResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+// Near cache for patient-service lookups, keyed by nationalId.
+// Loads are shared through the cached future, so concurrent misses for one key make a single remote call.
+// Unknown patients are not cached (an empty load completes with null, which Caffeine drops).
+@Component
+public class PatientCache {
+
+    private final AsyncCache<String, PatientResponse> cache;
+
+    public PatientCache(@Value("${patient.cache.max-size:10000}") long maxSize,
+                        @Value("${patient.cache.ttl:5m}") Duration ttl,
+                        MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        // Exposes cache.gets{result=hit|miss}, cache.evictions, cache.size, ... under cache=patients
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "patients");
+    }
+
+    public Mono<PatientResponse> get(String nationalId, Function<String, Mono<PatientResponse>> loader) {
+        // suppressCancel: one caller giving up must not cancel the load other callers are waiting on
+        return Mono.fromFuture(() -> cache.get(nationalId, (key, executor) -> loader.apply(key).toFuture()), true);
+    }
+
+    public Mono<Map<String, PatientResponse>> getAll(Collection<String> nationalIds,
+                                                     Function<Set<String>, Mono<Map<String, PatientResponse>>> loader) {
+        return Mono.fromFuture(() -> cache.getAll(nationalIds,
+                (missing, executor) -> loader.apply(Set.copyOf(missing)).toFuture()), true);
+    }
+
+    // Removes the cached future even while its load is in flight: callers already waiting still get that answer,
+    // but it is never stored, so a patient that changed mid-load is fetched again by the next get
+    public void invalidate(String nationalId) {
+        cache.asMap().remove(nationalId);
+    }
+}
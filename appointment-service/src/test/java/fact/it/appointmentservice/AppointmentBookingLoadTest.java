@@ -0,0 +1,211 @@
+package fact.it.appointmentservice;
+
+import fact.it.appointmentservice.client.DoctorServiceClient;
+import fact.it.appointmentservice.client.DownstreamClient;
+import fact.it.appointmentservice.client.DownstreamProperties;
+import fact.it.appointmentservice.client.PatientServiceClient;
+import fact.it.appointmentservice.dto.AppointmentRequest;
+import fact.it.appointmentservice.model.Appointment;
+import fact.it.appointmentservice.repository.AppointmentRepository;
+import fact.it.appointmentservice.service.AppointmentService;
+import fact.it.appointmentservice.service.PatientCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares the blocking and reactive booking modes against slow stubbed downstreams.
+ * Run with: mvn test -Dloadtest=true -Dtest=AppointmentBookingLoadTest
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class AppointmentBookingLoadTest {
+
+    private static final int REQUESTS = Integer.getInteger("loadtest.requests", 1000);
+    private static final int SERVLET_THREADS = Integer.getInteger("loadtest.servletThreads", 50);
+    private static final int DOWNSTREAM_DELAY_MS = Integer.getInteger("loadtest.delayMs", 100);
+
+    private DisposableServer stub;
+    private Scheduler persistenceScheduler;
+    private DownstreamClient patientDownstream;
+    private DownstreamClient doctorDownstream;
+    private AppointmentService appointmentService;
+
+    @BeforeEach
+    void setUp() {
+        // Non-blocking stub so the injected delay never turns the stub itself into the bottleneck
+        stub = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes
+                        .get("/api/patient", (req, res) -> respondLater(res,
+                                "{\"id\":\"pat-1\",\"nationalId\":\"BEL123\"}"))
+                        .post("/api/timeslot/hold", (req, res) -> req.receive().then()
+                                .then(respondLater(res, "{\"held\":true,\"message\":\"Time slot held\"}")))
+                        .post("/api/timeslot/confirm", (req, res) -> req.receive().then()
+                                .then(respondLater(res, "{\"reserved\":true,\"message\":\"ok\"}"))))
+                .bindNow();
+
+        AppointmentRepository repository = mock(AppointmentRepository.class);
+        when(repository.save(any(Appointment.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        patientDownstream = new DownstreamClient("patient-service", stubProperties(), WebClient.builder(), meterRegistry);
+        doctorDownstream = new DownstreamClient("doctor-service", stubProperties(), WebClient.builder(), meterRegistry);
+
+        persistenceScheduler = Schedulers.newBoundedElastic(10, 10_000, "loadtest-db");
+        appointmentService = new AppointmentService(repository, new PatientServiceClient(patientDownstream),
+                new DoctorServiceClient(doctorDownstream), persistenceScheduler,
+                new PatientCache(10_000, Duration.ofMinutes(5), meterRegistry));
+    }
+
+    // Bulkhead and pool sized above the burst: this test measures the booking modes, not load shedding
+    private DownstreamProperties stubProperties() {
+        DownstreamProperties properties = new DownstreamProperties();
+        properties.setBaseUrl("127.0.0.1:" + stub.port());
+        properties.setMaxConnections(500);
+        properties.setPendingAcquireMaxCount(5000);
+        properties.setPendingAcquireTimeout(Duration.ofSeconds(30));
+        properties.setResponseTimeout(Duration.ofSeconds(30));
+        properties.setMaxConcurrentCalls(5000);
+        return properties;
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.disposeNow();
+        patientDownstream.dispose();
+        doctorDownstream.dispose();
+        persistenceScheduler.dispose();
+    }
+
+    @Test
+    void blockingVersusReactiveUnderSlowDownstreams() throws Exception {
+        // Warm up connections and JIT for both paths before measuring
+        runBlocking(100);
+        runReactive(100);
+
+        Result blocking = runBlocking(REQUESTS);
+        Result reactive = runReactive(REQUESTS);
+
+        System.out.printf("%n[loadtest] %d requests, downstream delay %d ms, %d servlet threads%n",
+                REQUESTS, DOWNSTREAM_DELAY_MS, SERVLET_THREADS);
+        System.out.println("[loadtest] blocking: " + blocking);
+        System.out.println("[loadtest] reactive: " + reactive);
+
+        assertEquals(REQUESTS, blocking.succeeded);
+        assertEquals(REQUESTS, reactive.succeeded);
+        assertTrue(reactive.throughput > blocking.throughput,
+                "reactive mode should out-run the thread-bound blocking mode");
+    }
+
+    // Every request arrives at t0 and queues for one of the simulated Tomcat threads
+    private Result runBlocking(int requests) throws InterruptedException {
+        ExecutorService servletThreads = Executors.newFixedThreadPool(SERVLET_THREADS);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger succeeded = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(requests);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            AppointmentRequest request = request(i);
+            servletThreads.execute(() -> {
+                try {
+                    if (appointmentService.placeAppointment(request)) {
+                        succeeded.incrementAndGet();
+                    }
+                } finally {
+                    latencies.add(System.nanoTime() - start);
+                    done.countDown();
+                }
+            });
+        }
+        done.await(5, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+        servletThreads.shutdown();
+        return new Result(requests, succeeded.get(), elapsed, latencies);
+    }
+
+    private Result runReactive(int requests) {
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger succeeded = new AtomicInteger();
+
+        long start = System.nanoTime();
+        Flux.range(0, requests)
+                .flatMap(i -> appointmentService.placeAppointmentAsync(request(i))
+                        .doOnNext(ok -> {
+                            if (ok) {
+                                succeeded.incrementAndGet();
+                            }
+                        })
+                        .doFinally(signal -> latencies.add(System.nanoTime() - start))
+                        .onErrorResume(e -> Mono.empty()), requests)
+                .blockLast();
+        long elapsed = System.nanoTime() - start;
+        return new Result(requests, succeeded.get(), elapsed, latencies);
+    }
+
+    // Unique national IDs so every booking misses the patient cache and pays both downstream hops
+    private AppointmentRequest request(int i) {
+        return new AppointmentRequest("BEL" + UUID.randomUUID(), 1L, (long) i, "load");
+    }
+
+    private Mono<Void> respondLater(HttpServerResponse response, String body) {
+        return Mono.delay(Duration.ofMillis(DOWNSTREAM_DELAY_MS))
+                .then(response.header("Content-Type", "application/json")
+                        .sendString(Mono.just(body))
+                        .then());
+    }
+
+    private static final class Result {
+        final int succeeded;
+        final double throughput;
+        final double p50Ms;
+        final double p99Ms;
+
+        Result(int requests, int succeeded, long elapsedNanos, List<Long> latencies) {
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            this.succeeded = succeeded;
+            this.throughput = requests / (elapsedNanos / 1_000_000_000.0);
+            this.p50Ms = percentile(sorted, 0.50);
+            this.p99Ms = percentile(sorted, 0.99);
+        }
+
+        private static double percentile(List<Long> sorted, double p) {
+            if (sorted.isEmpty()) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sorted.size()) - 1;
+            return sorted.get(Math.max(index, 0)) / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ok=%d, throughput=%.1f req/s, p50=%.1f ms, p99=%.1f ms",
+                    succeeded, throughput, p50Ms, p99Ms);
+        }
+    }
+}
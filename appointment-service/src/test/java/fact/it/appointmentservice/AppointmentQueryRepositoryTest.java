@@ -0,0 +1,96 @@
+package fact.it.appointmentservice;
+
+import fact.it.appointmentservice.dto.AppointmentFilter;
+import fact.it.appointmentservice.dto.AppointmentResponse;
+import fact.it.appointmentservice.model.Appointment;
+import fact.it.appointmentservice.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "appointment.stream.fetch-size=2"
+})
+class AppointmentQueryRepositoryTest {
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @BeforeEach
+    void setUp() {
+        List<Appointment> appointments = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            appointments.add(Appointment.builder()
+                    .appointmentNumber("A" + i)
+                    .patientId(i % 2 == 0 ? "pat-even" : "pat-odd")
+                    .doctorId(i < 5 ? 1L : 2L)
+                    .timeslotId(100L + i)
+                    .reason("Consult")
+                    .build());
+        }
+        appointmentRepository.saveAllAndFlush(appointments);
+    }
+
+    @Test
+    void testKeysetPagesCoverEveryRowOnce() {
+        List<String> seen = new ArrayList<>();
+        long cursor = 0;
+        List<AppointmentResponse> page;
+        while (!(page = appointmentRepository.findPage(null, cursor, 3)).isEmpty()) {
+            page.forEach(a -> seen.add(a.getAppointmentNumber()));
+            cursor = page.get(page.size() - 1).getId();
+        }
+
+        assertEquals(List.of("A0", "A1", "A2", "A3", "A4", "A5", "A6", "A7", "A8", "A9"), seen);
+    }
+
+    @Test
+    void testFiltersAreCombined() {
+        AppointmentFilter filter = AppointmentFilter.builder().doctorId(1L).patientId("pat-even").build();
+
+        List<AppointmentResponse> out = appointmentRepository.findPage(filter, 0, 100);
+
+        assertEquals(List.of("A0", "A2", "A4"), out.stream().map(AppointmentResponse::getAppointmentNumber).toList());
+        assertEquals(1, appointmentRepository.findPage(AppointmentFilter.builder().timeslotId(107L).build(), 0, 100).size());
+    }
+
+    @Test
+    void testStreamVisitsRowsInIdOrder() {
+        List<String> streamed = new ArrayList<>();
+
+        appointmentRepository.streamAll(AppointmentFilter.builder().doctorId(2L).build(),
+                a -> streamed.add(a.getAppointmentNumber()));
+
+        assertEquals(List.of("A5", "A6", "A7", "A8", "A9"), streamed);
+    }
+
+    @Test
+    void testProjectionQueriesByPatientDoctorAndNumber() {
+        List<AppointmentResponse> odd = appointmentRepository.findByPatientId("pat-odd", 0L, Limit.of(3));
+        assertEquals(List.of("A1", "A3", "A5"), odd.stream().map(AppointmentResponse::getAppointmentNumber).toList());
+
+        List<AppointmentResponse> rest = appointmentRepository.findByPatientId("pat-odd", odd.get(2).getId(), Limit.of(3));
+        assertEquals(List.of("A7", "A9"), rest.stream().map(AppointmentResponse::getAppointmentNumber).toList());
+
+        assertEquals(5, appointmentRepository.findByDoctorId(2L, 0L, Limit.of(100)).size());
+        assertEquals(104L, appointmentRepository.findByAppointmentNumber("A4").orElseThrow().getTimeslotId());
+        assertTrue(appointmentRepository.findByAppointmentNumber("missing").isEmpty());
+    }
+
+    @Test
+    void testSecondBookingOfTheSameTimeslotIsRejectedByTheDatabase() {
+        Appointment duplicate = Appointment.builder()
+                .appointmentNumber("A-dup").patientId("pat-other").doctorId(1L).timeslotId(100L).build();
+
+        assertThrows(DataIntegrityViolationException.class, () -> appointmentRepository.saveAndFlush(duplicate));
+    }
+}
@@ -1,21 +1,28 @@
 package fact.it.appointmentservice;
 
+import fact.it.appointmentservice.client.DoctorServiceClient;
+import fact.it.appointmentservice.client.PatientServiceClient;
 import fact.it.appointmentservice.dto.*;
 import fact.it.appointmentservice.model.Appointment;
 import fact.it.appointmentservice.repository.AppointmentRepository;
 import fact.it.appointmentservice.service.AppointmentService;
+import fact.it.appointmentservice.service.PatientCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.util.List;
-import java.util.function.Function;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -24,24 +31,21 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class AppointmentServiceUnitTests {
 
-    @InjectMocks
     private AppointmentService appointmentService;
 
     @Mock
     private AppointmentRepository appointmentRepository;
 
     @Mock
-    private WebClient webClient;
+    private PatientServiceClient patientServiceClient;
 
-    @Mock private WebClient.RequestHeadersUriSpec requestHeadersUriSpec;
-    @Mock private WebClient.RequestHeadersSpec requestHeadersSpec;
-    @Mock private WebClient.RequestBodyUriSpec requestBodyUriSpec;
-    @Mock private WebClient.ResponseSpec responseSpec;
+    @Mock
+    private DoctorServiceClient doctorServiceClient;
 
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(appointmentService, "patientServiceBaseUrl", "localhost:8080");
-        ReflectionTestUtils.setField(appointmentService, "doctorServiceBaseUrl", "localhost:8083");
+        appointmentService = new AppointmentService(appointmentRepository, patientServiceClient, doctorServiceClient,
+                Schedulers.immediate(), new PatientCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry()));
     }
 
     @Test
@@ -52,19 +56,9 @@ class AppointmentServiceUnitTests {
         req.setTimeslotId(10L);
         req.setReason("Consult");
 
-        PatientResponse patient = PatientResponse.builder().id("pat-1").nationalId("BEL123").build();
-        ReserveSlotResponse reserveOk = ReserveSlotResponse.builder().reserved(true).message("ok").build();
-
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString(), any(Function.class))).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(eq(PatientResponse.class))).thenReturn(Mono.just(patient));
-
-        when(webClient.post()).thenReturn(requestBodyUriSpec);
-        when(requestBodyUriSpec.uri(anyString())).thenReturn(requestBodyUriSpec);
-        when(requestBodyUriSpec.bodyValue(any())).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(eq(ReserveSlotResponse.class))).thenReturn(Mono.just(reserveOk));
+        stubPatient(Mono.just(PatientResponse.builder().id("pat-1").nationalId("BEL123").build()));
+        when(doctorServiceClient.holdSlot(10L)).thenReturn(Mono.just(held(true)));
+        when(doctorServiceClient.confirmSlot(10L)).thenReturn(Mono.just(confirmed(true)));
 
         when(appointmentRepository.save(any(Appointment.class)))
                 .thenAnswer(inv -> inv.getArgument(0));
@@ -73,6 +67,8 @@ class AppointmentServiceUnitTests {
 
         assertTrue(result);
         verify(appointmentRepository, times(1)).save(any(Appointment.class));
+        verify(doctorServiceClient).holdSlot(10L);
+        verify(doctorServiceClient).confirmSlot(10L);
     }
 
     @Test
@@ -83,16 +79,13 @@ class AppointmentServiceUnitTests {
         req.setTimeslotId(10L);
         req.setReason("Consult");
 
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString(), any(Function.class))).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(eq(PatientResponse.class))).thenReturn(Mono.empty());
+        stubPatient(Mono.empty());
 
         boolean result = appointmentService.placeAppointment(req);
 
         assertFalse(result);
         verify(appointmentRepository, never()).save(any());
-        verify(webClient, never()).post(); // we never try to reserve if patient missing
+        verifyNoInteractions(doctorServiceClient); // we never try to reserve if patient missing
     }
 
     @Test
@@ -103,19 +96,8 @@ class AppointmentServiceUnitTests {
         req.setTimeslotId(10L);
         req.setReason("Consult");
 
-        PatientResponse patient = PatientResponse.builder().id("pat-1").nationalId("BEL123").build();
-        ReserveSlotResponse reserveNo = ReserveSlotResponse.builder().reserved(false).message("already reserved").build();
-
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString(), any(Function.class))).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(eq(PatientResponse.class))).thenReturn(Mono.just(patient));
-
-        when(webClient.post()).thenReturn(requestBodyUriSpec);
-        when(requestBodyUriSpec.uri(anyString())).thenReturn(requestBodyUriSpec);
-        when(requestBodyUriSpec.bodyValue(any())).thenReturn(requestHeadersSpec);
-        when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(eq(ReserveSlotResponse.class))).thenReturn(Mono.just(reserveNo));
+        stubPatient(Mono.just(PatientResponse.builder().id("pat-1").nationalId("BEL123").build()));
+        when(doctorServiceClient.holdSlot(10L)).thenReturn(Mono.just(held(false)));
 
         boolean result = appointmentService.placeAppointment(req);
 
@@ -124,20 +106,260 @@ class AppointmentServiceUnitTests {
     }
 
     @Test
-    void testGetAllAppointments() {
-        Appointment a1 = Appointment.builder()
-                .appointmentNumber("A1").patientId("P1").doctorId(1L).timeslotId(10L).reason("R1").build();
-        Appointment a2 = Appointment.builder()
-                .appointmentNumber("A2").patientId("P2").doctorId(2L).timeslotId(20L).reason("R2").build();
+    void testPlaceAppointment_ReleasesHoldWhenInsertFails() {
+        AppointmentRequest req = new AppointmentRequest("BEL123", 1L, 10L, "Consult");
+
+        stubPatient(Mono.just(PatientResponse.builder().id("pat-1").nationalId("BEL123").build()));
+        when(doctorServiceClient.holdSlot(10L)).thenReturn(Mono.just(held(true)));
+        when(doctorServiceClient.releaseSlot(10L)).thenReturn(Mono.just(true));
+        when(appointmentRepository.save(any(Appointment.class)))
+                .thenThrow(new DataIntegrityViolationException("ux_appointment_timeslot"));
+
+        assertFalse(appointmentService.placeAppointment(req));
+
+        verify(doctorServiceClient).releaseSlot(10L);
+        verify(doctorServiceClient, never()).confirmSlot(anyLong());
+    }
+
+    @Test
+    void testPlaceAppointment_RemovesAppointmentWhenConfirmRejected() {
+        AppointmentRequest req = new AppointmentRequest("BEL123", 1L, 10L, "Consult");
+
+        stubPatient(Mono.just(PatientResponse.builder().id("pat-1").nationalId("BEL123").build()));
+        when(doctorServiceClient.holdSlot(10L)).thenReturn(Mono.just(held(true)));
+        when(doctorServiceClient.confirmSlot(10L)).thenReturn(Mono.just(confirmed(false)));
+        when(appointmentRepository.save(any(Appointment.class)))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        assertFalse(appointmentService.placeAppointment(req));
+
+        verify(appointmentRepository, times(1)).delete(any(Appointment.class));
+    }
+
+    @Test
+    void testPlaceAppointmentAsync_Success() {
+        AppointmentRequest req = new AppointmentRequest("BEL123", 1L, 10L, "Consult");
+
+        stubPatient(Mono.just(PatientResponse.builder().id("pat-1").nationalId("BEL123").build()));
+        when(doctorServiceClient.holdSlot(10L)).thenReturn(Mono.just(held(true)));
+        when(doctorServiceClient.confirmSlot(10L)).thenReturn(Mono.just(confirmed(true)));
+
+        when(appointmentRepository.save(any(Appointment.class)))
+                .thenAnswer(inv -> inv.getArgument(0));
 
-        when(appointmentRepository.findAll()).thenReturn(List.of(a1, a2));
+        StepVerifier.create(appointmentService.placeAppointmentAsync(req))
+                .expectNext(true)
+                .verifyComplete();
+
+        verify(appointmentRepository, times(1)).save(any(Appointment.class));
+    }
+
+    @Test
+    void testPlaceAppointmentAsync_FailureWhenPatientNotFound() {
+        AppointmentRequest req = new AppointmentRequest("UNKNOWN", 1L, 10L, "Consult");
+
+        stubPatient(Mono.empty());
+
+        StepVerifier.create(appointmentService.placeAppointmentAsync(req))
+                .expectNext(false)
+                .verifyComplete();
+
+        verify(appointmentRepository, never()).save(any());
+        verifyNoInteractions(doctorServiceClient);
+    }
+
+    @Test
+    void testPlaceAppointmentAsync_ReleasesHoldWhenInsertFails() {
+        AppointmentRequest req = new AppointmentRequest("BEL123", 1L, 10L, "Consult");
+
+        stubPatient(Mono.just(PatientResponse.builder().id("pat-1").nationalId("BEL123").build()));
+        when(doctorServiceClient.holdSlot(10L)).thenReturn(Mono.just(held(true)));
+        when(doctorServiceClient.releaseSlot(10L)).thenReturn(Mono.just(true));
+        when(appointmentRepository.save(any(Appointment.class))).thenThrow(new IllegalStateException("db down"));
+
+        StepVerifier.create(appointmentService.placeAppointmentAsync(req))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        verify(doctorServiceClient).releaseSlot(10L);
+        verify(doctorServiceClient, never()).confirmSlot(anyLong());
+    }
+
+    @Test
+    void testPlaceAppointmentAsync_DuplicateTimeslotIsARejection() {
+        AppointmentRequest req = new AppointmentRequest("BEL123", 1L, 10L, "Consult");
+
+        stubPatient(Mono.just(PatientResponse.builder().id("pat-1").nationalId("BEL123").build()));
+        when(doctorServiceClient.holdSlot(10L)).thenReturn(Mono.just(held(true)));
+        when(doctorServiceClient.releaseSlot(10L)).thenReturn(Mono.just(true));
+        when(appointmentRepository.save(any(Appointment.class)))
+                .thenThrow(new DataIntegrityViolationException("ux_appointment_timeslot"));
+
+        StepVerifier.create(appointmentService.placeAppointmentAsync(req))
+                .expectNext(false)
+                .verifyComplete();
+
+        verify(doctorServiceClient).releaseSlot(10L);
+    }
+
+    @Test
+    void testPlaceAppointmentAsync_RemovesAppointmentWhenConfirmRejected() {
+        AppointmentRequest req = new AppointmentRequest("BEL123", 1L, 10L, "Consult");
 
-        var out = appointmentService.getAllAppointments();
+        stubPatient(Mono.just(PatientResponse.builder().id("pat-1").nationalId("BEL123").build()));
+        when(doctorServiceClient.holdSlot(10L)).thenReturn(Mono.just(held(true)));
+        when(doctorServiceClient.confirmSlot(10L)).thenReturn(Mono.just(confirmed(false)));
+        when(appointmentRepository.save(any(Appointment.class)))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        StepVerifier.create(appointmentService.placeAppointmentAsync(req))
+                .expectNext(false)
+                .verifyComplete();
+
+        verify(appointmentRepository, times(1)).delete(any(Appointment.class));
+    }
+
+    @Test
+    void testPlaceAppointments_ReportsStatusPerItem() {
+        List<AppointmentRequest> batch = List.of(
+                new AppointmentRequest("BEL123", 1L, 10L, "Consult"),
+                new AppointmentRequest("UNKNOWN", 1L, 11L, "Consult"),
+                new AppointmentRequest("BEL123", 1L, 12L, "Follow-up"));
+
+        PatientResponse patient = PatientResponse.builder().id("pat-1").nationalId("BEL123").build();
+        HoldSlotResponse holdOk = HoldSlotResponse.builder().timeslotId(10L).held(true).message("Time slot held").build();
+        HoldSlotResponse holdNo = HoldSlotResponse.builder().timeslotId(12L).held(false).message("Time slot already reserved").build();
+
+        when(patientServiceClient.lookupPatients(anyList())).thenReturn(Mono.just(Map.of("BEL123", patient)));
+        when(doctorServiceClient.holdSlots(List.of(10L, 12L))).thenReturn(Mono.just(List.of(holdOk, holdNo)));
+        when(doctorServiceClient.confirmSlots(List.of(10L))).thenReturn(Mono.just(List.of(confirmed(true))));
+
+        List<AppointmentBatchItemResponse> out = appointmentService.placeAppointments(batch).block();
+
+        assertNotNull(out);
+        assertEquals(3, out.size());
+        assertTrue(out.get(0).isBooked());
+        assertNotNull(out.get(0).getAppointmentNumber());
+        assertFalse(out.get(1).isBooked());
+        assertEquals("Patient not found", out.get(1).getMessage());
+        assertFalse(out.get(2).isBooked());
+        assertEquals("Time slot already reserved", out.get(2).getMessage());
+        verify(appointmentRepository, times(1)).insertAll(argThat(list -> list.size() == 1));
+    }
+
+    @Test
+    void testPlaceAppointments_FailedInsertReleasesHolds() {
+        List<AppointmentRequest> batch = List.of(
+                new AppointmentRequest("BEL123", 1L, 10L, "Consult"),
+                new AppointmentRequest("BEL123", 1L, 12L, "Follow-up"));
+
+        PatientResponse patient = PatientResponse.builder().id("pat-1").nationalId("BEL123").build();
+        HoldSlotResponse hold10 = HoldSlotResponse.builder().timeslotId(10L).held(true).build();
+        HoldSlotResponse hold12 = HoldSlotResponse.builder().timeslotId(12L).held(true).build();
+
+        when(patientServiceClient.lookupPatients(anyList())).thenReturn(Mono.just(Map.of("BEL123", patient)));
+        when(doctorServiceClient.holdSlots(List.of(10L, 12L))).thenReturn(Mono.just(List.of(hold10, hold12)));
+        doThrow(new DataIntegrityViolationException("Duplicate entry")).when(appointmentRepository).insertAll(anyList());
+        when(doctorServiceClient.releaseSlots(List.of(10L, 12L))).thenReturn(Mono.just(List.of(true, true)));
+
+        List<AppointmentBatchItemResponse> out = appointmentService.placeAppointments(batch).block();
+
+        assertNotNull(out);
+        assertTrue(out.stream().noneMatch(AppointmentBatchItemResponse::isBooked));
+        assertEquals("Persisting appointment failed", out.get(0).getMessage());
+        verify(doctorServiceClient, times(1)).releaseSlots(List.of(10L, 12L));
+        verify(doctorServiceClient, never()).confirmSlots(anyList());
+    }
+
+    @Test
+    void testPlaceAppointments_FailedBatchFallsBackToRowInserts() {
+        List<AppointmentRequest> batch = List.of(
+                new AppointmentRequest("BEL123", 1L, 10L, "Consult"),
+                new AppointmentRequest("BEL123", 1L, 12L, "Follow-up"));
+
+        PatientResponse patient = PatientResponse.builder().id("pat-1").nationalId("BEL123").build();
+        HoldSlotResponse hold10 = HoldSlotResponse.builder().timeslotId(10L).held(true).build();
+        HoldSlotResponse hold12 = HoldSlotResponse.builder().timeslotId(12L).held(true).build();
+
+        when(patientServiceClient.lookupPatients(anyList())).thenReturn(Mono.just(Map.of("BEL123", patient)));
+        when(doctorServiceClient.holdSlots(List.of(10L, 12L))).thenReturn(Mono.just(List.of(hold10, hold12)));
+        // the batch fails on the row for slot 12, which keeps failing on its own
+        doThrow(new DataIntegrityViolationException("Duplicate entry")).when(appointmentRepository)
+                .insertAll(argThat(rows -> rows.stream().anyMatch(a -> a.getTimeslotId() == 12L)));
+        when(doctorServiceClient.releaseSlots(List.of(12L))).thenReturn(Mono.just(List.of(true)));
+        when(doctorServiceClient.confirmSlots(List.of(10L))).thenReturn(Mono.just(List.of(confirmed(true))));
+
+        List<AppointmentBatchItemResponse> out = appointmentService.placeAppointments(batch).block();
+
+        assertNotNull(out);
+        assertTrue(out.get(0).isBooked());
+        assertFalse(out.get(1).isBooked());
+        assertEquals("Persisting appointment failed", out.get(1).getMessage());
+        verify(appointmentRepository, times(3)).insertAll(anyList());
+        verify(doctorServiceClient, times(1)).releaseSlots(List.of(12L));
+    }
+
+    @Test
+    void testPlaceAppointments_UnconfirmedRowsAreDeleted() {
+        List<AppointmentRequest> batch = List.of(new AppointmentRequest("BEL123", 1L, 10L, "Consult"));
+
+        PatientResponse patient = PatientResponse.builder().id("pat-1").nationalId("BEL123").build();
+        when(patientServiceClient.lookupPatients(anyList())).thenReturn(Mono.just(Map.of("BEL123", patient)));
+        when(doctorServiceClient.holdSlots(List.of(10L))).thenReturn(Mono.just(List.of(held(true))));
+        when(doctorServiceClient.confirmSlots(List.of(10L))).thenReturn(Mono.just(List.of(confirmed(false))));
+
+        List<AppointmentBatchItemResponse> out = appointmentService.placeAppointments(batch).block();
+
+        assertNotNull(out);
+        assertFalse(out.get(0).isBooked());
+        assertEquals("No active hold on time slot", out.get(0).getMessage());
+        verify(appointmentRepository, times(1)).deleteByAppointmentNumbers(argThat(numbers -> numbers.size() == 1));
+        verify(doctorServiceClient, never()).releaseSlots(anyList());
+    }
+
+    @Test
+    void testGetAppointments_KeysetPage() {
+        ReflectionTestUtils.setField(appointmentService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(appointmentService, "maxPageSize", 10);
+        AppointmentFilter filter = AppointmentFilter.builder().doctorId(1L).build();
+        AppointmentResponse a1 = new AppointmentResponse("A1", "P1", 1L, 10L, "R1", 11L);
+        AppointmentResponse a2 = new AppointmentResponse("A2", "P2", 1L, 20L, "R2", 12L);
+        AppointmentResponse a3 = new AppointmentResponse("A3", "P3", 1L, 30L, "R3", 15L);
+
+        // page size + 1 is fetched to detect the next page
+        when(appointmentRepository.findPage(filter, 0L, 3)).thenReturn(List.of(a1, a2, a3));
+        when(appointmentRepository.findPage(filter, 12L, 3)).thenReturn(List.of(a3));
+
+        AppointmentPage first = appointmentService.getAppointments(filter, null, null);
+        AppointmentPage last = appointmentService.getAppointments(filter, first.getNextCursor(), null);
+
+        assertEquals(List.of(a1, a2), first.getItems());
+        assertEquals(12L, first.getNextCursor());
+        assertEquals(List.of(a3), last.getItems());
+        assertNull(last.getNextCursor());
+        verify(appointmentRepository, never()).findAll();
+    }
+
+    @Test
+    void testGetAppointment_UnknownNumberIsEmpty() {
+        AppointmentResponse a1 = new AppointmentResponse("A1", "P1", 1L, 10L, "R1", 11L);
+        when(appointmentRepository.findByAppointmentNumber("A1")).thenReturn(Optional.of(a1));
+        when(appointmentRepository.findByAppointmentNumber("nope")).thenReturn(Optional.empty());
+
+        assertEquals(Optional.of(a1), appointmentService.getAppointment("A1"));
+        assertTrue(appointmentService.getAppointment("nope").isEmpty());
+    }
+
+    private void stubPatient(Mono<PatientResponse> patient) {
+        when(patientServiceClient.getPatient(anyString())).thenReturn(patient);
+    }
+
+    private HoldSlotResponse held(boolean held) {
+        return HoldSlotResponse.builder().timeslotId(10L).held(held).message(held ? "Time slot held" : "already reserved").build();
+    }
 
-        assertEquals(2, out.size());
-        assertEquals("A1", out.get(0).getAppointmentNumber());
-        assertEquals("A2", out.get(1).getAppointmentNumber());
-        verify(appointmentRepository, times(1)).findAll();
+    private ReserveSlotResponse confirmed(boolean reserved) {
+        return ReserveSlotResponse.builder().timeslotId(10L).reserved(reserved).message(reserved ? "ok" : "No active hold on time slot").build();
     }
 
     // gg
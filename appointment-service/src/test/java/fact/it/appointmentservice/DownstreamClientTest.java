@@ -0,0 +1,118 @@
+package fact.it.appointmentservice;
+
+import fact.it.appointmentservice.client.DownstreamClient;
+import fact.it.appointmentservice.client.DownstreamProperties;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DownstreamClientTest {
+
+    private final AtomicInteger hits = new AtomicInteger();
+    private DisposableServer stub;
+    private SimpleMeterRegistry meterRegistry;
+    private DownstreamClient client;
+
+    @BeforeEach
+    void setUp() {
+        stub = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes
+                        .get("/ok", (req, res) -> {
+                            hits.incrementAndGet();
+                            return res.header("Content-Type", "application/json").sendString(Mono.just("true"));
+                        })
+                        .get("/slow", (req, res) -> {
+                            hits.incrementAndGet();
+                            return Mono.delay(Duration.ofMillis(300))
+                                    .then(res.header("Content-Type", "application/json").sendString(Mono.just("true")).then());
+                        })
+                        .get("/missing", (req, res) -> {
+                            hits.incrementAndGet();
+                            return res.status(404).send();
+                        })
+                        .get("/broken", (req, res) -> {
+                            hits.incrementAndGet();
+                            return res.status(500).send();
+                        }))
+                .bindNow();
+
+        DownstreamProperties properties = new DownstreamProperties();
+        properties.setBaseUrl("127.0.0.1:" + stub.port());
+        properties.setResponseTimeout(Duration.ofMillis(100));
+        properties.setMaxConcurrentCalls(1);
+        properties.setSlidingWindowSize(4);
+        properties.setMinimumNumberOfCalls(4);
+        properties.setOpenStateWait(Duration.ofMinutes(1));
+        meterRegistry = new SimpleMeterRegistry();
+        client = new DownstreamClient("stub", properties, WebClient.builder(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.dispose();
+        stub.disposeNow();
+    }
+
+    @Test
+    void testServerErrorsOpenTheCircuitAndLaterCallsAreRejectedLocally() {
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(get("/broken")).expectError(WebClientResponseException.InternalServerError.class).verify();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitBreaker().getState());
+
+        StepVerifier.create(get("/ok")).expectError(CallNotPermittedException.class).verify();
+
+        assertEquals(4, hits.get());
+        assertEquals(4, meterRegistry.get("downstream.requests").tag("outcome", "server_error").timer().count());
+        assertEquals(1, meterRegistry.get("downstream.rejections").tag("reason", "circuit_open").counter().count());
+    }
+
+    @Test
+    void testClientErrorsDoNotOpenTheCircuit() {
+        for (int i = 0; i < 6; i++) {
+            StepVerifier.create(get("/missing")).expectError(WebClientResponseException.NotFound.class).verify();
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitBreaker().getState());
+        assertEquals(6, meterRegistry.get("downstream.requests").tag("outcome", "client_error").timer().count());
+    }
+
+    @Test
+    void testBulkheadRejectsCallsBeyondTheLimitAndResponseTimeoutApplies() {
+        Mono<Boolean> first = get("/slow");
+        Mono<Boolean> second = get("/ok");
+
+        // The slow call holds the only permit until its response timeout fires
+        StepVerifier.create(Mono.zipDelayError(first.materialize(), Mono.delay(Duration.ofMillis(50)).then(second.materialize())))
+                .assertNext(both -> {
+                    assertTrue(both.getT1().isOnError());
+                    assertInstanceOf(BulkheadFullException.class, both.getT2().getThrowable());
+                })
+                .verifyComplete();
+
+        assertEquals(1, meterRegistry.get("downstream.requests").tag("outcome", "timeout").timer().count());
+        assertEquals(1, meterRegistry.get("downstream.rejections").tag("reason", "bulkhead").counter().count());
+        assertEquals(1, hits.get());
+    }
+
+    private Mono<Boolean> get(String path) {
+        return client.call("test", webClient -> webClient.get().uri(path).retrieve().bodyToMono(Boolean.class));
+    }
+}
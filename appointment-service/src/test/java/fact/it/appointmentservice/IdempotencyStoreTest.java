@@ -0,0 +1,80 @@
+package fact.it.appointmentservice;
+
+import fact.it.appointmentservice.dto.AppointmentRequest;
+import fact.it.appointmentservice.service.IdempotencyStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final IdempotencyStore store = new IdempotencyStore(100, Duration.ofHours(24), meterRegistry);
+    private final AppointmentRequest request = new AppointmentRequest("BEL123", 1L, 10L, "Consult");
+
+    @Test
+    void testConcurrentDuplicateWaitsForTheFirstBooking() {
+        AtomicInteger bookings = new AtomicInteger();
+        Sinks.One<Boolean> booking = Sinks.one();
+
+        CompletableFuture<Boolean> first = store.execute("key-1", request, () -> { bookings.incrementAndGet(); return booking.asMono(); }).toFuture();
+        CompletableFuture<Boolean> retry = store.execute("key-1", request, () -> { bookings.incrementAndGet(); return Mono.just(false); }).toFuture();
+        assertFalse(retry.isDone());
+
+        booking.tryEmitValue(true);
+
+        assertTrue(first.join());
+        assertTrue(retry.join());
+        assertEquals(1, bookings.get());
+        assertEquals(1.0, meterRegistry.get("appointment.idempotency.replays").counter().count());
+    }
+
+    @Test
+    void testReplayReturnsTheOriginalOutcome() {
+        AtomicInteger bookings = new AtomicInteger();
+
+        store.execute("key-2", request, () -> { bookings.incrementAndGet(); return Mono.just(false); }).block();
+        Boolean replayed = store.execute("key-2", request, () -> { bookings.incrementAndGet(); return Mono.just(true); }).block();
+
+        assertEquals(Boolean.FALSE, replayed);
+        assertEquals(1, bookings.get());
+    }
+
+    @Test
+    void testSameKeyWithDifferentBodyIsRejected() {
+        store.execute("key-3", request, () -> Mono.just(true)).block();
+
+        AppointmentRequest other = new AppointmentRequest("BEL999", 1L, 11L, "Consult");
+        StepVerifier.create(store.execute("key-3", other, () -> Mono.just(true)))
+                .expectError(IdempotencyStore.IdempotencyKeyReusedException.class)
+                .verify();
+    }
+
+    @Test
+    void testFailedBookingCanBeRetried() {
+        StepVerifier.create(store.execute("key-4", request, () -> Mono.error(new IllegalStateException("doctor-service down"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        assertEquals(Boolean.TRUE, store.execute("key-4", request, () -> Mono.just(true)).block());
+    }
+
+    @Test
+    void testBookingThatThrowsCanBeRetried() {
+        StepVerifier.create(store.execute("key-5", request, () -> {
+                    throw new IllegalStateException("no booking pipeline");
+                }))
+                .expectError(IllegalStateException.class)
+                .verify(Duration.ofSeconds(1));
+
+        assertEquals(Boolean.TRUE, store.execute("key-5", request, () -> Mono.just(true)).block(Duration.ofSeconds(1)));
+    }
+}
@@ -0,0 +1,128 @@
+package fact.it.appointmentservice;
+
+import fact.it.appointmentservice.dto.PatientResponse;
+import fact.it.appointmentservice.service.PatientCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatientCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PatientCache patientCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        patientCache = new PatientCache(100, Duration.ofMinutes(5), meterRegistry);
+    }
+
+    @Test
+    void testConcurrentMissesShareOneLoad() {
+        AtomicInteger remoteCalls = new AtomicInteger();
+        Sinks.One<PatientResponse> remote = Sinks.one();
+
+        List<Mono<PatientResponse>> callers = List.of(
+                patientCache.get("BEL123", id -> { remoteCalls.incrementAndGet(); return remote.asMono(); }),
+                patientCache.get("BEL123", id -> { remoteCalls.incrementAndGet(); return remote.asMono(); }),
+                patientCache.get("BEL123", id -> { remoteCalls.incrementAndGet(); return remote.asMono(); }));
+
+        // All three are subscribed (and waiting) before the remote call answers
+        CompletableFuture<List<PatientResponse>> pending = Flux.merge(callers).collectList().toFuture();
+        remote.tryEmitValue(patient("BEL123"));
+
+        assertEquals(3, pending.join().size());
+        assertEquals(1, remoteCalls.get());
+    }
+
+    @Test
+    void testHitAfterLoadAndMissAfterInvalidate() {
+        AtomicInteger remoteCalls = new AtomicInteger();
+
+        patientCache.get("BEL123", id -> { remoteCalls.incrementAndGet(); return Mono.just(patient(id)); }).block();
+        patientCache.get("BEL123", id -> { remoteCalls.incrementAndGet(); return Mono.just(patient(id)); }).block();
+        assertEquals(1, remoteCalls.get());
+
+        patientCache.invalidate("BEL123");
+        patientCache.get("BEL123", id -> { remoteCalls.incrementAndGet(); return Mono.just(patient(id)); }).block();
+        assertEquals(2, remoteCalls.get());
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "patients").tag("result", "hit").functionCounter().count());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "patients").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void testInvalidateDuringLoadIsNotOverwritten() {
+        AtomicInteger remoteCalls = new AtomicInteger();
+        Sinks.One<PatientResponse> stale = Sinks.one();
+
+        // The patient changes while the first load is still waiting on patient-service
+        CompletableFuture<PatientResponse> first = patientCache.get("BEL123",
+                id -> { remoteCalls.incrementAndGet(); return stale.asMono(); }).toFuture();
+        patientCache.invalidate("BEL123");
+        stale.tryEmitValue(patient("BEL123"));
+        assertNotNull(first.join());
+
+        patientCache.get("BEL123", id -> { remoteCalls.incrementAndGet(); return Mono.just(patient(id)); }).block();
+        assertEquals(2, remoteCalls.get());
+    }
+
+    @Test
+    void testInvalidateDuringBatchLoadIsNotOverwritten() {
+        AtomicInteger remoteCalls = new AtomicInteger();
+        Sinks.One<Map<String, PatientResponse>> stale = Sinks.one();
+
+        CompletableFuture<Map<String, PatientResponse>> first = patientCache.getAll(List.of("BEL123", "BEL456"),
+                missing -> { remoteCalls.incrementAndGet(); return stale.asMono(); }).toFuture();
+        patientCache.invalidate("BEL123");
+        stale.tryEmitValue(Map.of("BEL123", patient("BEL123"), "BEL456", patient("BEL456")));
+        assertEquals(2, first.join().size());
+
+        // Only the invalidated patient is loaded again
+        patientCache.getAll(List.of("BEL123", "BEL456"), missing -> {
+            remoteCalls.incrementAndGet();
+            assertEquals(Set.of("BEL123"), missing);
+            return Mono.just(Map.of("BEL123", patient("BEL123")));
+        }).block();
+        assertEquals(2, remoteCalls.get());
+    }
+
+    @Test
+    void testUnknownPatientIsNotCached() {
+        AtomicInteger remoteCalls = new AtomicInteger();
+
+        assertNull(patientCache.get("NOPE", id -> { remoteCalls.incrementAndGet(); return Mono.<PatientResponse>empty(); }).block());
+        assertNull(patientCache.get("NOPE", id -> { remoteCalls.incrementAndGet(); return Mono.<PatientResponse>empty(); }).block());
+
+        assertEquals(2, remoteCalls.get());
+    }
+
+    @Test
+    void testGetAllOnlyLoadsMissingIds() {
+        patientCache.get("BEL123", id -> Mono.just(patient(id))).block();
+
+        Map<String, PatientResponse> out = patientCache.getAll(List.of("BEL123", "BEL456"), missing -> {
+            assertEquals(1, missing.size());
+            assertTrue(missing.contains("BEL456"));
+            return Mono.just(Map.of("BEL456", patient("BEL456")));
+        }).block();
+
+        assertEquals(2, out.size());
+    }
+
+    private PatientResponse patient(String nationalId) {
+        return PatientResponse.builder().id("id-" + nationalId).nationalId(nationalId).build();
+    }
+}
@@ -0,0 +1,95 @@
+package fact.it.apigateway.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bearer tokens verified per second by the gateway's JWT decoder, set up as in SecurityConfig, with and without
+ * the verified-token cache. Clients reuse their token for an hour, so a pool of tokens is cycled through; the JWKS
+ * is answered in memory, so only verification is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String ISSUER = "https://accounts.google.com";
+
+    @Param({"false", "true"})
+    public boolean verifiedTokenCache;
+
+    // Distinct users active at once
+    @Param({"1000"})
+    public int tokens;
+
+    private ReactiveJwtDecoder decoder;
+    private String[] pool;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JOSEException {
+        RSAKey key = new RSAKeyGenerator(2048).keyID("bench").generate();
+        String jwks = new JWKSet(key.toPublicJWK()).toString();
+        WebClient jwksEndpoint = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(jwks)
+                        .build()))
+                .build();
+        JwkSetCache jwkSetCache = new JwkSetCache(jwksEndpoint, "http://jwks.local/certs",
+                Duration.ofMinutes(5), Duration.ofSeconds(30), Duration.ofSeconds(5));
+
+        NimbusReactiveJwtDecoder verifier = NimbusReactiveJwtDecoder.withJwkSource(jwkSetCache::keysFor).build();
+        verifier.setJwtValidator(JwtValidators.createDefaultWithIssuer(ISSUER));
+        decoder = verifiedTokenCache ? new CachingReactiveJwtDecoder(verifier, 100_000, new SimpleMeterRegistry()) : verifier;
+
+        RSASSASigner signer = new RSASSASigner(key);
+        pool = new String[tokens];
+        for (int i = 0; i < tokens; i++) {
+            JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                    .issuer(ISSUER)
+                    .subject("user-" + i)
+                    .issueTime(new Date())
+                    .expirationTime(Date.from(Instant.now().plus(Duration.ofHours(1))))
+                    .claim("email", "user-" + i + "@example.org")
+                    .build();
+            SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+            jwt.sign(signer);
+            pool[i] = jwt.serialize();
+        }
+    }
+
+    @Benchmark
+    public Jwt decode() {
+        String token = pool[next];
+        next = next + 1 == pool.length ? 0 : next + 1;
+        return decoder.decode(token).block();
+    }
+}
@@ -0,0 +1,60 @@
+package fact.it.appointmentservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fact.it.appointmentservice.dto.AppointmentRequest;
+import fact.it.appointmentservice.dto.AppointmentResponse;
+import fact.it.appointmentservice.model.Appointment;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO mapping for appointments and JSON for the booking request body of POST /api/appointment.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AppointmentMappingBenchmark {
+
+    private AppointmentService appointmentService;
+    private ObjectMapper objectMapper;
+    private Appointment appointment;
+    private AppointmentRequest request;
+    private byte[] requestJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        appointmentService = new AppointmentService(null, null, null, null, null);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        appointment = Appointment.builder()
+                .id(42L)
+                .appointmentNumber("3f2b8c1e-7d4a-4e0b-9c55-0a1b2c3d4e5f")
+                .patientId("65f1c0ffee0000000000abcd")
+                .doctorId(7L)
+                .timeslotId(1234L)
+                .reason("Annual check-up")
+                .build();
+        request = new AppointmentRequest("BEL85010112345", 7L, 1234L, "Annual check-up");
+        requestJson = objectMapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public AppointmentResponse mapAppointment() {
+        return appointmentService.mapToResponse(appointment);
+    }
+
+    @Benchmark
+    public byte[] serializeRequest() throws IOException {
+        return objectMapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public AppointmentRequest deserializeRequest() throws IOException {
+        return objectMapper.readValue(requestJson, AppointmentRequest.class);
+    }
+}
@@ -0,0 +1,92 @@
+package fact.it.doctorservice.service;
+
+import fact.it.doctorservice.DoctorServiceApplication;
+import fact.it.doctorservice.dto.ScheduleTemplateRequest;
+import fact.it.doctorservice.model.Doctor;
+import fact.it.doctorservice.repository.DoctorRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second for generating a full horizon from weekly templates, with and without JDBC batching.
+ * A 91-day horizon is exactly 13 weeks, so every invocation inserts the same number of rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, batchSize = 1)
+@Measurement(iterations = 5, batchSize = 1)
+@Fork(1)
+public class TimeSlotGenerationBenchmark {
+
+    private static final int DOCTORS = 20;
+    private static final int ROWS_PER_RUN = DOCTORS * 13 * 5 * 16; // 13 weeks x Mon-Fri x 09:00-17:00 in 30 min
+
+    @Param({"1", "100", "500"})
+    private int jdbcBatchSize;
+
+    private ConfigurableApplicationContext context;
+    private ScheduleService scheduleService;
+    private TimeSlotAvailabilityIndex availabilityIndex;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DoctorServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        // patient-service sources share this classpath; the doctor context has no use for Mongo
+                        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration,"
+                                + "org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration",
+                        "spring.datasource.url=jdbc:h2:mem:generation-bench;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize,
+                        "spring.jpa.properties.hibernate.order_inserts=true",
+                        "timeslot.generation.horizon-days=91")
+                .run();
+        scheduleService = context.getBean(ScheduleService.class);
+        availabilityIndex = context.getBean(TimeSlotAvailabilityIndex.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        DoctorRepository doctorRepository = context.getBean(DoctorRepository.class);
+
+        ScheduleTemplateRequest weekdays = ScheduleTemplateRequest.builder()
+                .days(List.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY))
+                .startTime(LocalTime.of(9, 0))
+                .endTime(LocalTime.of(17, 0))
+                .slotMinutes(30)
+                .build();
+        for (int d = 0; d < DOCTORS; d++) {
+            Doctor doctor = doctorRepository.save(Doctor.builder().name("Dr. Bench " + d).specialty("General").build());
+            scheduleService.addTemplates(doctor.getId(), weekdays);
+        }
+    }
+
+    // Forget everything generated so the next invocation starts from an empty horizon again
+    @Setup(Level.Invocation)
+    public void resetHorizon() {
+        jdbcTemplate.update("DELETE FROM timeslot");
+        jdbcTemplate.update("UPDATE schedule_template SET generated_through = NULL");
+        availabilityIndex.rebuild(List.of());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_RUN)
+    public int generateHorizon() {
+        return scheduleService.generateAll();
+    }
+}
@@ -0,0 +1,92 @@
+package fact.it.doctorservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import fact.it.doctorservice.dto.TimeSlotDto;
+import fact.it.doctorservice.model.Doctor;
+import fact.it.doctorservice.model.TimeSlot;
+import fact.it.doctorservice.model.TimeSlotStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO mapping and JSON for time slots, without any database or HTTP in the way.
+ * The calendar is one doctor's month (30 days x 16 slots), the size GET /api/doctor/{id}/timeslots returns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeSlotMappingBenchmark {
+
+    private DoctorService doctorService;
+    private ObjectMapper objectMapper;
+    private ObjectWriter calendarWriter;
+    private TimeSlot slot;
+    private List<TimeSlot> calendar;
+    private List<TimeSlotDto> calendarDtos;
+    private TimeSlotDto slotDto;
+    private byte[] slotJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Mapping never touches the collaborators
+        doctorService = new DoctorService(null, null, null, null);
+        // Configured like the one Spring MVC serialises responses with
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        calendarWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, TimeSlotDto.class));
+
+        Doctor doctor = Doctor.builder().id(1L).name("Dr. Bench").specialty("General").build();
+        LocalDateTime first = LocalDateTime.of(2025, 1, 6, 8, 0);
+        calendar = new ArrayList<>();
+        for (int day = 0; day < 30; day++) {
+            for (int s = 0; s < 16; s++) {
+                LocalDateTime start = first.plusDays(day).plusMinutes(30L * s);
+                calendar.add(TimeSlot.builder()
+                        .id((long) calendar.size() + 1)
+                        .doctor(doctor)
+                        .startAt(start)
+                        .endAt(start.plusMinutes(30))
+                        .status(s % 3 == 0 ? TimeSlotStatus.RESERVED : TimeSlotStatus.AVAILABLE)
+                        .build());
+            }
+        }
+        slot = calendar.get(0);
+        calendarDtos = calendar.stream().map(doctorService::mapToTimeSlotDto).toList();
+        slotDto = calendarDtos.get(0);
+        slotJson = objectMapper.writeValueAsBytes(slotDto);
+    }
+
+    @Benchmark
+    public TimeSlotDto mapTimeSlot() {
+        return doctorService.mapToTimeSlotDto(slot);
+    }
+
+    @Benchmark
+    public List<TimeSlotDto> mapCalendar() {
+        return calendar.stream().map(doctorService::mapToTimeSlotDto).toList();
+    }
+
+    @Benchmark
+    public byte[] serializeTimeSlot() throws IOException {
+        return objectMapper.writeValueAsBytes(slotDto);
+    }
+
+    @Benchmark
+    public byte[] serializeCalendar() throws IOException {
+        return calendarWriter.writeValueAsBytes(calendarDtos);
+    }
+
+    @Benchmark
+    public TimeSlotDto deserializeTimeSlot() throws IOException {
+        return objectMapper.readValue(slotJson, TimeSlotDto.class);
+    }
+}
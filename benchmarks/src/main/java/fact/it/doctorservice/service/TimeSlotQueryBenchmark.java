@@ -0,0 +1,120 @@
+package fact.it.doctorservice.service;
+
+import fact.it.doctorservice.DoctorServiceApplication;
+import fact.it.doctorservice.dto.TimeSlotDto;
+import fact.it.doctorservice.model.Doctor;
+import fact.it.doctorservice.model.TimeSlot;
+import fact.it.doctorservice.model.TimeSlotStatus;
+import fact.it.doctorservice.repository.DoctorRepository;
+import fact.it.doctorservice.repository.TimeSlotRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calendar reads through the availability index versus the old repository + mapping path.
+ * H2 runs in-process, so the repository numbers are a best case: against MySQL every call also pays a network round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimeSlotQueryBenchmark {
+
+    private static final int DOCTORS = 50;
+    private static final int DAYS = 30;
+    private static final int SLOTS_PER_DAY = 16;
+
+    private ConfigurableApplicationContext context;
+    private DoctorService doctorService;
+    private TimeSlotRepository timeSlotRepository;
+    private List<Long> doctorIds;
+    private LocalDateTime firstDay;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DoctorServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        // patient-service sources share this classpath; the doctor context has no use for Mongo
+                        "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration,"
+                                + "org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration",
+                        "spring.datasource.url=jdbc:h2:mem:timeslot-bench;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop")
+                .run();
+        doctorService = context.getBean(DoctorService.class);
+        timeSlotRepository = context.getBean(TimeSlotRepository.class);
+        DoctorRepository doctorRepository = context.getBean(DoctorRepository.class);
+
+        firstDay = LocalDateTime.now().plusDays(1).withHour(8).withMinute(0).withSecond(0).withNano(0);
+        doctorIds = new ArrayList<>();
+        for (int d = 0; d < DOCTORS; d++) {
+            Doctor doctor = doctorRepository.save(Doctor.builder().name("Dr. Bench " + d).specialty("General").build());
+            doctorIds.add(doctor.getId());
+            List<TimeSlot> slots = new ArrayList<>(DAYS * SLOTS_PER_DAY);
+            for (int day = 0; day < DAYS; day++) {
+                for (int s = 0; s < SLOTS_PER_DAY; s++) {
+                    LocalDateTime start = firstDay.plusDays(day).plusMinutes(30L * s);
+                    slots.add(TimeSlot.builder()
+                            .doctor(doctor)
+                            .startAt(start)
+                            .endAt(start.plusMinutes(30))
+                            .status(s % 3 == 0 ? TimeSlotStatus.RESERVED : TimeSlotStatus.AVAILABLE)
+                            .build());
+                }
+            }
+            timeSlotRepository.saveAll(slots);
+        }
+        doctorService.buildAvailabilityIndex();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TimeSlotDto> dayViaIndex() {
+        LocalDateTime from = randomDay();
+        return doctorService.getTimeSlotsByDoctorBetween(randomDoctor(), from, from.plusDays(1));
+    }
+
+    @Benchmark
+    public List<TimeSlotDto> dayViaRepository() {
+        LocalDateTime from = randomDay();
+        return timeSlotRepository.findByDoctorIdAndStartAtBetween(randomDoctor(), from, from.plusDays(1)).stream()
+                .map(doctorService::mapToTimeSlotDto)
+                .toList();
+    }
+
+    @Benchmark
+    public List<TimeSlotDto> calendarViaIndex() {
+        return doctorService.getTimeSlotsByDoctor(randomDoctor());
+    }
+
+    @Benchmark
+    public List<TimeSlotDto> calendarViaRepository() {
+        return timeSlotRepository.findByDoctorId(randomDoctor()).stream()
+                .map(doctorService::mapToTimeSlotDto)
+                .toList();
+    }
+
+    private Long randomDoctor() {
+        return doctorIds.get(ThreadLocalRandom.current().nextInt(DOCTORS));
+    }
+
+    private LocalDateTime randomDay() {
+        return firstDay.plusDays(ThreadLocalRandom.current().nextInt(DAYS));
+    }
+}
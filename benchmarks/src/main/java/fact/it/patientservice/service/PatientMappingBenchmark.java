@@ -0,0 +1,57 @@
+package fact.it.patientservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fact.it.patientservice.dto.PatientResponse;
+import fact.it.patientservice.model.Patient;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Document-to-DTO mapping and JSON for a patient, the payload behind every appointment-service cache miss.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatientMappingBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Patient patient;
+    private PatientResponse response;
+    private byte[] responseJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        patient = Patient.builder()
+                .id("65f1c0ffee0000000000abcd")
+                .nationalId("BEL85010112345")
+                .firstName("Jan")
+                .lastName("Janssens")
+                .email("jan.janssens@example.com")
+                .phone("+32470123456")
+                .build();
+        response = PatientService.mapToPatientResponse(patient);
+        responseJson = objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public PatientResponse mapPatient() {
+        return PatientService.mapToPatientResponse(patient);
+    }
+
+    @Benchmark
+    public byte[] serializePatient() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public PatientResponse deserializePatient() throws IOException {
+        return objectMapper.readValue(responseJson, PatientResponse.class);
+    }
+}
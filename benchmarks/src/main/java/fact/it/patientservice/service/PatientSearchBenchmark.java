@@ -0,0 +1,58 @@
+package fact.it.patientservice.service;
+
+import fact.it.patientservice.dto.PatientSearchResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First page of GET /api/patient/search against a million patients in the in-memory name index.
+ * Surnames are built from syllables so the token vocabulary (~60k) looks like a real population rather than a handful of names.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class PatientSearchBenchmark {
+
+    private static final String[] FIRST_NAMES = {
+            "Jan", "Anna", "Lucas", "Emma", "Louis", "Olivia", "Noah", "Marie", "Arthur", "Elise", "Liam", "Sofie",
+            "Adam", "Lotte", "Victor", "Julie", "Jules", "Fien", "Finn", "Nina", "Mathis", "Zoë", "Leon", "Hélène",
+            "Thomas", "Sarah", "Pieter", "Eva", "Wout", "Laura", "Bram", "Anouk", "Jef", "Mila", "Stijn", "Lien"};
+    private static final String[] SYLLABLES = {
+            "jan", "sens", "pee", "ters", "maes", "wil", "lems", "ja", "cobs", "mer", "tens", "de", "smet", "van",
+            "dam", "claes", "goos", "sens", "dup", "ont", "lam", "bert", "du", "bois", "ver", "meu", "len", "hey",
+            "man", "ker", "ckx", "wou", "ters", "mich", "iels", "hu", "ys", "bo", "gaerts", "ste", "vens"};
+
+    @Param({"1000000"})
+    public int patients;
+
+    // Prefix of a common name, exact surname, a typo, and two terms
+    @Param({"jan", "jansens", "janssesn", "emma peeters"})
+    public String query;
+
+    private PatientSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new PatientSearchIndex(null, false);
+        Random random = new Random(42);
+        for (int i = 0; i < patients; i++) {
+            StringBuilder lastName = new StringBuilder();
+            int syllables = 2 + random.nextInt(2);
+            for (int s = 0; s < syllables; s++) {
+                lastName.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            lastName.setCharAt(0, Character.toUpperCase(lastName.charAt(0)));
+            index.put(Integer.toHexString(i), "BEL" + i, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)], lastName.toString());
+        }
+    }
+
+    @Benchmark
+    public PatientSearchResponse search() {
+        return index.search(query, 0, 20);
+    }
+}
@@ -1,8 +1,12 @@
 package fact.it.doctorservice.controller;
 
 import fact.it.doctorservice.dto.DoctorResponse;
+import fact.it.doctorservice.dto.ScheduleResponse;
+import fact.it.doctorservice.dto.ScheduleTemplateDto;
+import fact.it.doctorservice.dto.ScheduleTemplateRequest;
 import fact.it.doctorservice.dto.TimeSlotDto;
 import fact.it.doctorservice.service.DoctorService;
+import fact.it.doctorservice.service.ScheduleService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
@@ -16,6 +20,7 @@ import java.util.List;
 public class DoctorController {
 
     private final DoctorService doctorService;
+    private final ScheduleService scheduleService;
 
     @GetMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
@@ -41,4 +46,24 @@ public class DoctorController {
         }
         return doctorService.getTimeSlotsByDoctor(id);
     }
-}
\ No newline at end of file
+
+    // Adds weekly templates and immediately generates their slots up to the horizon
+    @PostMapping("/{id}/schedule")
+    @ResponseStatus(HttpStatus.OK)
+    public ScheduleResponse addSchedule(@PathVariable Long id, @RequestBody ScheduleTemplateRequest request) {
+        return scheduleService.addTemplates(id, request);
+    }
+
+    @GetMapping("/{id}/schedule")
+    @ResponseStatus(HttpStatus.OK)
+    public List<ScheduleTemplateDto> getSchedule(@PathVariable Long id) {
+        return scheduleService.getTemplates(id);
+    }
+
+    // Same incremental run as the nightly job; returns the number of slots created
+    @PostMapping("/schedule/generate")
+    @ResponseStatus(HttpStatus.OK)
+    public int generateSchedules() {
+        return scheduleService.generateAll();
+    }
+}
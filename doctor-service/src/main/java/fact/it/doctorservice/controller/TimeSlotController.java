@@ -1,5 +1,7 @@
 package fact.it.doctorservice.controller;
 
+import fact.it.doctorservice.dto.BatchReserveSlotRequest;
+import fact.it.doctorservice.dto.HoldSlotResponse;
 import fact.it.doctorservice.dto.ReserveSlotRequest;
 import fact.it.doctorservice.dto.ReserveSlotResponse;
 import fact.it.doctorservice.service.DoctorService;
@@ -7,6 +9,8 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/timeslot")
 @RequiredArgsConstructor
@@ -19,4 +23,48 @@ public class TimeSlotController {
     public ReserveSlotResponse reserve(@RequestBody ReserveSlotRequest request) {
         return doctorService.reserveSlot(request.getTimeslotId());
     }
-}
\ No newline at end of file
+
+    // Tentative reservation that expires unless confirmed
+    @PostMapping("/hold")
+    @ResponseStatus(HttpStatus.OK)
+    public HoldSlotResponse hold(@RequestBody ReserveSlotRequest request) {
+        return doctorService.holdSlot(request.getTimeslotId());
+    }
+
+    @PostMapping("/confirm")
+    @ResponseStatus(HttpStatus.OK)
+    public ReserveSlotResponse confirm(@RequestBody ReserveSlotRequest request) {
+        return doctorService.confirmSlot(request.getTimeslotId());
+    }
+
+    @PostMapping("/release")
+    @ResponseStatus(HttpStatus.OK)
+    public boolean release(@RequestBody ReserveSlotRequest request) {
+        return doctorService.releaseSlot(request.getTimeslotId());
+    }
+
+    // Responses are returned in the same order as the requested ids
+    @PostMapping("/reserve/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public List<ReserveSlotResponse> reserveBatch(@RequestBody BatchReserveSlotRequest request) {
+        return doctorService.reserveSlots(request.getTimeslotIds());
+    }
+
+    @PostMapping("/hold/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public List<HoldSlotResponse> holdBatch(@RequestBody BatchReserveSlotRequest request) {
+        return doctorService.holdSlots(request.getTimeslotIds());
+    }
+
+    @PostMapping("/confirm/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public List<ReserveSlotResponse> confirmBatch(@RequestBody BatchReserveSlotRequest request) {
+        return doctorService.confirmSlots(request.getTimeslotIds());
+    }
+
+    @PostMapping("/release/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public List<Boolean> releaseBatch(@RequestBody BatchReserveSlotRequest request) {
+        return doctorService.releaseSlots(request.getTimeslotIds());
+    }
+}
@@ -0,0 +1,14 @@
+package fact.it.doctorservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchReserveSlotRequest {
+    private List<Long> timeslotIds;
+}
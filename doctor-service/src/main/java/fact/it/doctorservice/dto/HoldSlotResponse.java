@@ -0,0 +1,19 @@
+package fact.it.doctorservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class HoldSlotResponse {
+    private Long timeslotId;
+    private boolean held;
+    private LocalDateTime heldUntil; // confirm before this or the slot goes back to AVAILABLE
+    private String message;
+}
@@ -10,6 +10,9 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 public class ReserveSlotResponse {
+    private Long timeslotId;
+    // Set on success so the gateway can drop its cached listings of this doctor
+    private Long doctorId;
     private boolean reserved;
     private String message;
 }
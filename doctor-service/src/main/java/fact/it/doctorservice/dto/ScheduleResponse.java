@@ -0,0 +1,20 @@
+package fact.it.doctorservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ScheduleResponse {
+    private Long doctorId;
+    private boolean created;
+    private String message;
+    private List<ScheduleTemplateDto> templates;
+    private int slotsGenerated;
+}
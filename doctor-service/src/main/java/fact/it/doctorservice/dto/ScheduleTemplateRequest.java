@@ -0,0 +1,22 @@
+package fact.it.doctorservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+
+// e.g. {"days":["MONDAY",...,"FRIDAY"],"startTime":"09:00","endTime":"17:00","slotMinutes":30}
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ScheduleTemplateRequest {
+    private List<DayOfWeek> days;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private int slotMinutes;
+}
@@ -15,6 +15,6 @@ public class TimeSlotDto {
     private Long id;
     private LocalDateTime startAt;
     private LocalDateTime endAt;
-    private String status; // AVAILABLE | RESERVED
+    private String status; // AVAILABLE | HELD | RESERVED
     private Long doctorId;
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package fact.it.doctorservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// One weekday of a doctor's recurring week, e.g. MONDAY 09:00-17:00 in 30-minute slots
+@Entity
+@Table(name = "schedule_template")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ScheduleTemplate {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private DayOfWeek dayOfWeek;
+
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private int slotMinutes;
+
+    private LocalDate generatedThrough; // last day that already has slots; null until the first run
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "doctor_id")
+    private Doctor doctor;
+}
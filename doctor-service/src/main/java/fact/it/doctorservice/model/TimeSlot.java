@@ -13,15 +13,22 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @Builder
 public class TimeSlot {
+    public static final int ID_ALLOCATION_SIZE = 500;
+
+    // Pooled table generator instead of IDENTITY: ids are known before the INSERT, so Hibernate can batch them
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "timeslot_id")
+    @TableGenerator(name = "timeslot_id", table = "id_generator", pkColumnName = "gen_name",
+            valueColumnName = "next_val", pkColumnValue = "timeslot", allocationSize = TimeSlot.ID_ALLOCATION_SIZE)
     private Long id;
 
     private LocalDateTime startAt;
     private LocalDateTime endAt;
 
     @Enumerated(EnumType.STRING)
-    private TimeSlotStatus status; // AVAILABLE | RESERVED
+    private TimeSlotStatus status; // AVAILABLE | HELD | RESERVED
+
+    private LocalDateTime heldUntil; // only set while status == HELD
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id")
@@ -2,5 +2,6 @@ package fact.it.doctorservice.model;
 
 public enum TimeSlotStatus {
     AVAILABLE,
+    HELD,     // tentatively taken while a booking is in progress, expires at TimeSlot.heldUntil
     RESERVED
 }
@@ -0,0 +1,16 @@
+package fact.it.doctorservice.repository;
+
+import fact.it.doctorservice.model.ScheduleTemplate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ScheduleTemplateRepository extends JpaRepository<ScheduleTemplate, Long> {
+    List<ScheduleTemplate> findByDoctorId(Long doctorId);
+
+    @Query("select distinct t.doctor.id from ScheduleTemplate t")
+    List<Long> findDoctorIds();
+}
@@ -0,0 +1,11 @@
+package fact.it.doctorservice.repository;
+
+import fact.it.doctorservice.model.TimeSlot;
+
+import java.util.List;
+
+public interface TimeSlotBatchRepository {
+    void insertAll(List<TimeSlot> slots);
+
+    void alignIdGenerator();
+}
@@ -0,0 +1,58 @@
+package fact.it.doctorservice.repository;
+
+import fact.it.doctorservice.model.TimeSlot;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Time slot ids come from a pooled table generator, so persisting in chunks lets Hibernate send
+// each chunk as one JDBC batch (and one multi-row INSERT with rewriteBatchedStatements on MySQL).
+@RequiredArgsConstructor
+public class TimeSlotBatchRepositoryImpl implements TimeSlotBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}")
+    private int insertBatchSize;
+
+    @Override
+    @Transactional
+    public void insertAll(List<TimeSlot> slots) {
+        for (int i = 0; i < slots.size(); i++) {
+            entityManager.persist(slots.get(i));
+            if ((i + 1) % insertBatchSize == 0) {
+                // Keeps the persistence context from growing with every generated slot
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+    }
+
+    // Rows written while TimeSlot still used IDENTITY sit below the generator's starting value.
+    // Push the generator past them once at startup so new ids never collide.
+    @Override
+    @Transactional
+    public void alignIdGenerator() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM timeslot", Long.class);
+        if (maxId == null) {
+            return;
+        }
+        long floor = maxId + TimeSlot.ID_ALLOCATION_SIZE + 1;
+        List<Long> current = jdbcTemplate.queryForList(
+                "SELECT next_val FROM id_generator WHERE gen_name = 'timeslot'", Long.class);
+        if (current.isEmpty()) {
+            jdbcTemplate.update("INSERT INTO id_generator (gen_name, next_val) VALUES ('timeslot', ?)", floor);
+        } else if (current.get(0) < floor) {
+            jdbcTemplate.update("UPDATE id_generator SET next_val = ? WHERE gen_name = 'timeslot'", floor);
+        }
+    }
+}
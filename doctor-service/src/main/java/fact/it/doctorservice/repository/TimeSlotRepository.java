@@ -1,14 +1,61 @@
 package fact.it.doctorservice.repository;
 
 import fact.it.doctorservice.model.TimeSlot;
+import fact.it.doctorservice.model.TimeSlotStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface TimeSlotRepository extends JpaRepository<TimeSlot, Long> {
+public interface TimeSlotRepository extends JpaRepository<TimeSlot, Long>, TimeSlotBatchRepository {
     List<TimeSlot> findByDoctorId(Long doctorId);
     List<TimeSlot> findByDoctorIdAndStartAtBetween(Long doctorId, LocalDateTime from, LocalDateTime to);
+
+    // Compare-and-set on the status column: returns 1 only for the caller that actually made the transition
+    @Transactional
+    @Modifying
+    @Query("update TimeSlot t set t.status = :next where t.id = :id and t.status = :expected")
+    int transitionStatus(@Param("id") Long id,
+                         @Param("expected") TimeSlotStatus expected,
+                         @Param("next") TimeSlotStatus next);
+
+    @Transactional
+    @Modifying
+    @Query("update TimeSlot t set t.status = fact.it.doctorservice.model.TimeSlotStatus.HELD, t.heldUntil = :until " +
+            "where t.id = :id and t.status = fact.it.doctorservice.model.TimeSlotStatus.AVAILABLE")
+    int holdIfAvailable(@Param("id") Long id, @Param("until") LocalDateTime until);
+
+    // A hold that has already run out can no longer be confirmed, even if the wheel has not reclaimed it yet
+    @Transactional
+    @Modifying
+    @Query("update TimeSlot t set t.status = fact.it.doctorservice.model.TimeSlotStatus.RESERVED, t.heldUntil = null " +
+            "where t.id = :id and t.status = fact.it.doctorservice.model.TimeSlotStatus.HELD and t.heldUntil > :now")
+    int confirmHold(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("update TimeSlot t set t.status = fact.it.doctorservice.model.TimeSlotStatus.AVAILABLE, t.heldUntil = null " +
+            "where t.id = :id and t.status = fact.it.doctorservice.model.TimeSlotStatus.HELD")
+    int releaseHold(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("update TimeSlot t set t.status = fact.it.doctorservice.model.TimeSlotStatus.AVAILABLE, t.heldUntil = null " +
+            "where t.id = :id and t.status = fact.it.doctorservice.model.TimeSlotStatus.HELD and t.heldUntil <= :now")
+    int releaseExpiredHold(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    List<TimeSlot> findByStatus(TimeSlotStatus status);
+
+    List<TimeSlot> findByStatusAndHeldUntilLessThanEqual(TimeSlotStatus status, LocalDateTime heldUntil);
+
+    @Query("select t.startAt from TimeSlot t where t.doctor.id = :doctorId and t.startAt between :from and :to")
+    List<LocalDateTime> findStartTimes(@Param("doctorId") Long doctorId,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to);
 }
@@ -1,6 +1,7 @@
 package fact.it.doctorservice.service;
 
 import fact.it.doctorservice.dto.DoctorResponse;
+import fact.it.doctorservice.dto.HoldSlotResponse;
 import fact.it.doctorservice.dto.ReserveSlotResponse;
 import fact.it.doctorservice.dto.TimeSlotDto;
 import fact.it.doctorservice.model.Doctor;
@@ -11,20 +12,36 @@ import fact.it.doctorservice.repository.TimeSlotRepository;
 import jakarta.annotation.PostConstruct;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class DoctorService {
 
     private final DoctorRepository doctorRepository;
     private final TimeSlotRepository timeSlotRepository;
+    private final HoldExpiryWheel holdExpiryWheel;
+    private final TimeSlotAvailabilityIndex availabilityIndex;
+
+    @Value("${timeslot.hold.ttl:2m}")
+    private Duration holdTtl;
 
     @PostConstruct
     public void loadData() {
+        timeSlotRepository.alignIdGenerator();
         if (doctorRepository.count() == 0) {
             // Seed one doctor with a few AVAILABLE time slots
             Doctor doc = Doctor.builder()
@@ -57,6 +74,32 @@ public class DoctorService {
         }
     }
 
+    // Holds taken before a restart are put back on the wheel so they still expire
+    @EventListener(ApplicationReadyEvent.class)
+    public void startHoldExpiry() {
+        holdExpiryWheel.start(this::expireHold);
+        timeSlotRepository.findByStatus(TimeSlotStatus.HELD)
+                .forEach(slot -> holdExpiryWheel.schedule(slot.getId(), slot.getHeldUntil()));
+    }
+
+    // Backstop for the wheel: any hold past its heldUntil is released even if its in-memory timer was lost
+    @Scheduled(fixedDelayString = "${timeslot.hold.sweep-interval:1m}", initialDelayString = "${timeslot.hold.sweep-interval:1m}")
+    public void sweepExpiredHolds() {
+        for (TimeSlot slot : timeSlotRepository.findByStatusAndHeldUntilLessThanEqual(TimeSlotStatus.HELD, LocalDateTime.now())) {
+            try {
+                expireHold(slot.getId());
+            } catch (RuntimeException e) {
+                log.warn("Sweeping expired hold on time slot {} failed: {}", slot.getId(), e.getMessage());
+            }
+        }
+    }
+
+    // Calendar reads are served from memory once the index has loaded every slot
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildAvailabilityIndex() {
+        availabilityIndex.rebuild(timeSlotRepository.findAll());
+    }
+
     public DoctorResponse getDoctor(Long id) {
         return doctorRepository.findById(id)
                 .map(this::mapToDoctorResponse)
@@ -64,38 +107,176 @@ public class DoctorService {
     }
 
     public List<TimeSlotDto> getTimeSlotsByDoctor(Long doctorId) {
+        if (availabilityIndex.isReady()) {
+            return availabilityIndex.find(doctorId);
+        }
         return timeSlotRepository.findByDoctorId(doctorId).stream()
                 .map(this::mapToTimeSlotDto)
                 .toList();
     }
 
     public List<TimeSlotDto> getTimeSlotsByDoctorBetween(Long doctorId, LocalDateTime from, LocalDateTime to) {
+        if (availabilityIndex.isReady()) {
+            return availabilityIndex.findBetween(doctorId, from, to);
+        }
         return timeSlotRepository.findByDoctorIdAndStartAtBetween(doctorId, from, to).stream()
                 .map(this::mapToTimeSlotDto)
                 .toList();
     }
 
+    // Single conditional UPDATE; the affected-row count decides the winner, so concurrent bookings cannot double-book
+    @Transactional
+    public ReserveSlotResponse reserveSlot(Long timeslotId) {
+        if (timeSlotRepository.transitionStatus(timeslotId, TimeSlotStatus.AVAILABLE, TimeSlotStatus.RESERVED) == 1) {
+            indexAfterCommit(timeslotId, TimeSlotStatus.RESERVED);
+            return slotReserved(timeslotId);
+        }
+        return reservationRejected(timeslotId);
+    }
+
+    // A slot listed twice only succeeds the first time
+    @Transactional
+    public List<ReserveSlotResponse> reserveSlots(List<Long> timeslotIds) {
+        if (timeslotIds == null || timeslotIds.isEmpty()) {
+            return List.of();
+        }
+        List<ReserveSlotResponse> responses = new ArrayList<>(timeslotIds.size());
+        for (Long id : timeslotIds) {
+            responses.add(reserveSlot(id));
+        }
+        return responses;
+    }
+
+    // AVAILABLE -> HELD until now + holdTtl; the caller confirms once its own work has succeeded
+    @Transactional
+    public HoldSlotResponse holdSlot(Long timeslotId) {
+        LocalDateTime heldUntil = LocalDateTime.now().plus(holdTtl);
+        if (timeSlotRepository.holdIfAvailable(timeslotId, heldUntil) == 1) {
+            holdExpiryWheel.schedule(timeslotId, heldUntil);
+            indexAfterCommit(timeslotId, TimeSlotStatus.HELD);
+            return HoldSlotResponse.builder()
+                    .timeslotId(timeslotId)
+                    .held(true)
+                    .heldUntil(heldUntil)
+                    .message("Time slot held")
+                    .build();
+        }
+        ReserveSlotResponse rejected = reservationRejected(timeslotId);
+        return HoldSlotResponse.builder()
+                .timeslotId(timeslotId)
+                .held(false)
+                .message(rejected.getMessage())
+                .build();
+    }
+
+    // HELD -> RESERVED, only while the hold has not expired
+    @Transactional
+    public ReserveSlotResponse confirmSlot(Long timeslotId) {
+        if (timeSlotRepository.confirmHold(timeslotId, LocalDateTime.now()) == 1) {
+            indexAfterCommit(timeslotId, TimeSlotStatus.RESERVED);
+            return slotReserved(timeslotId);
+        }
+        return ReserveSlotResponse.builder()
+                .timeslotId(timeslotId)
+                .reserved(false)
+                .message("No active hold on time slot")
+                .build();
+    }
+
+    // HELD -> AVAILABLE, gives capacity back straight away when a booking fails
+    @Transactional
+    public boolean releaseSlot(Long timeslotId) {
+        if (timeSlotRepository.releaseHold(timeslotId) == 1) {
+            indexAfterCommit(timeslotId, TimeSlotStatus.AVAILABLE);
+            return true;
+        }
+        return false;
+    }
+
+    // Batch variants of hold/confirm/release: one call and one transaction, one result per id in request order
+    @Transactional
+    public List<HoldSlotResponse> holdSlots(List<Long> timeslotIds) {
+        if (timeslotIds == null || timeslotIds.isEmpty()) {
+            return List.of();
+        }
+        List<HoldSlotResponse> responses = new ArrayList<>(timeslotIds.size());
+        for (Long id : timeslotIds) {
+            responses.add(holdSlot(id));
+        }
+        return responses;
+    }
+
     @Transactional
-    public  ReserveSlotResponse reserveSlot(Long timeslotId) {
-        return timeSlotRepository.findById(timeslotId)
-                .map(slot -> {
-                    if (slot.getStatus() == TimeSlotStatus.RESERVED) {
-                        return ReserveSlotResponse.builder()
-                                .reserved(false)
-                                .message("Time slot already reserved")
-                                .build();
-                    }
-                    slot.setStatus(TimeSlotStatus.RESERVED);
-                    timeSlotRepository.save(slot);
-                    return ReserveSlotResponse.builder()
-                            .reserved(true)
-                            .message("Time slot reserved successfully")
-                            .build();
-                })
-                .orElse(ReserveSlotResponse.builder()
-                        .reserved(false)
-                        .message("Time slot not found")
-                        .build());
+    public List<ReserveSlotResponse> confirmSlots(List<Long> timeslotIds) {
+        if (timeslotIds == null || timeslotIds.isEmpty()) {
+            return List.of();
+        }
+        List<ReserveSlotResponse> responses = new ArrayList<>(timeslotIds.size());
+        for (Long id : timeslotIds) {
+            responses.add(confirmSlot(id));
+        }
+        return responses;
+    }
+
+    @Transactional
+    public List<Boolean> releaseSlots(List<Long> timeslotIds) {
+        if (timeslotIds == null || timeslotIds.isEmpty()) {
+            return List.of();
+        }
+        List<Boolean> released = new ArrayList<>(timeslotIds.size());
+        for (Long id : timeslotIds) {
+            released.add(releaseSlot(id));
+        }
+        return released;
+    }
+
+    void expireHold(Long timeslotId) {
+        if (timeSlotRepository.releaseExpiredHold(timeslotId, LocalDateTime.now()) == 1) {
+            availabilityIndex.updateStatus(timeslotId, TimeSlotStatus.AVAILABLE);
+        }
+    }
+
+    // The index must never show a status that a rollback could still undo
+    private void indexAfterCommit(Long timeslotId, TimeSlotStatus status) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            availabilityIndex.updateStatus(timeslotId, status);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                availabilityIndex.updateStatus(timeslotId, status);
+            }
+        });
+    }
+
+    private ReserveSlotResponse slotReserved(Long timeslotId) {
+        return ReserveSlotResponse.builder()
+                .timeslotId(timeslotId)
+                .doctorId(availabilityIndex.doctorOf(timeslotId))
+                .reserved(true)
+                .message("Time slot reserved successfully")
+                .build();
+    }
+
+    // Only the losing path pays for the extra lookup that tells "taken" from "missing"
+    private ReserveSlotResponse reservationRejected(Long timeslotId) {
+        if (!timeSlotRepository.existsById(timeslotId)) {
+            return slotNotFound(timeslotId);
+        }
+        return ReserveSlotResponse.builder()
+                .timeslotId(timeslotId)
+                .reserved(false)
+                .message("Time slot already reserved")
+                .build();
+    }
+
+    private ReserveSlotResponse slotNotFound(Long timeslotId) {
+        return ReserveSlotResponse.builder()
+                .timeslotId(timeslotId)
+                .reserved(false)
+                .message("Time slot not found")
+                .build();
     }
 
     private DoctorResponse mapToDoctorResponse(Doctor doctor) {
@@ -106,7 +287,7 @@ public class DoctorService {
                 .build();
     }
 
-    private TimeSlotDto mapToTimeSlotDto(TimeSlot slot) {
+    TimeSlotDto mapToTimeSlotDto(TimeSlot slot) {
         return TimeSlotDto.builder()
                 .id(slot.getId())
                 .startAt(slot.getStartAt())
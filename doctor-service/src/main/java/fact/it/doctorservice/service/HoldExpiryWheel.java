@@ -0,0 +1,164 @@
+package fact.it.doctorservice.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Hashed timing wheel that fires once per held slot when its hold runs out.
+// Scheduling is O(1) and a tick only touches one bucket, so expiring holds never needs a table scan.
+// Entries are not cancelled on confirm/release: the expiry handler is a conditional update
+// that does nothing if the slot is no longer HELD. A release that fails goes back on the wheel
+// with a doubling delay (up to MAX_RETRY_DELAY), so one failed DB call never leaves the slot held.
+@Slf4j
+@Component
+public class HoldExpiryWheel {
+
+    private static final long MAX_RETRY_DELAY_NANOS = Duration.ofMinutes(1).toNanos();
+
+    private final long tickNanos;
+    private final int mask;
+    private final Queue<Entry>[] buckets;
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final ExecutorService expiryExecutor = Executors.newSingleThreadExecutor(daemon("hold-expiry"));
+
+    private volatile boolean running;
+    private Thread worker;
+    private Consumer<Long> onExpired;
+    private long startNanos;
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    public HoldExpiryWheel(@Value("${timeslot.hold.tick:1s}") Duration tickDuration,
+                           @Value("${timeslot.hold.wheel-size:512}") int wheelSize) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("timeslot.hold.wheel-size must be a power of two: " + wheelSize);
+        }
+        this.tickNanos = tickDuration.toNanos();
+        this.mask = wheelSize - 1;
+        this.buckets = new Queue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+    }
+
+    public synchronized void start(Consumer<Long> onExpired) {
+        if (running) {
+            return;
+        }
+        this.onExpired = onExpired;
+        this.startNanos = System.nanoTime();
+        this.running = true;
+        this.worker = daemon("hold-expiry-wheel").newThread(this::run);
+        worker.start();
+    }
+
+    public void schedule(Long timeslotId, LocalDateTime heldUntil) {
+        long delayNanos = Math.max(0, Duration.between(LocalDateTime.now(), heldUntil).toNanos());
+        pending.add(new Entry(timeslotId, System.nanoTime() + delayNanos, 0));
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+        expiryExecutor.shutdownNow();
+    }
+
+    private void run() {
+        while (running) {
+            if (!awaitNextTick()) {
+                return;
+            }
+            transferPending();
+            expireBucket(buckets[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private boolean awaitNextTick() {
+        long deadline = startNanos + (tick + 1) * tickNanos;
+        long sleepNanos;
+        while ((sleepNanos = deadline - System.nanoTime()) > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        }
+        return running;
+    }
+
+    // Only the worker thread touches the buckets; other threads hand entries over through the pending queue
+    private void transferPending() {
+        Entry entry;
+        while ((entry = pending.poll()) != null) {
+            long expiryTick = Math.max(tick, ceilDiv(entry.deadlineNanos - startNanos, tickNanos) - 1);
+            entry.remainingRounds = (expiryTick - tick) / buckets.length;
+            buckets[(int) (expiryTick & mask)].add(entry);
+        }
+    }
+
+    private void expireBucket(Queue<Entry> bucket) {
+        for (int i = bucket.size(); i > 0; i--) {
+            Entry entry = bucket.poll();
+            if (entry.remainingRounds > 0) {
+                entry.remainingRounds--;
+                bucket.add(entry);
+            } else {
+                // Keep DB work off the ticking thread so a slow release never delays the next tick
+                expiryExecutor.execute(() -> fire(entry));
+            }
+        }
+    }
+
+    private void fire(Entry entry) {
+        try {
+            onExpired.accept(entry.timeslotId);
+        } catch (RuntimeException e) {
+            long delayNanos = Math.min(MAX_RETRY_DELAY_NANOS, tickNanos << Math.min(entry.attempt, 20));
+            log.warn("Releasing expired hold on time slot {} failed, retrying in {} ms: {}",
+                    entry.timeslotId, delayNanos / 1_000_000, e.getMessage());
+            pending.add(new Entry(entry.timeslotId, System.nanoTime() + delayNanos, entry.attempt + 1));
+        }
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Entry {
+        private final Long timeslotId;
+        private final long deadlineNanos;
+        // Failed releases of this hold so far
+        private final int attempt;
+        private long remainingRounds;
+
+        private Entry(Long timeslotId, long deadlineNanos, int attempt) {
+            this.timeslotId = timeslotId;
+            this.deadlineNanos = deadlineNanos;
+            this.attempt = attempt;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package fact.it.doctorservice.service;
+
+import fact.it.doctorservice.dto.ScheduleResponse;
+import fact.it.doctorservice.dto.ScheduleTemplateDto;
+import fact.it.doctorservice.dto.ScheduleTemplateRequest;
+import fact.it.doctorservice.model.Doctor;
+import fact.it.doctorservice.model.ScheduleTemplate;
+import fact.it.doctorservice.model.TimeSlot;
+import fact.it.doctorservice.model.TimeSlotStatus;
+import fact.it.doctorservice.repository.DoctorRepository;
+import fact.it.doctorservice.repository.ScheduleTemplateRepository;
+import fact.it.doctorservice.repository.TimeSlotRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+
+// Turns weekly templates into concrete TimeSlot rows, always keeping `horizon-days` of calendar ahead.
+// Each template remembers how far it has been generated, so a run only inserts the missing days.
+@Slf4j
+@Service
+public class ScheduleService {
+
+    private final DoctorRepository doctorRepository;
+    private final ScheduleTemplateRepository scheduleTemplateRepository;
+    private final TimeSlotRepository timeSlotRepository;
+    private final TimeSlotAvailabilityIndex availabilityIndex;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${timeslot.generation.horizon-days:90}")
+    private int horizonDays;
+
+    public ScheduleService(DoctorRepository doctorRepository,
+                           ScheduleTemplateRepository scheduleTemplateRepository,
+                           TimeSlotRepository timeSlotRepository,
+                           TimeSlotAvailabilityIndex availabilityIndex,
+                           PlatformTransactionManager transactionManager) {
+        this.doctorRepository = doctorRepository;
+        this.scheduleTemplateRepository = scheduleTemplateRepository;
+        this.timeSlotRepository = timeSlotRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public ScheduleResponse addTemplates(Long doctorId, ScheduleTemplateRequest request) {
+        String invalid = validate(request);
+        if (invalid != null) {
+            return rejected(doctorId, invalid);
+        }
+        Optional<Doctor> doctor = doctorRepository.findById(doctorId);
+        if (doctor.isEmpty()) {
+            return rejected(doctorId, "Doctor not found");
+        }
+
+        List<ScheduleTemplate> templates = new ArrayList<>();
+        for (var day : EnumSet.copyOf(request.getDays())) {
+            templates.add(ScheduleTemplate.builder()
+                    .doctor(doctor.get())
+                    .dayOfWeek(day)
+                    .startTime(request.getStartTime())
+                    .endTime(request.getEndTime())
+                    .slotMinutes(request.getSlotMinutes())
+                    .build());
+        }
+        scheduleTemplateRepository.saveAll(templates);
+
+        int generated = generateForDoctor(doctorId);
+        return ScheduleResponse.builder()
+                .doctorId(doctorId)
+                .created(true)
+                .message("Schedule created")
+                .templates(getTemplates(doctorId))
+                .slotsGenerated(generated)
+                .build();
+    }
+
+    public List<ScheduleTemplateDto> getTemplates(Long doctorId) {
+        return scheduleTemplateRepository.findByDoctorId(doctorId).stream()
+                .map(this::mapToScheduleTemplateDto)
+                .toList();
+    }
+
+    // Runs after every restart too, so downtime never leaves a gap at the end of the horizon
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${timeslot.generation.cron:0 0 2 * * *}")
+    public int generateAll() {
+        int total = 0;
+        for (Long doctorId : scheduleTemplateRepository.findDoctorIds()) {
+            total += generateForDoctor(doctorId);
+        }
+        if (total > 0) {
+            log.info("Generated {} time slots up to {}", total, LocalDate.now().plusDays(horizonDays));
+        }
+        return total;
+    }
+
+    // Serialised so the nightly run and a template update never generate the same days twice
+    public synchronized int generateForDoctor(Long doctorId) {
+        List<TimeSlot> created = transactionTemplate.execute(status -> generateMissing(doctorId));
+        availabilityIndex.add(created);
+        return created.size();
+    }
+
+    private List<TimeSlot> generateMissing(Long doctorId) {
+        LocalDate first = LocalDate.now().plusDays(1);
+        LocalDate through = LocalDate.now().plusDays(horizonDays);
+        List<ScheduleTemplate> templates = scheduleTemplateRepository.findByDoctorId(doctorId);
+        if (templates.stream().allMatch(t -> t.getGeneratedThrough() != null && !t.getGeneratedThrough().isBefore(through))) {
+            return List.of();
+        }
+
+        // Days that already have slots (seeded, or from an overlapping template) are skipped per start time
+        Set<LocalDateTime> existing = new HashSet<>(timeSlotRepository.findStartTimes(
+                doctorId, first.atStartOfDay(), through.atTime(LocalTime.MAX)));
+        Doctor doctor = doctorRepository.getReferenceById(doctorId);
+
+        List<TimeSlot> slots = new ArrayList<>();
+        for (ScheduleTemplate template : templates) {
+            LocalDate from = template.getGeneratedThrough() == null || template.getGeneratedThrough().isBefore(first)
+                    ? first
+                    : template.getGeneratedThrough().plusDays(1);
+            int startMinute = template.getStartTime().toSecondOfDay() / 60;
+            int endMinute = template.getEndTime().toSecondOfDay() / 60;
+            for (LocalDate day = from.with(TemporalAdjusters.nextOrSame(template.getDayOfWeek()));
+                 !day.isAfter(through); day = day.plusWeeks(1)) {
+                for (int minute = startMinute; minute + template.getSlotMinutes() <= endMinute; minute += template.getSlotMinutes()) {
+                    LocalDateTime startAt = day.atStartOfDay().plusMinutes(minute);
+                    if (existing.add(startAt)) {
+                        slots.add(TimeSlot.builder()
+                                .doctor(doctor)
+                                .startAt(startAt)
+                                .endAt(startAt.plusMinutes(template.getSlotMinutes()))
+                                .status(TimeSlotStatus.AVAILABLE)
+                                .build());
+                    }
+                }
+            }
+            template.setGeneratedThrough(through);
+        }
+
+        // Flushed before the bulk insert, which clears the persistence context between batches
+        scheduleTemplateRepository.saveAllAndFlush(templates);
+        timeSlotRepository.insertAll(slots);
+        return slots;
+    }
+
+    private String validate(ScheduleTemplateRequest request) {
+        if (request.getDays() == null || request.getDays().isEmpty()) {
+            return "At least one day is required";
+        }
+        if (request.getStartTime() == null || request.getEndTime() == null
+                || !request.getStartTime().isBefore(request.getEndTime())) {
+            return "startTime must be before endTime";
+        }
+        if (request.getSlotMinutes() <= 0) {
+            return "slotMinutes must be positive";
+        }
+        return null;
+    }
+
+    private ScheduleResponse rejected(Long doctorId, String message) {
+        return ScheduleResponse.builder()
+                .doctorId(doctorId)
+                .created(false)
+                .message(message)
+                .templates(List.of())
+                .build();
+    }
+
+    private ScheduleTemplateDto mapToScheduleTemplateDto(ScheduleTemplate template) {
+        return ScheduleTemplateDto.builder()
+                .id(template.getId())
+                .doctorId(template.getDoctor() != null ? template.getDoctor().getId() : null)
+                .dayOfWeek(template.getDayOfWeek())
+                .startTime(template.getStartTime())
+                .endTime(template.getEndTime())
+                .slotMinutes(template.getSlotMinutes())
+                .generatedThrough(template.getGeneratedThrough())
+                .build();
+    }
+}
@@ -0,0 +1,258 @@
+package fact.it.doctorservice.service;
+
+import fact.it.doctorservice.dto.TimeSlotDto;
+import fact.it.doctorservice.model.TimeSlot;
+import fact.it.doctorservice.model.TimeSlotStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Read-optimised copy of every doctor's calendar so timeslot listings never touch MySQL.
+// Per doctor and per day the slots live in parallel primitive arrays sorted by start time,
+// which answers range queries with a binary search and no entity hydration.
+// Days are copy-on-write: readers never lock, writers swap in a new DaySlots.
+// The index only sees writes made through this instance; doctor-service runs as a single instance.
+// Writes that land while the startup load is running are logged and replayed on top of the snapshot,
+// so a hold or release committed after findAll() is not lost when rebuild() swaps the snapshot in.
+@Component
+public class TimeSlotAvailabilityIndex {
+
+    private static final TimeSlotStatus[] STATUSES = TimeSlotStatus.values();
+
+    private final Map<Long, ConcurrentNavigableMap<Long, DaySlots>> calendars = new ConcurrentHashMap<>();
+    private final Map<Long, SlotLocation> locations = new ConcurrentHashMap<>();
+    // Guarded by this; only used until the first rebuild completes
+    private final List<Runnable> writesWhileLoading = new ArrayList<>();
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public synchronized void rebuild(Collection<TimeSlot> slots) {
+        calendars.clear();
+        locations.clear();
+        merge(slots);
+        writesWhileLoading.forEach(Runnable::run);
+        writesWhileLoading.clear();
+        ready = true;
+    }
+
+    public void add(Collection<TimeSlot> slots) {
+        if (!ready && recordWhileLoading(() -> merge(slots))) {
+            return;
+        }
+        merge(slots);
+    }
+
+    public void updateStatus(Long timeslotId, TimeSlotStatus status) {
+        if (!ready && recordWhileLoading(() -> applyStatus(timeslotId, status))) {
+            return;
+        }
+        applyStatus(timeslotId, status);
+    }
+
+    // False when the load finished in the meantime and the write can be applied directly
+    private synchronized boolean recordWhileLoading(Runnable write) {
+        if (ready) {
+            return false;
+        }
+        writesWhileLoading.add(write);
+        return true;
+    }
+
+    private void merge(Collection<TimeSlot> slots) {
+        Map<SlotLocation, List<TimeSlot>> byDay = new HashMap<>();
+        for (TimeSlot slot : slots) {
+            if (slot.getDoctor() == null || slot.getStartAt() == null) {
+                continue;
+            }
+            SlotLocation location = new SlotLocation(slot.getDoctor().getId(), slot.getStartAt().toLocalDate().toEpochDay());
+            byDay.computeIfAbsent(location, l -> new ArrayList<>()).add(slot);
+        }
+        byDay.forEach((location, daySlots) -> {
+            calendar(location.doctorId()).compute(location.epochDay(),
+                    (day, existing) -> DaySlots.merge(existing, daySlots));
+            daySlots.forEach(slot -> locations.put(slot.getId(), location));
+        });
+    }
+
+    private void applyStatus(Long timeslotId, TimeSlotStatus status) {
+        SlotLocation location = locations.get(timeslotId);
+        if (location == null) {
+            return;
+        }
+        calendar(location.doctorId()).computeIfPresent(location.epochDay(),
+                (day, existing) -> existing.withStatus(timeslotId, status));
+    }
+
+    // Null when the slot is not indexed (yet)
+    public Long doctorOf(Long timeslotId) {
+        SlotLocation location = locations.get(timeslotId);
+        return location == null ? null : location.doctorId();
+    }
+
+    public List<TimeSlotDto> find(Long doctorId) {
+        ConcurrentNavigableMap<Long, DaySlots> calendar = calendars.get(doctorId);
+        if (calendar == null) {
+            return List.of();
+        }
+        List<TimeSlotDto> out = new ArrayList<>();
+        for (DaySlots day : calendar.values()) {
+            day.collect(doctorId, 0, day.size(), out);
+        }
+        return out;
+    }
+
+    // Same bounds as findByDoctorIdAndStartAtBetween: from <= startAt <= to
+    public List<TimeSlotDto> findBetween(Long doctorId, LocalDateTime from, LocalDateTime to) {
+        ConcurrentNavigableMap<Long, DaySlots> calendar = calendars.get(doctorId);
+        if (calendar == null || from.isAfter(to)) {
+            return List.of();
+        }
+        long fromSecond = toSecond(from);
+        long toSecond = toSecond(to);
+        List<TimeSlotDto> out = new ArrayList<>();
+        for (DaySlots day : calendar.subMap(from.toLocalDate().toEpochDay(), true, to.toLocalDate().toEpochDay(), true).values()) {
+            day.collect(doctorId, day.lowerBound(fromSecond, from.getNano()), day.upperBound(toSecond, to.getNano()), out);
+        }
+        return out;
+    }
+
+    private ConcurrentNavigableMap<Long, DaySlots> calendar(Long doctorId) {
+        return calendars.computeIfAbsent(doctorId, id -> new ConcurrentSkipListMap<>());
+    }
+
+    private static long toSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime fromSecond(long second, int nano) {
+        return LocalDateTime.ofEpochSecond(second, nano, ZoneOffset.UTC);
+    }
+
+    private record SlotLocation(Long doctorId, long epochDay) {
+    }
+
+    // One doctor's slots on one day, sorted by start time. Never mutated after construction.
+    private static final class DaySlots {
+        private final long[] ids;
+        private final long[] startSeconds;
+        private final long[] endSeconds;
+        private final int[] startNanos;
+        private final int[] endNanos;
+        private final byte[] statuses;
+
+        private DaySlots(int size) {
+            ids = new long[size];
+            startSeconds = new long[size];
+            endSeconds = new long[size];
+            startNanos = new int[size];
+            endNanos = new int[size];
+            statuses = new byte[size];
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        static DaySlots merge(DaySlots existing, List<TimeSlot> added) {
+            Map<Long, long[]> rows = new HashMap<>();
+            if (existing != null) {
+                for (int i = 0; i < existing.size(); i++) {
+                    rows.put(existing.ids[i], new long[]{existing.ids[i], existing.startSeconds[i], existing.startNanos[i],
+                            existing.endSeconds[i], existing.endNanos[i], existing.statuses[i]});
+                }
+            }
+            for (TimeSlot slot : added) {
+                LocalDateTime end = slot.getEndAt() != null ? slot.getEndAt() : slot.getStartAt();
+                TimeSlotStatus status = slot.getStatus() != null ? slot.getStatus() : TimeSlotStatus.AVAILABLE;
+                rows.put(slot.getId(), new long[]{slot.getId(), toSecond(slot.getStartAt()), slot.getStartAt().getNano(),
+                        toSecond(end), end.getNano(), status.ordinal()});
+            }
+            List<long[]> sorted = new ArrayList<>(rows.values());
+            sorted.sort(Comparator.<long[]>comparingLong(r -> r[1]).thenComparingLong(r -> r[2]).thenComparingLong(r -> r[0]));
+
+            DaySlots day = new DaySlots(sorted.size());
+            for (int i = 0; i < sorted.size(); i++) {
+                long[] r = sorted.get(i);
+                day.ids[i] = r[0];
+                day.startSeconds[i] = r[1];
+                day.startNanos[i] = (int) r[2];
+                day.endSeconds[i] = r[3];
+                day.endNanos[i] = (int) r[4];
+                day.statuses[i] = (byte) r[5];
+            }
+            return day;
+        }
+
+        DaySlots withStatus(Long timeslotId, TimeSlotStatus status) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == timeslotId) {
+                    DaySlots copy = new DaySlots(ids.length);
+                    System.arraycopy(ids, 0, copy.ids, 0, ids.length);
+                    System.arraycopy(startSeconds, 0, copy.startSeconds, 0, ids.length);
+                    System.arraycopy(endSeconds, 0, copy.endSeconds, 0, ids.length);
+                    System.arraycopy(startNanos, 0, copy.startNanos, 0, ids.length);
+                    System.arraycopy(endNanos, 0, copy.endNanos, 0, ids.length);
+                    System.arraycopy(statuses, 0, copy.statuses, 0, ids.length);
+                    copy.statuses[i] = (byte) status.ordinal();
+                    return copy;
+                }
+            }
+            return this;
+        }
+
+        // First index whose start is >= (second, nano)
+        int lowerBound(long second, int nano) {
+            int lo = 0;
+            int hi = ids.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (compareStart(mid, second, nano) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        // First index whose start is > (second, nano)
+        int upperBound(long second, int nano) {
+            int lo = 0;
+            int hi = ids.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (compareStart(mid, second, nano) <= 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        private int compareStart(int i, long second, int nano) {
+            int bySecond = Long.compare(startSeconds[i], second);
+            return bySecond != 0 ? bySecond : Integer.compare(startNanos[i], nano);
+        }
+
+        void collect(Long doctorId, int from, int to, List<TimeSlotDto> out) {
+            for (int i = from; i < to; i++) {
+                out.add(TimeSlotDto.builder()
+                        .id(ids[i])
+                        .startAt(fromSecond(startSeconds[i], startNanos[i]))
+                        .endAt(fromSecond(endSeconds[i], endNanos[i]))
+                        .status(STATUSES[statuses[i]].name())
+                        .doctorId(doctorId)
+                        .build());
+            }
+        }
+    }
+}
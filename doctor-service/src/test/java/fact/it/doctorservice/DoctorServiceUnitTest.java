@@ -1,6 +1,7 @@
 package fact.it.doctorservice;
 
 import fact.it.doctorservice.dto.DoctorResponse;
+import fact.it.doctorservice.dto.HoldSlotResponse;
 import fact.it.doctorservice.dto.ReserveSlotResponse;
 import fact.it.doctorservice.dto.TimeSlotDto;
 import fact.it.doctorservice.model.Doctor;
@@ -9,18 +10,23 @@ import fact.it.doctorservice.model.TimeSlotStatus;
 import fact.it.doctorservice.repository.DoctorRepository;
 import fact.it.doctorservice.repository.TimeSlotRepository;
 import fact.it.doctorservice.service.DoctorService;
+import fact.it.doctorservice.service.HoldExpiryWheel;
+import fact.it.doctorservice.service.TimeSlotAvailabilityIndex;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +41,12 @@ class DoctorServiceUnitTest {
     @Mock
     private TimeSlotRepository timeSlotRepository;
 
+    @Mock
+    private HoldExpiryWheel holdExpiryWheel;
+
+    @Mock
+    private TimeSlotAvailabilityIndex availabilityIndex;
+
     @Test
     void testGetDoctor_Found() {
         Doctor d = Doctor.builder()
@@ -78,41 +90,50 @@ class DoctorServiceUnitTest {
         verify(timeSlotRepository, times(1)).findByDoctorId(1L);
     }
 
+    @Test
+    void testGetTimeSlotsByDoctorBetween_ServedFromIndex() {
+        LocalDateTime from = LocalDateTime.now();
+        LocalDateTime to = from.plusDays(1);
+        TimeSlotDto slot = TimeSlotDto.builder().id(10L).status("AVAILABLE").doctorId(1L).build();
+        when(availabilityIndex.isReady()).thenReturn(true);
+        when(availabilityIndex.findBetween(1L, from, to)).thenReturn(List.of(slot));
+
+        List<TimeSlotDto> out = doctorService.getTimeSlotsByDoctorBetween(1L, from, to);
+
+        assertEquals(List.of(slot), out);
+        verifyNoInteractions(timeSlotRepository);
+    }
+
     @Test
     void testReserveSlot_Success() {
-        TimeSlot slot = TimeSlot.builder()
-                .id(5L)
-                .status(TimeSlotStatus.AVAILABLE)
-                .build();
-        when(timeSlotRepository.findById(5L)).thenReturn(Optional.of(slot));
-        when(timeSlotRepository.save(any(TimeSlot.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(timeSlotRepository.transitionStatus(5L, TimeSlotStatus.AVAILABLE, TimeSlotStatus.RESERVED)).thenReturn(1);
 
         ReserveSlotResponse resp = doctorService.reserveSlot(5L);
 
         assertTrue(resp.isReserved());
         assertEquals("Time slot reserved successfully", resp.getMessage());
-        assertEquals(TimeSlotStatus.RESERVED, slot.getStatus());
-        verify(timeSlotRepository, times(1)).save(slot);
+        verify(availabilityIndex).updateStatus(5L, TimeSlotStatus.RESERVED);
+        verify(timeSlotRepository, never()).findById(any());
+        verify(timeSlotRepository, never()).save(any());
     }
 
     @Test
     void testReserveSlot_AlreadyReserved() {
-        TimeSlot slot = TimeSlot.builder()
-                .id(6L)
-                .status(TimeSlotStatus.RESERVED)
-                .build();
-        when(timeSlotRepository.findById(6L)).thenReturn(Optional.of(slot));
+        when(timeSlotRepository.transitionStatus(6L, TimeSlotStatus.AVAILABLE, TimeSlotStatus.RESERVED)).thenReturn(0);
+        when(timeSlotRepository.existsById(6L)).thenReturn(true);
 
         ReserveSlotResponse resp = doctorService.reserveSlot(6L);
 
         assertFalse(resp.isReserved());
         assertEquals("Time slot already reserved", resp.getMessage());
         verify(timeSlotRepository, never()).save(any());
+        verify(availabilityIndex, never()).updateStatus(any(), any());
     }
 
     @Test
     void testReserveSlot_NotFound() {
-        when(timeSlotRepository.findById(404L)).thenReturn(Optional.empty());
+        when(timeSlotRepository.transitionStatus(404L, TimeSlotStatus.AVAILABLE, TimeSlotStatus.RESERVED)).thenReturn(0);
+        when(timeSlotRepository.existsById(404L)).thenReturn(false);
 
         ReserveSlotResponse resp = doctorService.reserveSlot(404L);
 
@@ -120,5 +141,98 @@ class DoctorServiceUnitTest {
         assertEquals("Time slot not found", resp.getMessage());
         verify(timeSlotRepository, never()).save(any());
     }
-}
 
+    @Test
+    void testReserveSlots_Batch() {
+        when(timeSlotRepository.transitionStatus(1L, TimeSlotStatus.AVAILABLE, TimeSlotStatus.RESERVED)).thenReturn(1, 0);
+        when(timeSlotRepository.transitionStatus(2L, TimeSlotStatus.AVAILABLE, TimeSlotStatus.RESERVED)).thenReturn(0);
+        when(timeSlotRepository.transitionStatus(404L, TimeSlotStatus.AVAILABLE, TimeSlotStatus.RESERVED)).thenReturn(0);
+        when(timeSlotRepository.existsById(1L)).thenReturn(true);
+        when(timeSlotRepository.existsById(2L)).thenReturn(true);
+        when(timeSlotRepository.existsById(404L)).thenReturn(false);
+
+        List<ReserveSlotResponse> out = doctorService.reserveSlots(List.of(1L, 2L, 404L, 1L));
+
+        assertEquals(4, out.size());
+        assertTrue(out.get(0).isReserved());
+        assertEquals("Time slot already reserved", out.get(1).getMessage());
+        assertEquals("Time slot not found", out.get(2).getMessage());
+        assertEquals(404L, out.get(2).getTimeslotId());
+        assertFalse(out.get(3).isReserved()); // duplicate id in the same batch
+    }
+
+    @Test
+    void testHoldSlot_SchedulesExpiry() {
+        ReflectionTestUtils.setField(doctorService, "holdTtl", Duration.ofMinutes(2));
+        when(timeSlotRepository.holdIfAvailable(eq(7L), any(LocalDateTime.class))).thenReturn(1);
+
+        HoldSlotResponse resp = doctorService.holdSlot(7L);
+
+        assertTrue(resp.isHeld());
+        assertNotNull(resp.getHeldUntil());
+        verify(holdExpiryWheel, times(1)).schedule(7L, resp.getHeldUntil());
+    }
+
+    @Test
+    void testHoldSlot_AlreadyTaken() {
+        ReflectionTestUtils.setField(doctorService, "holdTtl", Duration.ofMinutes(2));
+        when(timeSlotRepository.holdIfAvailable(eq(8L), any(LocalDateTime.class))).thenReturn(0);
+        when(timeSlotRepository.existsById(8L)).thenReturn(true);
+
+        HoldSlotResponse resp = doctorService.holdSlot(8L);
+
+        assertFalse(resp.isHeld());
+        assertEquals("Time slot already reserved", resp.getMessage());
+        verify(holdExpiryWheel, never()).schedule(any(), any());
+    }
+
+    @Test
+    void testConfirmSlot() {
+        when(timeSlotRepository.confirmHold(eq(7L), any(LocalDateTime.class))).thenReturn(1);
+        when(timeSlotRepository.confirmHold(eq(9L), any(LocalDateTime.class))).thenReturn(0);
+
+        assertTrue(doctorService.confirmSlot(7L).isReserved());
+        assertFalse(doctorService.confirmSlot(9L).isReserved());
+    }
+
+    @Test
+    void testReleaseSlot() {
+        when(timeSlotRepository.releaseHold(7L)).thenReturn(1);
+        when(timeSlotRepository.releaseHold(9L)).thenReturn(0);
+
+        assertTrue(doctorService.releaseSlot(7L));
+        assertFalse(doctorService.releaseSlot(9L));
+    }
+
+    @Test
+    void testHoldConfirmReleaseSlots_Batch() {
+        ReflectionTestUtils.setField(doctorService, "holdTtl", Duration.ofMinutes(2));
+        when(timeSlotRepository.holdIfAvailable(eq(7L), any(LocalDateTime.class))).thenReturn(1);
+        when(timeSlotRepository.holdIfAvailable(eq(8L), any(LocalDateTime.class))).thenReturn(0);
+        when(timeSlotRepository.existsById(8L)).thenReturn(true);
+        when(timeSlotRepository.confirmHold(eq(7L), any(LocalDateTime.class))).thenReturn(1);
+        when(timeSlotRepository.releaseHold(7L)).thenReturn(0);
+
+        List<HoldSlotResponse> holds = doctorService.holdSlots(List.of(7L, 8L));
+        List<ReserveSlotResponse> confirms = doctorService.confirmSlots(List.of(7L));
+
+        assertTrue(holds.get(0).isHeld());
+        assertFalse(holds.get(1).isHeld());
+        assertEquals("Time slot already reserved", holds.get(1).getMessage());
+        assertTrue(confirms.get(0).isReserved());
+        assertEquals(List.of(false), doctorService.releaseSlots(List.of(7L)));
+        assertEquals(List.of(), doctorService.holdSlots(List.of()));
+    }
+
+    @Test
+    void testSweepReleasesExpiredHolds() {
+        TimeSlot lapsed = TimeSlot.builder().id(7L).status(TimeSlotStatus.HELD).heldUntil(LocalDateTime.now().minusMinutes(1)).build();
+        when(timeSlotRepository.findByStatusAndHeldUntilLessThanEqual(eq(TimeSlotStatus.HELD), any(LocalDateTime.class)))
+                .thenReturn(List.of(lapsed));
+        when(timeSlotRepository.releaseExpiredHold(eq(7L), any(LocalDateTime.class))).thenReturn(1);
+
+        doctorService.sweepExpiredHolds();
+
+        verify(availabilityIndex).updateStatus(7L, TimeSlotStatus.AVAILABLE);
+    }
+}
@@ -0,0 +1,87 @@
+package fact.it.doctorservice;
+
+import fact.it.doctorservice.service.HoldExpiryWheel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HoldExpiryWheelTest {
+
+    // 8 buckets of 10 ms, so anything further than 80 ms out needs more than one rotation
+    private final HoldExpiryWheel wheel = new HoldExpiryWheel(Duration.ofMillis(10), 8);
+
+    @AfterEach
+    void tearDown() {
+        wheel.stop();
+    }
+
+    @Test
+    void testFiresEachHoldOnceAfterItsDeadline() throws InterruptedException {
+        List<Long> expired = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+        wheel.start(id -> {
+            expired.add(id);
+            done.countDown();
+        });
+
+        LocalDateTime now = LocalDateTime.now();
+        wheel.schedule(3L, now.plusNanos(250_000_000));
+        wheel.schedule(1L, now.plusNanos(20_000_000));
+        wheel.schedule(2L, now.plusNanos(120_000_000));
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of(1L, 2L, 3L), expired);
+    }
+
+    @Test
+    void testDoesNotFireEarly() throws InterruptedException {
+        List<Long> expired = new CopyOnWriteArrayList<>();
+        wheel.start(expired::add);
+
+        wheel.schedule(1L, LocalDateTime.now().plusSeconds(5));
+
+        Thread.sleep(200);
+        assertTrue(expired.isEmpty());
+    }
+
+    @Test
+    void testPastDeadlineFiresOnNextTick() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        wheel.start(id -> done.countDown());
+
+        wheel.schedule(1L, LocalDateTime.now().minusMinutes(1));
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testFailedReleaseIsRetried() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch released = new CountDownLatch(1);
+        wheel.start(id -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IllegalStateException("database unavailable");
+            }
+            released.countDown();
+        });
+
+        wheel.schedule(1L, LocalDateTime.now());
+
+        assertTrue(released.await(2, TimeUnit.SECONDS));
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void testRejectsWheelSizeThatIsNotPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new HoldExpiryWheel(Duration.ofMillis(10), 10));
+    }
+}
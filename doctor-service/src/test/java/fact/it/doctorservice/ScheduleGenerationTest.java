@@ -0,0 +1,144 @@
+package fact.it.doctorservice;
+
+import fact.it.doctorservice.dto.ScheduleResponse;
+import fact.it.doctorservice.dto.ScheduleTemplateRequest;
+import fact.it.doctorservice.model.Doctor;
+import fact.it.doctorservice.model.TimeSlot;
+import fact.it.doctorservice.model.TimeSlotStatus;
+import fact.it.doctorservice.repository.DoctorRepository;
+import fact.it.doctorservice.repository.TimeSlotRepository;
+import fact.it.doctorservice.service.ScheduleService;
+import fact.it.doctorservice.service.TimeSlotAvailabilityIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:schedule",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "timeslot.generation.horizon-days=28"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ScheduleService.class, TimeSlotAvailabilityIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ScheduleGenerationTest {
+
+    private static final ScheduleTemplateRequest WEEKDAYS_9_TO_5 = ScheduleTemplateRequest.builder()
+            .days(List.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY))
+            .startTime(LocalTime.of(9, 0))
+            .endTime(LocalTime.of(17, 0))
+            .slotMinutes(30)
+            .build();
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private TimeSlotRepository timeSlotRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testGeneratesOnlyTheMissingHorizon() {
+        Long doctorId = newDoctor();
+
+        ScheduleResponse resp = scheduleService.addTemplates(doctorId, WEEKDAYS_9_TO_5);
+
+        assertTrue(resp.isCreated());
+        assertEquals(5, resp.getTemplates().size());
+        assertEquals(weekdaysUntil(28) * 16, resp.getSlotsGenerated());
+        assertEquals(resp.getSlotsGenerated(), timeSlotRepository.findByDoctorId(doctorId).size());
+
+        // Nothing left to do until the horizon moves
+        assertEquals(0, scheduleService.generateForDoctor(doctorId));
+
+        ReflectionTestUtils.setField(scheduleService, "horizonDays", 35);
+        assertEquals((weekdaysUntil(35) - weekdaysUntil(28)) * 16, scheduleService.generateForDoctor(doctorId));
+        assertEquals(weekdaysUntil(35) * 16, timeSlotRepository.findByDoctorId(doctorId).size());
+        ReflectionTestUtils.setField(scheduleService, "horizonDays", 28);
+    }
+
+    @Test
+    void testSkipsSlotsThatAlreadyExist() {
+        Long doctorId = newDoctor();
+        LocalDateTime monday9 = LocalDate.now().plusDays(1).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY)).atTime(9, 0);
+        timeSlotRepository.save(TimeSlot.builder()
+                .doctor(doctorRepository.getReferenceById(doctorId))
+                .startAt(monday9)
+                .endAt(monday9.plusMinutes(30))
+                .status(TimeSlotStatus.RESERVED)
+                .build());
+
+        ScheduleResponse resp = scheduleService.addTemplates(doctorId, WEEKDAYS_9_TO_5);
+
+        assertEquals(weekdaysUntil(28) * 16 - 1, resp.getSlotsGenerated());
+        assertEquals(1, timeSlotRepository.findByDoctorIdAndStartAtBetween(doctorId, monday9, monday9).size());
+    }
+
+    @Test
+    void testRejectsInvalidTemplate() {
+        Long doctorId = newDoctor();
+        ScheduleTemplateRequest backwards = ScheduleTemplateRequest.builder()
+                .days(List.of(DayOfWeek.MONDAY))
+                .startTime(LocalTime.of(17, 0))
+                .endTime(LocalTime.of(9, 0))
+                .slotMinutes(30)
+                .build();
+
+        ScheduleResponse resp = scheduleService.addTemplates(doctorId, backwards);
+
+        assertFalse(resp.isCreated());
+        assertEquals("startTime must be before endTime", resp.getMessage());
+        assertFalse(scheduleService.addTemplates(404L, WEEKDAYS_9_TO_5).isCreated());
+    }
+
+    @Test
+    void testIdGeneratorIsMovedPastRowsWrittenWithIdentity() {
+        Long doctorId = newDoctor();
+        // A row inserted with an IDENTITY-era id far ahead of the generator
+        jdbcTemplate.update("INSERT INTO timeslot (id, doctor_id, start_at, end_at, status) VALUES (?, ?, ?, ?, 'AVAILABLE')",
+                100_000L, doctorId, LocalDateTime.now(), LocalDateTime.now().plusMinutes(30));
+
+        timeSlotRepository.alignIdGenerator();
+        Long nextValue = jdbcTemplate.queryForObject("SELECT next_val FROM id_generator WHERE gen_name = 'timeslot'", Long.class);
+        assertTrue(nextValue > 100_000L + TimeSlot.ID_ALLOCATION_SIZE);
+
+        // Running it again never moves the generator backwards
+        timeSlotRepository.alignIdGenerator();
+        assertEquals(nextValue, jdbcTemplate.queryForObject("SELECT next_val FROM id_generator WHERE gen_name = 'timeslot'", Long.class));
+    }
+
+    private Long newDoctor() {
+        return doctorRepository.save(Doctor.builder().name("Dr. Template").specialty("General").build()).getId();
+    }
+
+    private int weekdaysUntil(int horizonDays) {
+        int count = 0;
+        for (LocalDate day = LocalDate.now().plusDays(1); !day.isAfter(LocalDate.now().plusDays(horizonDays)); day = day.plusDays(1)) {
+            if (day.getDayOfWeek() != DayOfWeek.SATURDAY && day.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,88 @@
+package fact.it.doctorservice;
+
+import fact.it.doctorservice.dto.TimeSlotDto;
+import fact.it.doctorservice.model.Doctor;
+import fact.it.doctorservice.model.TimeSlot;
+import fact.it.doctorservice.model.TimeSlotStatus;
+import fact.it.doctorservice.service.TimeSlotAvailabilityIndex;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeSlotAvailabilityIndexTest {
+
+    private static final LocalDateTime MONDAY_9 = LocalDateTime.of(2030, 1, 7, 9, 0);
+
+    private final TimeSlotAvailabilityIndex index = new TimeSlotAvailabilityIndex();
+
+    @Test
+    void testRangeQueryMatchesRepositoryBounds() {
+        index.rebuild(List.of(
+                slot(3L, 1L, MONDAY_9.plusMinutes(60)),
+                slot(1L, 1L, MONDAY_9),
+                slot(2L, 1L, MONDAY_9.plusMinutes(30)),
+                slot(4L, 1L, MONDAY_9.plusDays(1)),
+                slot(5L, 2L, MONDAY_9)));
+
+        // Both ends inclusive, like findByDoctorIdAndStartAtBetween
+        List<TimeSlotDto> out = index.findBetween(1L, MONDAY_9.plusMinutes(30), MONDAY_9.plusDays(1));
+
+        assertEquals(List.of(2L, 3L, 4L), out.stream().map(TimeSlotDto::getId).toList());
+        assertEquals(1L, out.get(0).getDoctorId());
+        assertEquals(MONDAY_9.plusMinutes(60), out.get(0).getEndAt());
+        assertEquals(List.of(1L, 2L, 3L, 4L), index.find(1L).stream().map(TimeSlotDto::getId).toList());
+        assertTrue(index.find(99L).isEmpty());
+        assertTrue(index.findBetween(1L, MONDAY_9.plusDays(2), MONDAY_9.plusDays(3)).isEmpty());
+        assertEquals(2L, index.doctorOf(5L));
+        assertNull(index.doctorOf(99L));
+    }
+
+    @Test
+    void testStatusUpdatesAreVisibleToReaders() {
+        index.rebuild(List.of(slot(1L, 1L, MONDAY_9), slot(2L, 1L, MONDAY_9.plusMinutes(30))));
+
+        index.updateStatus(1L, TimeSlotStatus.HELD);
+        index.updateStatus(2L, TimeSlotStatus.RESERVED);
+        index.updateStatus(404L, TimeSlotStatus.RESERVED);
+
+        assertEquals(List.of("HELD", "RESERVED"), index.find(1L).stream().map(TimeSlotDto::getStatus).toList());
+    }
+
+    @Test
+    void testAddMergesIntoExistingDay() {
+        index.rebuild(List.of(slot(1L, 1L, MONDAY_9)));
+        assertTrue(index.isReady());
+
+        index.add(List.of(slot(2L, 1L, MONDAY_9.minusMinutes(30))));
+
+        assertEquals(List.of(2L, 1L), index.find(1L).stream().map(TimeSlotDto::getId).toList());
+    }
+
+    @Test
+    void testWritesDuringLoadAreReplayedOverSnapshot() {
+        // The snapshot was read before slot 1 was held and slot 2 was created
+        List<TimeSlot> snapshot = List.of(slot(1L, 1L, MONDAY_9));
+        index.updateStatus(1L, TimeSlotStatus.HELD);
+        index.add(List.of(slot(2L, 1L, MONDAY_9.plusMinutes(30))));
+        assertFalse(index.isReady());
+
+        index.rebuild(snapshot);
+
+        List<TimeSlotDto> out = index.find(1L);
+        assertEquals(List.of(1L, 2L), out.stream().map(TimeSlotDto::getId).toList());
+        assertEquals("HELD", out.get(0).getStatus());
+    }
+
+    private TimeSlot slot(Long id, Long doctorId, LocalDateTime startAt) {
+        return TimeSlot.builder()
+                .id(id)
+                .doctor(Doctor.builder().id(doctorId).build())
+                .startAt(startAt)
+                .endAt(startAt.plusMinutes(30))
+                .status(TimeSlotStatus.AVAILABLE)
+                .build();
+    }
+}
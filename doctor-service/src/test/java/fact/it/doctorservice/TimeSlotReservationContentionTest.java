@@ -0,0 +1,163 @@
+package fact.it.doctorservice;
+
+import fact.it.doctorservice.model.Doctor;
+import fact.it.doctorservice.model.TimeSlot;
+import fact.it.doctorservice.model.TimeSlotStatus;
+import fact.it.doctorservice.repository.DoctorRepository;
+import fact.it.doctorservice.repository.TimeSlotRepository;
+import fact.it.doctorservice.service.DoctorService;
+import fact.it.doctorservice.service.HoldExpiryWheel;
+import fact.it.doctorservice.service.TimeSlotAvailabilityIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Many threads race for the same TimeSlot; the conditional UPDATE must produce exactly one winner.
+ * The throughput and double-booking comparison with the old read-check-write flow is opt-in:
+ * mvn test -Dloadtest=true -Dtest=TimeSlotReservationContentionTest
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:contention;LOCK_TIMEOUT=30000",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({DoctorService.class, HoldExpiryWheel.class, TimeSlotAvailabilityIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TimeSlotReservationContentionTest {
+
+    private static final int RACE_THREADS = 32;
+    private static final int THREADS = Integer.getInteger("loadtest.threads", 200);
+    private static final int SLOTS = Integer.getInteger("loadtest.slots", 20);
+
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private TimeSlotRepository timeSlotRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testExactlyOneWinnerPerSlot() throws Exception {
+        Round round = race(createSlots(1), RACE_THREADS, id -> doctorService.reserveSlot(id).isReserved());
+
+        assertEquals(1, round.winnersPerSlot[0]);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "loadtest", matches = "true")
+    void testCompareWithReadCheckWrite() throws Exception {
+        LongPredicate conditionalUpdate = id -> doctorService.reserveSlot(id).isReserved();
+
+        // The pre-change flow: findById, check in Java, save
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        LongPredicate readCheckWrite = id -> Boolean.TRUE.equals(tx.execute(status ->
+                timeSlotRepository.findById(id)
+                        .filter(slot -> slot.getStatus() == TimeSlotStatus.AVAILABLE)
+                        .map(slot -> {
+                            slot.setStatus(TimeSlotStatus.RESERVED);
+                            timeSlotRepository.save(slot);
+                            return true;
+                        })
+                        .orElse(false)));
+
+        // Warm up both paths so the measured rounds are comparable
+        race(createSlots(2), THREADS, conditionalUpdate);
+        race(createSlots(2), THREADS, readCheckWrite);
+
+        Round atomic = race(createSlots(SLOTS), THREADS, conditionalUpdate);
+        Round legacy = race(createSlots(SLOTS), THREADS, readCheckWrite);
+        System.out.println("[loadtest] conditional update: " + atomic);
+        System.out.println("[loadtest] read-check-write:   " + legacy);
+
+        for (int winners : atomic.winnersPerSlot) {
+            assertEquals(1, winners);
+        }
+    }
+
+    private List<Long> createSlots(int count) {
+        Doctor doctor = doctorRepository.save(Doctor.builder().name("Dr. Contention").specialty("Load").build());
+        LocalDateTime base = LocalDateTime.now().plusDays(1);
+        List<TimeSlot> slots = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            slots.add(TimeSlot.builder()
+                    .doctor(doctor)
+                    .startAt(base.plusMinutes(30L * i))
+                    .endAt(base.plusMinutes(30L * i + 30))
+                    .status(TimeSlotStatus.AVAILABLE)
+                    .build());
+        }
+        return timeSlotRepository.saveAll(slots).stream().map(TimeSlot::getId).toList();
+    }
+
+    private Round race(List<Long> slotIds, int threads, LongPredicate reserve) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        int[] winnersPerSlot = new int[slotIds.size()];
+        long start = System.nanoTime();
+        try {
+            for (int s = 0; s < slotIds.size(); s++) {
+                long id = slotIds.get(s);
+                CountDownLatch gate = new CountDownLatch(1);
+                AtomicInteger winners = new AtomicInteger();
+                List<Future<?>> attempts = new ArrayList<>(threads);
+                for (int t = 0; t < threads; t++) {
+                    attempts.add(pool.submit(() -> {
+                        gate.await();
+                        if (reserve.test(id)) {
+                            winners.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+                gate.countDown();
+                for (Future<?> attempt : attempts) {
+                    try {
+                        attempt.get(1, TimeUnit.MINUTES);
+                    } catch (ExecutionException e) {
+                        // optimistic failures in the legacy flow count as lost attempts
+                    }
+                }
+                winnersPerSlot[s] = winners.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return new Round(threads, System.nanoTime() - start, winnersPerSlot);
+    }
+
+    private record Round(int threads, long elapsedNanos, int[] winnersPerSlot) {
+        @Override
+        public String toString() {
+            int doubleBooked = 0;
+            for (int winners : winnersPerSlot) {
+                if (winners > 1) {
+                    doubleBooked++;
+                }
+            }
+            return String.format("%d threads x %d slots, %.0f attempts/s, %d of %d slots double-booked",
+                    threads, winnersPerSlot.length, threads * winnersPerSlot.length / (elapsedNanos / 1_000_000_000.0),
+                    doubleBooked, winnersPerSlot.length);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package fact.it.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fact.it.appointmentservice.dto.AppointmentRequest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives POST /api/appointment against in-process appointment- and doctor-service and reports
+ * throughput, tail latency, error rate and any double booking seen by the clients or left in the databases.
+ * Run with: mvn compile exec:java -Dloadtest.requests=5000 -Dloadtest.concurrency=200 [-Dloadtest.rate=500] [-Dloadtest.slow=true]
+ */
+public class BookingLoadTest {
+
+    private static final String BOOKED = "Appointment booked successfully";
+    private static final String REJECTED = "Appointment booking failed";
+
+    private final LoadTestSettings settings;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final URI bookingUri;
+
+    BookingLoadTest(LoadTestSettings settings, int appointmentPort) {
+        this.settings = settings;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+                    Thread thread = new Thread(runnable, "loadtest-client");
+                    thread.setDaemon(true);
+                    return thread;
+                }))
+                .build();
+        this.bookingUri = URI.create("http://127.0.0.1:" + appointmentPort + "/api/appointment");
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        System.out.println("[loadtest] " + settings);
+
+        try (ServiceStack stack = new ServiceStack(settings)) {
+            List<ServiceStack.Slot> slots = new ArrayList<>(stack.seedSlots(settings.doctors()));
+            Collections.shuffle(slots, ThreadLocalRandom.current());
+            if (slots.size() <= settings.warmup()) {
+                throw new IllegalStateException("Only " + slots.size() + " slots generated; raise loadtest.doctors");
+            }
+            // Warmup books its own slots, so it never steals from or collides with the measured run
+            List<ServiceStack.Slot> warmupSlots = slots.subList(0, settings.warmup());
+            List<ServiceStack.Slot> measuredSlots = slots.subList(settings.warmup(),
+                    settings.slots() > 0 ? Math.min(slots.size(), settings.warmup() + settings.slots()) : slots.size());
+            System.out.printf("[loadtest] %d slots for %d doctors, measured run books from %d of them%n",
+                    slots.size(), settings.doctors(), measuredSlots.size());
+
+            BookingLoadTest loadTest = new BookingLoadTest(settings, stack.appointmentPort());
+            loadTest.run(settings.warmup(), i -> warmupSlots.get(i), 0);
+            LoadResult result = loadTest.run(settings.requests(),
+                    i -> measuredSlots.get(ThreadLocalRandom.current().nextInt(measuredSlots.size())), settings.rate());
+
+            ServiceStack.Consistency consistency = stack.checkConsistency();
+            System.out.println("[loadtest] results\n" + result.report());
+            System.out.printf("[loadtest] databases: duplicate appointments=%d, appointments without reservation=%d, "
+                            + "reservations without appointment=%d, slots still held=%d%n",
+                    consistency.duplicateAppointments(), consistency.appointmentsWithoutReservation(),
+                    consistency.reservationsWithoutAppointment(), consistency.slotsStillHeld());
+
+            if (result.doubleBookedSlots() > 0 || consistency.duplicateAppointments() > 0) {
+                throw new IllegalStateException("Double booking detected");
+            }
+        }
+    }
+
+    interface SlotPicker {
+        ServiceStack.Slot pick(int request);
+    }
+
+    // rate > 0 is an open model: requests are due on a fixed schedule and latency is measured from when they were due,
+    // so time spent waiting for a free concurrency permit counts too (no coordinated omission).
+    // rate == 0 is a closed model: each of `concurrency` clients sends again as soon as its last call returns.
+    LoadResult run(int requests, SlotPicker slots, int rate) throws InterruptedException {
+        LoadResult result = new LoadResult(requests);
+        Semaphore inFlight = new Semaphore(settings.concurrency());
+        CountDownLatch done = new CountDownLatch(requests);
+        long interval = rate > 0 ? TimeUnit.SECONDS.toNanos(1) / rate : 0;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            long due = start + i * interval;
+            if (rate > 0) {
+                for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            inFlight.acquire();
+            long sent = rate > 0 ? due : System.nanoTime();
+            ServiceStack.Slot slot = slots.pick(i);
+            book(i, slot).whenComplete((response, error) -> {
+                long latency = System.nanoTime() - sent;
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    result.record(slot.id(), latency, LoadResult.Outcome.ERROR, cause.getClass().getSimpleName());
+                } else if (response.statusCode() != 200) {
+                    result.record(slot.id(), latency, LoadResult.Outcome.ERROR, "HTTP " + response.statusCode());
+                } else if (BOOKED.equals(response.body())) {
+                    result.record(slot.id(), latency, LoadResult.Outcome.BOOKED, null);
+                } else if (REJECTED.equals(response.body())) {
+                    result.record(slot.id(), latency, LoadResult.Outcome.REJECTED, null);
+                } else {
+                    result.record(slot.id(), latency, LoadResult.Outcome.ERROR, "unexpected body");
+                }
+                inFlight.release();
+                done.countDown();
+            });
+        }
+        if (!done.await(settings.timeoutSeconds() + requests / Math.max(rate, 1L), TimeUnit.SECONDS)) {
+            System.out.println("[loadtest] timed out waiting for " + done.getCount() + " requests");
+        }
+        result.finish(System.nanoTime() - start);
+        return result;
+    }
+
+    private CompletableFuture<HttpResponse<String>> book(int i, ServiceStack.Slot slot) {
+        AppointmentRequest request = new AppointmentRequest(
+                "LT" + (i % settings.patients()), slot.doctorId(), slot.id(), "load test");
+        try {
+            return httpClient.sendAsync(HttpRequest.newBuilder(bookingUri)
+                            .timeout(Duration.ofSeconds(settings.timeoutSeconds()))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(request)))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
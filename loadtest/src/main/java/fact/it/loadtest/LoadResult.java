@@ -0,0 +1,116 @@
+package fact.it.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Outcome and latency of every measured request; latencies are kept raw so percentiles are exact
+class LoadResult {
+
+    // OK is a success that is not a booking (PatientLoadTest)
+    enum Outcome { OK, BOOKED, REJECTED, ERROR }
+
+    private final AtomicLongArray latencies;
+    private final AtomicInteger recorded = new AtomicInteger();
+    private final AtomicInteger booked = new AtomicInteger();
+    private final AtomicInteger rejected = new AtomicInteger();
+    private final ConcurrentMap<String, AtomicInteger> errors = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, AtomicInteger> bookingsPerSlot = new ConcurrentHashMap<>();
+    private long elapsedNanos;
+
+    LoadResult(int requests) {
+        this.latencies = new AtomicLongArray(requests);
+    }
+
+    void record(long timeslotId, long latencyNanos, Outcome outcome, String error) {
+        latencies.set(recorded.getAndIncrement(), latencyNanos);
+        switch (outcome) {
+            case OK -> {
+            }
+            case BOOKED -> {
+                booked.incrementAndGet();
+                bookingsPerSlot.computeIfAbsent(timeslotId, id -> new AtomicInteger()).incrementAndGet();
+            }
+            case REJECTED -> rejected.incrementAndGet();
+            case ERROR -> errors.computeIfAbsent(error, e -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    // Slots that more than one client was told it had booked
+    int doubleBookedSlots() {
+        return (int) bookingsPerSlot.values().stream().filter(count -> count.get() > 1).count();
+    }
+
+    int booked() {
+        return booked.get();
+    }
+
+    double throughput() {
+        return recorded.get() / (elapsedNanos / 1e9);
+    }
+
+    double percentileMs(double p) {
+        return percentile(sortedLatencies(), p);
+    }
+
+    int errors() {
+        return errors.values().stream().mapToInt(AtomicInteger::get).sum();
+    }
+
+    // Throughput, latency and errors: the part of the report that applies to any endpoint
+    String summary() {
+        int count = recorded.get();
+        long[] sorted = sortedLatencies();
+        int errorCount = errors();
+        Map<String, Integer> errorBreakdown = new TreeMap<>();
+        errors.forEach((error, n) -> errorBreakdown.put(error, n.get()));
+
+        return String.format("""
+                        completed   %d in %.2f s
+                        throughput  %.1f req/s
+                        latency     p50=%.1f ms  p99=%.1f ms  p999=%.1f ms  max=%.1f ms
+                        errors      %d (%.2f%%) %s""",
+                count, elapsedNanos / 1e9,
+                throughput(),
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                count == 0 ? 0 : sorted[count - 1] / 1e6,
+                errorCount, count == 0 ? 0 : 100.0 * errorCount / count, errorBreakdown.isEmpty() ? "" : errorBreakdown);
+    }
+
+    String report() {
+        return summary() + String.format("""
+
+                        booked      %d
+                        rejected    %d (slot already taken)
+                        double-booked slots (client view) %d""",
+                booked.get(),
+                rejected.get(),
+                doubleBookedSlots());
+    }
+
+    private long[] sortedLatencies() {
+        int count = recorded.get();
+        long[] sorted = new long[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = latencies.get(i);
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+}
@@ -0,0 +1,43 @@
+package fact.it.loadtest;
+
+// Knobs for one run, read from -Dloadtest.* system properties
+record LoadTestSettings(
+        int requests,
+        int warmup,
+        int concurrency,
+        int rate,
+        int doctors,
+        int patients,
+        int slots,
+        boolean reactive,
+        int patientDelayMs,
+        int doctorDelayMs,
+        int timeoutSeconds) {
+
+    static LoadTestSettings fromSystemProperties() {
+        // Slow mode makes both downstreams answer late: the stub without holding a thread, doctor-service on its Tomcat threads
+        boolean slow = Boolean.getBoolean("loadtest.slow");
+        return new LoadTestSettings(
+                Integer.getInteger("loadtest.requests", 5000),
+                Integer.getInteger("loadtest.warmup", 500),
+                Integer.getInteger("loadtest.concurrency", 200),
+                // requests per second; 0 runs closed-loop, each worker sending its next request when the last one returns
+                Integer.getInteger("loadtest.rate", 0),
+                Integer.getInteger("loadtest.doctors", 10),
+                Integer.getInteger("loadtest.patients", 1000),
+                // 0 books across every generated slot; fewer slots than requests forces competing bookings
+                Integer.getInteger("loadtest.slots", 0),
+                Boolean.parseBoolean(System.getProperty("loadtest.reactive", "true")),
+                Integer.getInteger("loadtest.patientDelayMs", slow ? 50 : 0),
+                Integer.getInteger("loadtest.doctorDelayMs", slow ? 100 : 0),
+                Integer.getInteger("loadtest.timeoutSeconds", 30));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("requests=%d (+%d warmup), concurrency=%d, rate=%s, doctors=%d, patients=%d, slots=%s, "
+                        + "booking=%s, patient delay=%d ms, doctor delay=%d ms",
+                requests, warmup, concurrency, rate > 0 ? rate + "/s" : "closed-loop", doctors, patients,
+                slots > 0 ? String.valueOf(slots) : "all", reactive ? "reactive" : "blocking", patientDelayMs, doctorDelayMs);
+    }
+}
@@ -0,0 +1,162 @@
+package fact.it.loadtest;
+
+import fact.it.patientservice.PatientServiceApplication;
+import fact.it.patientservice.model.Patient;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Boots patient-service in its default blocking mode and then in its reactive mode against the same Mongo
+ * and the same seeded patients, drives GET /api/patient?nationalId= closed-loop at the same concurrency,
+ * and prints throughput and tail latency side by side. Needs a reachable mongod.
+ * Run with: mvn compile exec:java -Dexec.mainClass=fact.it.loadtest.PatientLoadTest -Dloadtest.concurrency=500
+ * [-Dloadtest.mongoUri=mongodb://localhost:27017/patient-loadtest] [-Dloadtest.patients=10000] [-Dloadtest.requests=20000]
+ */
+public class PatientLoadTest {
+
+    private static final String REACTIVE_MONGO_AUTOCONFIG = String.join(",",
+            "org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.mongo.MongoReactiveRepositoriesAutoConfiguration");
+
+    private final int concurrency;
+    private final int timeoutSeconds;
+    private final int patients;
+    private final HttpClient httpClient;
+
+    PatientLoadTest(int concurrency, int timeoutSeconds, int patients) {
+        this.concurrency = concurrency;
+        this.timeoutSeconds = timeoutSeconds;
+        this.patients = patients;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+                    Thread thread = new Thread(runnable, "loadtest-client");
+                    thread.setDaemon(true);
+                    return thread;
+                }))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String mongoUri = System.getProperty("loadtest.mongoUri", "mongodb://localhost:27017/patient-loadtest");
+        int requests = Integer.getInteger("loadtest.requests", 20000);
+        int warmup = Integer.getInteger("loadtest.warmup", 2000);
+        int concurrency = Integer.getInteger("loadtest.concurrency", 500);
+        int patients = Integer.getInteger("loadtest.patients", 10000);
+        int timeoutSeconds = Integer.getInteger("loadtest.timeoutSeconds", 30);
+        System.out.printf("[loadtest] patient-service GET by nationalId: requests=%d (+%d warmup), concurrency=%d, patients=%d, mongo=%s%n",
+                requests, warmup, concurrency, patients, mongoUri);
+
+        PatientLoadTest loadTest = new PatientLoadTest(concurrency, timeoutSeconds, patients);
+        Map<String, LoadResult> results = new LinkedHashMap<>();
+        boolean seeded = false;
+        for (boolean reactive : new boolean[]{false, true}) {
+            String mode = reactive ? "reactive" : "blocking";
+            try (ConfigurableApplicationContext patientService = boot(reactive, mongoUri)) {
+                if (!seeded) {
+                    seed(patientService.getBean(MongoTemplate.class), patients);
+                    seeded = true;
+                }
+                int port = ((WebServerApplicationContext) patientService).getWebServer().getPort();
+                loadTest.run(port, warmup);
+                LoadResult result = loadTest.run(port, requests);
+                System.out.println("[loadtest] " + mode + "\n" + result.summary());
+                results.put(mode, result);
+            }
+        }
+
+        System.out.println("[loadtest] mode       throughput     p50        p99        p999       errors");
+        results.forEach((mode, result) -> System.out.printf("[loadtest] %-10s %8.1f/s %7.1f ms %7.1f ms %7.1f ms %8d%n",
+                mode, result.throughput(), result.percentileMs(0.50), result.percentileMs(0.99), result.percentileMs(0.999),
+                result.errors()));
+    }
+
+    // The same properties the "reactive" profile sets, since patient-service's resources are not on this classpath
+    private static ConfigurableApplicationContext boot(boolean reactive, String mongoUri) {
+        return new SpringApplicationBuilder(PatientServiceApplication.class)
+                .web(reactive ? WebApplicationType.REACTIVE : WebApplicationType.SERVLET)
+                .properties(
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.data.mongodb.uri=" + mongoUri,
+                        "patient.invalidation.subscribers=",
+                        "spring.autoconfigure.exclude=" + (reactive ? "" : REACTIVE_MONGO_AUTOCONFIG))
+                .run();
+    }
+
+    // Clears documents but keeps the collection, so the indexes created at startup stay in place
+    private static void seed(MongoTemplate mongoTemplate, int patients) {
+        mongoTemplate.remove(new Query(), Patient.class);
+        for (int from = 0; from < patients; from += 1000) {
+            List<Patient> batch = new ArrayList<>(IntStream.range(from, Math.min(from + 1000, patients))
+                    .mapToObj(i -> Patient.builder()
+                            .nationalId("LT" + i)
+                            .firstName("Load")
+                            .lastName("Test " + i)
+                            .email("lt" + i + "@loadtest.local")
+                            .phone("+32000000000")
+                            .build())
+                    .toList());
+            mongoTemplate.insertAll(batch);
+        }
+    }
+
+    // Closed model: `concurrency` clients, each sending its next lookup as soon as the last one returns
+    LoadResult run(int port, int requests) throws InterruptedException {
+        LoadResult result = new LoadResult(requests);
+        Semaphore inFlight = new Semaphore(concurrency);
+        CountDownLatch done = new CountDownLatch(requests);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            long sent = System.nanoTime();
+            URI uri = URI.create("http://127.0.0.1:" + port + "/api/patient?nationalId=LT"
+                    + ThreadLocalRandom.current().nextInt(patients));
+            httpClient.sendAsync(HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(timeoutSeconds)).GET().build(),
+                            HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> {
+                        long latency = System.nanoTime() - sent;
+                        if (error != null) {
+                            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                            result.record(0, latency, LoadResult.Outcome.ERROR, cause.getClass().getSimpleName());
+                        } else if (response.statusCode() != 200 || response.body().isEmpty()) {
+                            result.record(0, latency, LoadResult.Outcome.ERROR, "HTTP " + response.statusCode());
+                        } else {
+                            result.record(0, latency, LoadResult.Outcome.OK, null);
+                        }
+                        inFlight.release();
+                        done.countDown();
+                    });
+        }
+        if (!done.await(timeoutSeconds + requests / 100L, TimeUnit.SECONDS)) {
+            System.out.println("[loadtest] timed out waiting for " + done.getCount() + " requests");
+        }
+        result.finish(System.nanoTime() - start);
+        return result;
+    }
+}
@@ -0,0 +1,80 @@
+package fact.it.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.time.Duration;
+
+// Stands in for patient-service: every national ID is a known patient.
+// Non-blocking, so injected latency never turns the stub itself into the bottleneck.
+class PatientServiceStub implements AutoCloseable {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Duration delay;
+    private final DisposableServer server;
+
+    PatientServiceStub(int delayMs) {
+        this.delay = Duration.ofMillis(delayMs);
+        this.server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes
+                        .get("/api/patient", (req, res) ->
+                                respond(res, patient(queryParam(req.uri(), "nationalId")).toString()))
+                        .post("/api/patient/lookup", (req, res) -> req.receive().aggregate().asString()
+                                .flatMap(body -> respond(res, lookup(body)))))
+                .bindNow();
+    }
+
+    int port() {
+        return server.port();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private Mono<Void> respond(HttpServerResponse response, String body) {
+        Mono<Void> send = response.header("Content-Type", "application/json").sendString(Mono.just(body)).then();
+        return delay.isZero() ? send : Mono.delay(delay).then(send);
+    }
+
+    private String lookup(String body) {
+        try {
+            ArrayNode patients = objectMapper.createArrayNode();
+            for (JsonNode nationalId : objectMapper.readTree(body).path("nationalIds")) {
+                patients.add(patient(nationalId.asText()));
+            }
+            return patients.toString();
+        } catch (Exception e) {
+            return "[]";
+        }
+    }
+
+    private ObjectNode patient(String nationalId) {
+        return objectMapper.createObjectNode()
+                .put("id", "pat-" + nationalId)
+                .put("nationalId", nationalId)
+                .put("firstName", "Load")
+                .put("lastName", "Test")
+                .put("email", nationalId + "@loadtest.local")
+                .put("phone", "+32000000000");
+    }
+
+    private static String queryParam(String uri, String name) {
+        String query = uri.substring(uri.indexOf('?') + 1);
+        for (String pair : query.split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return pair.substring(name.length() + 1);
+            }
+        }
+        return "";
+    }
+}
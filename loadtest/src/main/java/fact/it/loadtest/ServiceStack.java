@@ -0,0 +1,151 @@
+package fact.it.loadtest;
+
+import fact.it.appointmentservice.AppointmentServiceApplication;
+import fact.it.doctorservice.DoctorServiceApplication;
+import fact.it.doctorservice.dto.ScheduleTemplateRequest;
+import fact.it.doctorservice.model.Doctor;
+import fact.it.doctorservice.repository.DoctorRepository;
+import fact.it.doctorservice.service.ScheduleService;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// doctor-service and appointment-service booted in this JVM on in-memory H2, wired to the patient-service stub
+class ServiceStack implements AutoCloseable {
+
+    record Slot(long id, long doctorId) {
+    }
+
+    record Consistency(int duplicateAppointments, int appointmentsWithoutReservation, int reservationsWithoutAppointment, int slotsStillHeld) {
+    }
+
+    private final PatientServiceStub patientService;
+    private final ConfigurableApplicationContext doctorService;
+    private final ConfigurableApplicationContext appointmentService;
+
+    ServiceStack(LoadTestSettings settings) {
+        patientService = new PatientServiceStub(settings.patientDelayMs());
+        doctorService = new SpringApplicationBuilder(DoctorServiceApplication.class)
+                .initializers(context -> {
+                    if (settings.doctorDelayMs() > 0) {
+                        ((GenericApplicationContext) context).registerBean("injectedLatency", Filter.class,
+                                () -> latencyFilter(settings.doctorDelayMs()));
+                    }
+                })
+                .properties(commonProperties("doctor"))
+                .properties(
+                        "timeslot.hold.ttl=2m",
+                        "timeslot.generation.horizon-days=90",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=500",
+                        "spring.jpa.properties.hibernate.order_inserts=true")
+                .run();
+        appointmentService = new SpringApplicationBuilder(AppointmentServiceApplication.class)
+                .properties(commonProperties("appointment"))
+                .properties(
+                        "appointment.booking.reactive=" + settings.reactive(),
+                        "appointment.stream.fetch-size=500",
+                        "downstream.patient-service.base-url=127.0.0.1:" + patientService.port(),
+                        "downstream.doctor-service.base-url=127.0.0.1:" + port(doctorService),
+                        // Room for the whole run: this harness measures the booking path, not load shedding
+                        "downstream.patient-service.max-concurrent-calls=" + Math.max(200, settings.concurrency()),
+                        "downstream.doctor-service.max-concurrent-calls=" + Math.max(500, settings.concurrency()),
+                        "downstream.doctor-service.pending-acquire-max-count=" + Math.max(2000, settings.concurrency() * 4),
+                        "downstream.patient-service.response-timeout=" + (settings.patientDelayMs() + 5000) + "ms",
+                        "downstream.doctor-service.response-timeout=" + (settings.doctorDelayMs() + 5000) + "ms",
+                        "downstream.patient-service.slow-call-threshold=" + (settings.patientDelayMs() + 5000) + "ms",
+                        "downstream.doctor-service.slow-call-threshold=" + (settings.doctorDelayMs() + 5000) + "ms",
+                        // a rejected patient lookup is already counted as an error; skip Caffeine's stack trace per failed load
+                        "logging.level.com.github.benmanes.caffeine=ERROR")
+                .run();
+    }
+
+    int appointmentPort() {
+        return port(appointmentService);
+    }
+
+    // Weekday 08:00-18:00 calendars in 30 minute slots over the whole generation horizon
+    List<Slot> seedSlots(int doctors) {
+        DoctorRepository doctorRepository = doctorService.getBean(DoctorRepository.class);
+        ScheduleService scheduleService = doctorService.getBean(ScheduleService.class);
+        ScheduleTemplateRequest weekdays = ScheduleTemplateRequest.builder()
+                .days(List.copyOf(EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY)))
+                .startTime(LocalTime.of(8, 0))
+                .endTime(LocalTime.of(18, 0))
+                .slotMinutes(30)
+                .build();
+        for (int d = 0; d < doctors; d++) {
+            Doctor doctor = doctorRepository.save(Doctor.builder().name("Dr. Load " + d).specialty("General").build());
+            scheduleService.addTemplates(doctor.getId(), weekdays);
+        }
+        return doctorService.getBean(JdbcTemplate.class).query(
+                "SELECT id, doctor_id FROM timeslot WHERE status = 'AVAILABLE' ORDER BY id",
+                (rs, i) -> new Slot(rs.getLong(1), rs.getLong(2)));
+    }
+
+    // Cross-checks both databases once the run has drained
+    Consistency checkConsistency() {
+        JdbcTemplate appointments = appointmentService.getBean(JdbcTemplate.class);
+        JdbcTemplate timeslots = doctorService.getBean(JdbcTemplate.class);
+
+        int duplicates = appointments.queryForList(
+                "SELECT timeslot_id FROM appointment GROUP BY timeslot_id HAVING COUNT(*) > 1", Long.class).size();
+        Set<Long> booked = new HashSet<>(appointments.queryForList("SELECT timeslot_id FROM appointment", Long.class));
+        Set<Long> reserved = new HashSet<>(timeslots.queryForList("SELECT id FROM timeslot WHERE status = 'RESERVED'", Long.class));
+        Integer held = timeslots.queryForObject("SELECT COUNT(*) FROM timeslot WHERE status = 'HELD'", Integer.class);
+
+        int withoutReservation = (int) booked.stream().filter(id -> !reserved.contains(id)).count();
+        int withoutAppointment = (int) reserved.stream().filter(id -> !booked.contains(id)).count();
+        return new Consistency(duplicates, withoutReservation, withoutAppointment, held == null ? 0 : held);
+    }
+
+    @Override
+    public void close() {
+        appointmentService.close();
+        doctorService.close();
+        patientService.close();
+    }
+
+    private static String[] commonProperties(String database) {
+        return new String[]{
+                "server.port=0",
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN",
+                "spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                // Mongo is on this classpath for PatientLoadTest; these two services are JPA only
+                "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration,"
+                        + "org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration,"
+                        + "org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration,"
+                        + "org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration"
+        };
+    }
+
+    private static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    // Holds the Tomcat thread like a slow database or GC pause would, on the time slot endpoints only
+    private static Filter latencyFilter(int delayMs) {
+        return (request, response, chain) -> {
+            if (((HttpServletRequest) request).getRequestURI().startsWith("/api/timeslot")) {
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            chain.doFilter(request, response);
+        };
+    }
+}
@@ -2,8 +2,10 @@ package fact.it.patientservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableAsync;
 
 @SpringBootApplication
+@EnableAsync
 public class PatientServiceApplication {
 
     public static void main(String[] args) {
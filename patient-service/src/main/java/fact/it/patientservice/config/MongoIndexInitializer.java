@@ -0,0 +1,48 @@
+package fact.it.patientservice.config;
+
+import fact.it.patientservice.model.Patient;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Creates the indexes declared with @Indexed on our documents before the web server accepts traffic.
+// Spring Data leaves auto index creation off, so without this every nationalId lookup is a collection scan.
+// createIndex is a no-op when the index already exists with the same definition.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "patient.indexes.create-on-startup", havingValue = "true", matchIfMissing = true)
+public class MongoIndexInitializer implements SmartInitializingSingleton {
+
+    static final List<Class<?>> DOCUMENTS = List.of(Patient.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        for (Class<?> document : DOCUMENTS) {
+            IndexOperations indexOps = mongoTemplate.indexOps(document);
+            for (IndexDefinition index : resolver.resolveIndexFor(document)) {
+                try {
+                    log.info("Ensured index {} on {}", indexOps.createIndex(index), mongoTemplate.getCollectionName(document));
+                } catch (DuplicateKeyException e) {
+                    // Existing duplicates block a unique index; keep serving (as before) until the data is cleaned up
+                    log.error("Could not create unique index {} on {}: the collection holds duplicate values. "
+                                    + "Remove the duplicates and restart to enforce it. {}",
+                            index.getIndexKeys().toJson(), mongoTemplate.getCollectionName(document), e.getMessage());
+                }
+            }
+        }
+    }
+}
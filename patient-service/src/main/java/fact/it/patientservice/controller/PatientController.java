@@ -1,26 +1,67 @@
 package fact.it.patientservice.controller;
 
 
+import fact.it.patientservice.dto.PatientImportResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import fact.it.patientservice.dto.PatientLookupRequest;
+import fact.it.patientservice.dto.PatientPageResponse;
 import fact.it.patientservice.dto.PatientRequest;
 import fact.it.patientservice.dto.PatientResponse;
+import fact.it.patientservice.dto.PatientSearchResponse;
+import fact.it.patientservice.service.PatientImportService;
+import fact.it.patientservice.service.PatientSearchIndex;
 import fact.it.patientservice.service.PatientService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/patient")
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class PatientController {
 
     private final PatientService patientService;
+    private final PatientImportService patientImportService;
+    private final PatientSearchIndex patientSearchIndex;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @ResponseStatus(HttpStatus.OK)
     public void createPatient(@RequestBody PatientRequest patientRequest) {
-        patientService.createPatient(patientRequest);
+        try {
+            patientService.createPatient(patientRequest);
+        } catch (DuplicateKeyException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Patient " + patientRequest.getNationalId() + " already exists");
+        }
+    }
+
+    // Bulk onboarding: NDJSON (one PatientRequest per line) or CSV with a header row, upserted by nationalId.
+    // The body is read as a stream, so files of any size are accepted.
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    @ResponseStatus(HttpStatus.OK)
+    public PatientImportResponse importPatients(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                InputStream body) throws IOException {
+        try {
+            return patientImportService.importPatients(body, contentType);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     @GetMapping
@@ -29,10 +70,55 @@ public class PatientController {
         return patientService.getByNationalId(nationalId);
     }
 
-    @GetMapping("/all")
+    // Whole collection streamed from a Mongo cursor: a JSON array by default, one patient per line
+    // with Accept: application/x-ndjson. `fields=firstName,lastName` limits what is read and sent.
+    @GetMapping(value = "/all", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> getAllPatients(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) List<MediaType> accept,
+            @RequestParam(required = false) List<String> fields) {
+        boolean ndjson = accept != null && accept.stream().anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+        return streamPatients(fields, ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON);
+    }
+
+    @GetMapping("/page")
+    @ResponseStatus(HttpStatus.OK)
+    public PatientPageResponse getPatientPage(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) List<String> fields) {
+        try {
+            return patientService.getPatientPage(after, limit, fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // Prefix and typo-tolerant search on first and last name, ranked and paged, served from memory
+    @GetMapping("/search")
+    @ResponseStatus(HttpStatus.OK)
+    public PatientSearchResponse searchPatients(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (!patientSearchIndex.isReady()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Patient search index is still loading");
+        }
+        try {
+            return patientSearchIndex.search(q, page, size);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // Batch resolution for downstream services: up to PatientService.MAX_LOOKUP_IDS IDs, answered in request order
+    @PostMapping("/lookup")
     @ResponseStatus(HttpStatus.OK)
-    public List<PatientResponse> getAllPatients() {
-        return patientService.getAllPatients();
+    public List<PatientResponse> lookupPatients(@RequestBody PatientLookupRequest request) {
+        try {
+            return patientService.lookupByNationalIds(request.getNationalIds());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     @PutMapping("/{nationalId}")
@@ -43,11 +129,62 @@ public class PatientController {
         return patientService.updatePatient(nationalId, patientRequest);
     }
 
+    // Partial update: only the fields present in the body are changed, in one atomic $set
+    @PatchMapping("/{nationalId}")
+    @ResponseStatus(HttpStatus.OK)
+    public boolean patchPatient(
+            @PathVariable String nationalId,
+            @RequestBody PatientRequest patientRequest) {
+        try {
+            return patientService.patchPatient(nationalId, patientRequest);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // ?returnPatient=true answers with the patient as stored after the update, or 404
+    @PatchMapping(value = "/{nationalId}", params = "returnPatient=true")
+    @ResponseStatus(HttpStatus.OK)
+    public PatientResponse patchAndReturnPatient(
+            @PathVariable String nationalId,
+            @RequestBody PatientRequest patientRequest) {
+        PatientResponse patched;
+        try {
+            patched = patientService.patchAndGetPatient(nationalId, patientRequest);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        if (patched == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Patient " + nationalId + " not found");
+        }
+        return patched;
+    }
+
     @DeleteMapping("/{nationalId}")
     @ResponseStatus(HttpStatus.OK)
     public boolean deletePatient(@PathVariable String nationalId) {
         return patientService.deleteByNationalId(nationalId);
     }
 
+    // The fields are validated and the cursor opened before the response is committed, so a bad request is still a 400
+    private ResponseEntity<StreamingResponseBody> streamPatients(List<String> fields, MediaType contentType) {
+        Stream<PatientResponse> patients;
+        try {
+            patients = patientService.streamPatients(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        boolean ndjson = MediaType.APPLICATION_NDJSON.equals(contentType);
+        StreamingResponseBody body = out -> {
+            try (patients; SequenceWriter writer = ndjson
+                    ? objectMapper.writer().withRootValueSeparator("\n").writeValues(out)
+                    : objectMapper.writer().writeValuesAsArray(out)) {
+                for (Iterator<PatientResponse> it = patients.iterator(); it.hasNext(); ) {
+                    writer.write(it.next());
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(contentType).body(body);
+    }
 
 }
@@ -0,0 +1,116 @@
+package fact.it.patientservice.controller;
+
+import fact.it.patientservice.dto.PatientLookupRequest;
+import fact.it.patientservice.dto.PatientPageResponse;
+import fact.it.patientservice.dto.PatientRequest;
+import fact.it.patientservice.dto.PatientResponse;
+import fact.it.patientservice.dto.PatientSearchResponse;
+import fact.it.patientservice.service.PatientSearchIndex;
+import fact.it.patientservice.service.ReactivePatientService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// PatientController's API on WebFlux, active in the "reactive" profile only
+@RestController
+@RequestMapping("/api/patient")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePatientController {
+
+    private final ReactivePatientService patientService;
+    private final PatientSearchIndex patientSearchIndex;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<Void> createPatient(@RequestBody PatientRequest patientRequest) {
+        return patientService.createPatient(patientRequest)
+                .onErrorMap(DuplicateKeyException.class, e -> new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Patient " + patientRequest.getNationalId() + " already exists"));
+    }
+
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<PatientResponse> getByNationalId(@RequestParam String nationalId) {
+        return patientService.getByNationalId(nationalId);
+    }
+
+    // A JSON array by default, one patient per line with Accept: application/x-ndjson; written as the cursor is read
+    @GetMapping(value = "/all", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<PatientResponse> getAllPatients(@RequestParam(required = false) List<String> fields) {
+        return patientService.streamPatients(fields);
+    }
+
+    @GetMapping("/page")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<PatientPageResponse> getPatientPage(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) List<String> fields) {
+        return patientService.getPatientPage(after, limit, fields);
+    }
+
+    // Answered from memory, so it runs inline on the event loop
+    @GetMapping("/search")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<PatientSearchResponse> searchPatients(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (!patientSearchIndex.isReady()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Patient search index is still loading"));
+        }
+        return Mono.fromSupplier(() -> patientSearchIndex.search(q, page, size));
+    }
+
+    @PostMapping("/lookup")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<List<PatientResponse>> lookupPatients(@RequestBody PatientLookupRequest request) {
+        return patientService.lookupByNationalIds(request.getNationalIds());
+    }
+
+    @PutMapping("/{nationalId}")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<Boolean> updatePatient(
+            @PathVariable String nationalId,
+            @RequestBody PatientRequest patientRequest) {
+        return patientService.updatePatient(nationalId, patientRequest);
+    }
+
+    @PatchMapping("/{nationalId}")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<Boolean> patchPatient(
+            @PathVariable String nationalId,
+            @RequestBody PatientRequest patientRequest) {
+        return patientService.patchPatient(nationalId, patientRequest);
+    }
+
+    @PatchMapping(value = "/{nationalId}", params = "returnPatient=true")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<PatientResponse> patchAndReturnPatient(
+            @PathVariable String nationalId,
+            @RequestBody PatientRequest patientRequest) {
+        return patientService.patchAndGetPatient(nationalId, patientRequest)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Patient " + nationalId + " not found")));
+    }
+
+    @DeleteMapping("/{nationalId}")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<Boolean> deletePatient(@PathVariable String nationalId) {
+        return patientService.deleteByNationalId(nationalId);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String badRequest(IllegalArgumentException e) {
+        return e.getMessage();
+    }
+}
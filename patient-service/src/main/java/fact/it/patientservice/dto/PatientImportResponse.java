@@ -0,0 +1,19 @@
+package fact.it.patientservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PatientImportResponse {
+    private long inserted;
+    private long updated;
+    private long failed;
+    private List<String> errors; // "line N: reason", capped so a bad file cannot blow up the response
+}
@@ -0,0 +1,18 @@
+package fact.it.patientservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PatientPageResponse {
+    private List<PatientResponse> patients;
+    // Pass as `after` to get the next page; null on the last page
+    private String nextCursor;
+}
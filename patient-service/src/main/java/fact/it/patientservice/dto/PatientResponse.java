@@ -1,5 +1,6 @@
 package fact.it.patientservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -9,6 +10,8 @@ import lombok.NoArgsConstructor;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
+// Fields left out by a `fields=` projection are omitted rather than sent as null
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PatientResponse {
     private String id;
     private String nationalId;
@@ -16,4 +19,6 @@ public class PatientResponse {
     private String lastName;
     private String email;
     private String phone;
+    // Only set by POST /api/patient/lookup, where unknown IDs come back as {nationalId, found: false}
+    private Boolean found;
 }
@@ -0,0 +1,19 @@
+package fact.it.patientservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PatientSearchResponse {
+    // Best match first; only id, nationalId, firstName and lastName are filled in
+    private List<PatientResponse> patients;
+    // Number of patients matching the query across all pages
+    private int total;
+}
@@ -0,0 +1,5 @@
+package fact.it.patientservice.event;
+
+// Published after a patient is updated or deleted so caches keyed by nationalId can drop it
+public record PatientChangedEvent(String nationalId) {
+}
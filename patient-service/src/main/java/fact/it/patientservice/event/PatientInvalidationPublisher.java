@@ -0,0 +1,39 @@
+package fact.it.patientservice.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.util.List;
+
+// Pushes invalidations to every service holding a patient near cache (appointment-service).
+// Runs async so a slow or unreachable subscriber never delays the update/delete itself;
+// a lost invalidation is bounded by the subscriber's cache TTL.
+@Slf4j
+@Component
+public class PatientInvalidationPublisher {
+
+    private final RestClient restClient = RestClient.create();
+
+    @Value("${patient.invalidation.subscribers:}")
+    private List<String> subscribers;
+
+    @Async
+    @EventListener
+    public void onPatientChanged(PatientChangedEvent event) {
+        for (String subscriber : subscribers) {
+            try {
+                restClient.delete()
+                        .uri("http://" + subscriber + "/api/cache/patient/{nationalId}", event.nationalId())
+                        .retrieve()
+                        .toBodilessEntity();
+            } catch (RestClientException e) {
+                log.warn("Could not invalidate patient {} at {}: {}", event.nationalId(), subscriber, e.getMessage());
+            }
+        }
+    }
+}
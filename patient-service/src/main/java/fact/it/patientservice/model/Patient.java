@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Data
@@ -13,6 +14,8 @@ import org.springframework.data.mongodb.core.mapping.Document;
 @Document(value = "patient")
 public class Patient {
     private String id;
+    // Every lookup, update and delete goes through nationalId; unique so a patient can only be registered once
+    @Indexed(unique = true)
     private String nationalId;
     private String firstName;
     private String lastName;
@@ -3,9 +3,12 @@ package fact.it.patientservice.repository;
 import fact.it.patientservice.model.Patient;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface PatientRepository extends MongoRepository<Patient, String> {
     Optional<Patient> findByNationalId(String nationalId);
+    List<Patient> findByNationalIdIn(Collection<String> nationalIds);
     long deleteByNationalId(String nationalId);
 }
@@ -0,0 +1,15 @@
+package fact.it.patientservice.repository;
+
+import fact.it.patientservice.model.Patient;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+// Same queries as PatientRepository on the reactive driver; only created in the reactive profile
+public interface ReactivePatientRepository extends ReactiveMongoRepository<Patient, String> {
+    Mono<Patient> findByNationalId(String nationalId);
+    Flux<Patient> findByNationalIdIn(Collection<String> nationalIds);
+    Mono<Long> deleteByNationalId(String nationalId);
+}
@@ -0,0 +1,268 @@
+package fact.it.patientservice.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import fact.it.patientservice.dto.PatientImportResponse;
+import fact.it.patientservice.dto.PatientRequest;
+import fact.it.patientservice.event.PatientChangedEvent;
+import fact.it.patientservice.model.Patient;
+import org.bson.BsonValue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+// Streams an NDJSON or CSV upload into Mongo: one line is parsed at a time and rows are upserted by nationalId
+// in unordered bulk writes of `batch-size`, so memory stays bounded by the batch whatever the file size.
+// A bad row is reported and skipped; it never aborts the rest of the import.
+@Service
+public class PatientImportService {
+
+    public static final MediaType NDJSON = MediaType.APPLICATION_NDJSON;
+    public static final MediaType CSV = new MediaType("text", "csv");
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PatientSearchIndex searchIndex;
+    private final ObjectReader jsonReader;
+    private final int batchSize;
+
+    public PatientImportService(MongoTemplate mongoTemplate,
+                                ApplicationEventPublisher eventPublisher,
+                                PatientSearchIndex searchIndex,
+                                ObjectMapper objectMapper,
+                                @Value("${patient.import.batch-size:1000}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+        this.searchIndex = searchIndex;
+        this.jsonReader = objectMapper.readerFor(PatientRequest.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.batchSize = batchSize;
+    }
+
+    public PatientImportResponse importPatients(InputStream body, MediaType contentType) throws IOException {
+        boolean csv = CSV.isCompatibleWith(contentType);
+        if (!csv && !NDJSON.isCompatibleWith(contentType)) {
+            throw new IllegalArgumentException("Unsupported import format " + contentType + ", use " + NDJSON + " or " + CSV);
+        }
+
+        ImportRun run = new ImportRun();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        Map<String, Row> batch = new LinkedHashMap<>();
+        CsvColumns columns = null;
+        int lineNumber = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (csv && columns == null) {
+                columns = CsvColumns.fromHeader(line);
+                continue;
+            }
+            try {
+                PatientRequest patient = csv ? columns.read(line) : jsonReader.readValue(line);
+                if (patient.getNationalId() == null || patient.getNationalId().isBlank()) {
+                    throw new IllegalArgumentException("nationalId is required");
+                }
+                // Repeats of a patient in one batch become a single upsert; the bulk result alone decides inserted vs updated
+                batch.merge(patient.getNationalId(), new Row(lineNumber, patient), Row::mergedWith);
+            } catch (Exception e) {
+                run.fail(lineNumber, e.getMessage());
+            }
+            if (batch.size() >= batchSize) {
+                write(batch.values(), run);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch.values(), run);
+        }
+        return run.toResponse();
+    }
+
+    private void write(Collection<Row> rows, ImportRun run) {
+        List<Row> ordered = new ArrayList<>(rows);
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Patient.class);
+        for (Row row : ordered) {
+            PatientRequest patient = row.patient();
+            bulk.upsert(query(where("nationalId").is(patient.getNationalId())), upsertOf(patient));
+        }
+
+        BulkWriteResult result;
+        Set<Integer> failed = new HashSet<>();
+        try {
+            result = bulk.execute();
+        } catch (BulkOperationException e) {
+            // Unordered: every other row in the batch was still written
+            result = e.getResult();
+            for (BulkWriteError error : e.getErrors()) {
+                failed.add(error.getIndex());
+                run.fail(ordered.get(error.getIndex()).lineNumber(), error.getMessage());
+            }
+        }
+
+        Map<Integer, String> inserted = result.getUpserts().stream()
+                .collect(Collectors.toMap(BulkWriteUpsert::getIndex, upsert -> idOf(upsert.getId())));
+        run.inserted += inserted.size();
+        run.updated += result.getMatchedCount();
+        for (int i = 0; i < ordered.size(); i++) {
+            if (failed.contains(i)) {
+                continue;
+            }
+            PatientRequest patient = ordered.get(i).patient();
+            if (inserted.containsKey(i)) {
+                searchIndex.put(inserted.get(i), patient.getNationalId(), patient.getFirstName(), patient.getLastName());
+            } else {
+                // Like the upsert, a missing name keeps the indexed one
+                searchIndex.updateNames(patient.getNationalId(), patient.getFirstName(), patient.getLastName());
+                // Existing patients changed: caches holding them must drop their copy
+                eventPublisher.publishEvent(new PatientChangedEvent(patient.getNationalId()));
+            }
+        }
+    }
+
+    // Only the fields the row has: an empty or missing column must not wipe what an existing patient already has.
+    // nationalId is always there, so the update is never empty.
+    private static Update upsertOf(PatientRequest patient) {
+        Update update = new Update().setOnInsert("nationalId", patient.getNationalId());
+        setIfPresent(update, "firstName", patient.getFirstName());
+        setIfPresent(update, "lastName", patient.getLastName());
+        setIfPresent(update, "email", patient.getEmail());
+        setIfPresent(update, "phone", patient.getPhone());
+        return update;
+    }
+
+    private static void setIfPresent(Update update, String field, String value) {
+        if (value != null) {
+            update.set(field, value);
+        }
+    }
+
+    private static String idOf(BsonValue id) {
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+
+    private record Row(int lineNumber, PatientRequest patient) {
+
+        // Fields the later row has overwrite the earlier ones, fields it leaves out are kept, like two upserts in a row
+        Row mergedWith(Row later) {
+            PatientRequest next = later.patient();
+            return new Row(later.lineNumber(), PatientRequest.builder()
+                    .nationalId(patient.getNationalId())
+                    .firstName(next.getFirstName() != null ? next.getFirstName() : patient.getFirstName())
+                    .lastName(next.getLastName() != null ? next.getLastName() : patient.getLastName())
+                    .email(next.getEmail() != null ? next.getEmail() : patient.getEmail())
+                    .phone(next.getPhone() != null ? next.getPhone() : patient.getPhone())
+                    .build());
+        }
+    }
+
+    private static final class ImportRun {
+        long inserted;
+        long updated;
+        long failed;
+        final List<String> errors = new ArrayList<>();
+
+        void fail(int lineNumber, String reason) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("line " + lineNumber + ": " + reason);
+            }
+        }
+
+        PatientImportResponse toResponse() {
+            return PatientImportResponse.builder()
+                    .inserted(inserted)
+                    .updated(updated)
+                    .failed(failed)
+                    .errors(errors)
+                    .build();
+        }
+    }
+
+    // Header-driven CSV: columns may come in any order, unknown columns are ignored.
+    // Fields may be quoted ("..."), with "" for a literal quote; a field cannot span lines.
+    private record CsvColumns(int nationalId, int firstName, int lastName, int email, int phone) {
+
+        static CsvColumns fromHeader(String header) {
+            List<String> names = split(header).stream().map(name -> name.trim().toLowerCase(Locale.ROOT)).toList();
+            if (!names.contains("nationalid")) {
+                throw new IllegalArgumentException("CSV header must contain a nationalId column");
+            }
+            return new CsvColumns(names.indexOf("nationalid"), names.indexOf("firstname"), names.indexOf("lastname"),
+                    names.indexOf("email"), names.indexOf("phone"));
+        }
+
+        PatientRequest read(String line) {
+            List<String> fields = split(line);
+            return PatientRequest.builder()
+                    .nationalId(field(fields, nationalId))
+                    .firstName(field(fields, firstName))
+                    .lastName(field(fields, lastName))
+                    .email(field(fields, email))
+                    .phone(field(fields, phone))
+                    .build();
+        }
+
+        private static String field(List<String> fields, int index) {
+            if (index < 0 || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("unterminated quoted field");
+            }
+            fields.add(current.toString());
+            return fields;
+        }
+    }
+}
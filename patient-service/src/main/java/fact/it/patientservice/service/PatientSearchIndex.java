@@ -0,0 +1,594 @@
+package fact.it.patientservice.service;
+
+import fact.it.patientservice.dto.PatientResponse;
+import fact.it.patientservice.dto.PatientSearchResponse;
+import fact.it.patientservice.model.Patient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// In-memory name index behind GET /api/patient/search. Names are split into normalized tokens (lowercase, no accents):
+// a sorted token map answers prefix queries, and a trigram map over the distinct tokens finds typo candidates,
+// which are confirmed with a bounded edit distance. Only the small token vocabulary is scanned for typos, never the patients.
+// Filled from Mongo at startup and kept current by the writes this instance serves; writes served by
+// another replica show up here after the next restart.
+@Slf4j
+@Component
+public class PatientSearchIndex {
+
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final int MIN_QUERY_LENGTH = 2;
+    private static final int LOAD_BATCH_SIZE = 10_000;
+
+    // A query term scores the best of its matches within a patient's names
+    private static final float EXACT = 1.0f;
+    private static final float PREFIX = 0.8f;
+    private static final float FUZZY = 0.6f;
+    private static final float FUZZY_PREFIX = 0.4f;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean loadOnStartup;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // ordinal -> entry; replaced and removed entries become null and are skipped until the next compaction
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final NavigableMap<String, IntList> postings = new TreeMap<>();
+    // token id -> token, and trigram -> ids of the tokens containing it
+    private final List<String> vocabulary = new ArrayList<>();
+    private final Map<String, IntList> trigrams = new HashMap<>();
+    // ordinal -> first four letters of the last name packed into a long, so ranking rarely has to touch the entries
+    private long[] lastNameKeys = new long[1024];
+    private final Set<String> removedWhileLoading = new HashSet<>();
+    private int dead;
+    private volatile boolean ready;
+
+    public PatientSearchIndex(MongoTemplate mongoTemplate,
+                              @Value("${patient.search.load-on-startup:true}") boolean loadOnStartup) {
+        this.mongoTemplate = mongoTemplate;
+        this.loadOnStartup = loadOnStartup;
+        this.ready = !loadOnStartup;
+    }
+
+    // False until the startup load has finished; searching a half-loaded index would silently miss patients
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!loadOnStartup) {
+            return;
+        }
+        long start = System.nanoTime();
+        Query query = new Query();
+        query.fields().include("nationalId", "firstName", "lastName");
+        query.cursorBatchSize(LOAD_BATCH_SIZE);
+        List<Patient> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+        try (Stream<Patient> patients = mongoTemplate.stream(query, Patient.class)) {
+            for (Iterator<Patient> it = patients.iterator(); it.hasNext(); ) {
+                batch.add(it.next());
+                if (batch.size() == LOAD_BATCH_SIZE || !it.hasNext()) {
+                    addLoaded(batch);
+                    batch.clear();
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Loading the patient search index failed, search stays unavailable: {}", e.getMessage());
+            return;
+        }
+        int loaded;
+        lock.writeLock().lock();
+        try {
+            removedWhileLoading.clear();
+            ready = true;
+            loaded = ordinals.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Patient search index loaded {} patients in {} ms", loaded, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void put(Patient patient) {
+        put(patient.getId(), patient.getNationalId(), patient.getFirstName(), patient.getLastName());
+    }
+
+    // A null id keeps the id already indexed for this nationalId (an upsert that matched an existing patient)
+    public void put(String id, String nationalId, String firstName, String lastName) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = ordinals.get(nationalId);
+            if (previous != null) {
+                if (id == null) {
+                    id = entries.get(previous).id();
+                }
+                kill(previous);
+            }
+            add(new Entry(id, nationalId, firstName, lastName));
+            removedWhileLoading.remove(nationalId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Partial update: null names keep their indexed value; unknown patients are left alone
+    public void updateNames(String nationalId, String firstName, String lastName) {
+        if (firstName == null && lastName == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Integer previous = ordinals.get(nationalId);
+            if (previous != null) {
+                Entry entry = entries.get(previous);
+                put(entry.id(), nationalId,
+                        firstName != null ? firstName : entry.firstName(),
+                        lastName != null ? lastName : entry.lastName());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String nationalId) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = ordinals.remove(nationalId);
+            if (previous != null) {
+                kill(previous);
+            }
+            if (!ready) {
+                removedWhileLoading.add(nationalId);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Every query term must match a first or last name by prefix or within 1 typo (2 from 8 letters on).
+    // Ranked by summed term score, then last name, first name and nationalId.
+    public PatientSearchResponse search(String q, int page, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (page < 0) {
+            throw new IllegalArgumentException("page must not be negative");
+        }
+        List<String> terms = new ArrayList<>(tokens(q));
+        if (terms.stream().mapToInt(String::length).sum() < MIN_QUERY_LENGTH) {
+            throw new IllegalArgumentException("q needs at least " + MIN_QUERY_LENGTH + " letters or digits");
+        }
+        // Longest term first: it is usually the most selective and shrinks the candidates for the rest
+        terms.sort(Comparator.comparingInt(String::length).reversed());
+
+        lock.readLock().lock();
+        try {
+            // Scores live in maps sized to the matches, never to the whole index; past the first term only
+            // the surviving candidates are scored, so each term can only shrink them
+            ScoreMap scores = null;
+            IntList matches = null;
+            for (String term : terms) {
+                ScoreMap termScores = new ScoreMap(scores == null ? prefixPostings(term) : matches.size);
+                IntList termMatches = scoreTerm(term, termScores, scores);
+                if (scores != null) {
+                    ScoreMap both = new ScoreMap(termMatches.size);
+                    for (int i = 0; i < termMatches.size; i++) {
+                        int ordinal = termMatches.values[i];
+                        both.raise(ordinal, scores.get(ordinal) + termScores.get(ordinal));
+                    }
+                    termScores = both;
+                }
+                scores = termScores;
+                matches = termMatches;
+                if (matches.size == 0) {
+                    break;
+                }
+            }
+            return PatientSearchResponse.builder()
+                    .patients(rank(scores, page, size))
+                    .total(matches.size)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokens(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(NON_WORD.split(normalized))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    // Upper bound on the prefix matches of a term, so its score map is sized once instead of grown
+    private int prefixPostings(String term) {
+        long total = 0;
+        for (IntList ordinalsOfToken : postings.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+            total += ordinalsOfToken.size;
+        }
+        return (int) Math.min(total, entries.size());
+    }
+
+    // With candidates, ordinals outside them are skipped
+    private IntList scoreTerm(String term, ScoreMap scores, ScoreMap candidates) {
+        IntList matches = new IntList();
+        for (Map.Entry<String, IntList> token : postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+            collect(token.getValue(), token.getKey().length() == term.length() ? EXACT : PREFIX, scores, candidates, matches);
+        }
+        int maxEdits = term.length() >= 8 ? 2 : term.length() >= 4 ? 1 : 0;
+        if (maxEdits > 0) {
+            for (String token : typoCandidates(term, maxEdits)) {
+                // Already matched by prefix, or too short to be within reach
+                if (token.startsWith(term) || token.length() < term.length() - maxEdits) {
+                    continue;
+                }
+                int[] distance = editDistance(term, token, maxEdits);
+                float score = distance[0] <= maxEdits ? FUZZY : distance[1] <= maxEdits ? FUZZY_PREFIX : 0;
+                if (score > 0) {
+                    collect(postings.get(token), score, scores, candidates, matches);
+                }
+            }
+        }
+        return matches;
+    }
+
+    private void collect(IntList ordinalsOfToken, float score, ScoreMap scores, ScoreMap candidates, IntList matches) {
+        for (int i = 0; i < ordinalsOfToken.size; i++) {
+            int ordinal = ordinalsOfToken.values[i];
+            if (entries.get(ordinal) == null || (candidates != null && candidates.get(ordinal) == 0)) {
+                continue;
+            }
+            if (scores.raise(ordinal, score)) {
+                matches.add(ordinal);
+            }
+        }
+    }
+
+    // Each edit breaks at most 3 trigrams, and matching only a prefix of the token loses the closing one
+    private List<String> typoCandidates(String term, int maxEdits) {
+        List<String> grams = trigramsOf(term);
+        int needed = Math.max(1, grams.size() - 3 * maxEdits - 1);
+        List<IntList> postings = new ArrayList<>(grams.size());
+        int visited = 0;
+        for (String gram : grams) {
+            IntList tokenIds = trigrams.get(gram);
+            if (tokenIds != null) {
+                postings.add(tokenIds);
+                visited += tokenIds.size;
+            }
+        }
+        // Sized to the posting lists it walks, not to the whole vocabulary
+        CountMap shared = new CountMap(visited);
+        List<String> candidates = new ArrayList<>();
+        for (IntList tokenIds : postings) {
+            for (int i = 0; i < tokenIds.size; i++) {
+                int tokenId = tokenIds.values[i];
+                if (shared.increment(tokenId) == needed) {
+                    candidates.add(vocabulary.get(tokenId));
+                }
+            }
+        }
+        return candidates;
+    }
+
+    // Optimal string alignment distance (a swap of neighbours counts as one edit) from term to the whole token,
+    // and to the closest prefix of the token. Keeps three rows only, and gives up with maxEdits + 1 as soon as
+    // two consecutive rows are over budget, since no later cell can get back under it.
+    static int[] editDistance(String term, String token, int maxEdits) {
+        int n = term.length();
+        int m = token.length();
+        int[] twoBack = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        int previousMin = 0;
+        for (int i = 1; i <= n; i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= m; j++) {
+                int cost = term.charAt(i - 1) == token.charAt(j - 1) ? 0 : 1;
+                int d = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && term.charAt(i - 1) == token.charAt(j - 2) && term.charAt(i - 2) == token.charAt(j - 1)) {
+                    d = Math.min(d, twoBack[j - 2] + 1);
+                }
+                current[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > maxEdits && previousMin > maxEdits) {
+                return new int[]{maxEdits + 1, maxEdits + 1};
+            }
+            previousMin = rowMin;
+            int[] recycled = twoBack;
+            twoBack = previous;
+            previous = current;
+            current = recycled;
+        }
+        int prefix = Integer.MAX_VALUE;
+        for (int j = 0; j <= m; j++) {
+            prefix = Math.min(prefix, previous[j]);
+        }
+        return new int[]{previous[m], prefix};
+    }
+
+    // The scores hold exactly the matches, so their slots are walked in memory order with each score at hand
+    private List<PatientResponse> rank(ScoreMap scores, int page, int size) {
+        Comparator<Integer> ranking = (a, b) -> compareRank(scores.get(a), a, scores.get(b), b);
+        // Only the best (page + 1) * size matches are kept, in a heap with the worst on top;
+        // most matches lose against that worst one and cost a single comparison
+        int keep = (int) Math.min((long) (page + 1) * size, Integer.MAX_VALUE);
+        PriorityQueue<Integer> best = new PriorityQueue<>(Math.min(keep, scores.size) + 1, ranking.reversed());
+        int worst = -1;
+        float worstScore = 0;
+        for (int slot = 0; slot < scores.keys.length; slot++) {
+            if (scores.keys[slot] == 0) {
+                continue;
+            }
+            int ordinal = scores.keys[slot] - 1;
+            float score = scores.values[slot];
+            if (best.size() < keep) {
+                best.add(ordinal);
+            } else if (compareRank(score, ordinal, worstScore, worst) < 0) {
+                best.poll();
+                best.add(ordinal);
+            } else {
+                continue;
+            }
+            worst = best.peek();
+            worstScore = scores.get(worst);
+        }
+        List<Integer> ranked = new ArrayList<>(best);
+        ranked.sort(ranking);
+        return ranked.stream()
+                .skip((long) page * size)
+                .map(entries::get)
+                .map(entry -> PatientResponse.builder()
+                        .id(entry.id())
+                        .nationalId(entry.nationalId())
+                        .firstName(entry.firstName())
+                        .lastName(entry.lastName())
+                        .build())
+                .toList();
+    }
+
+    // Score descending, then last name, first name (case-insensitive, missing names last) and nationalId
+    private int compareRank(float scoreA, int a, float scoreB, int b) {
+        int byScore = Float.compare(scoreB, scoreA);
+        if (byScore != 0) {
+            return byScore;
+        }
+        int byKey = Long.compareUnsigned(lastNameKeys[a], lastNameKeys[b]);
+        if (byKey != 0) {
+            return byKey;
+        }
+        Entry left = entries.get(a);
+        Entry right = entries.get(b);
+        int byLastName = compareNames(left.lastName(), right.lastName());
+        if (byLastName != 0) {
+            return byLastName;
+        }
+        int byFirstName = compareNames(left.firstName(), right.firstName());
+        return byFirstName != 0 ? byFirstName : left.nationalId().compareTo(right.nationalId());
+    }
+
+    private static int compareNames(String left, String right) {
+        if (left == null || right == null) {
+            return left == null ? (right == null ? 0 : 1) : -1;
+        }
+        return left.compareToIgnoreCase(right);
+    }
+
+    // Orders like compareNames on the first four characters: case-folded the way compareToIgnoreCase does it,
+    // zero-padded so a shorter name sorts first, and all ones for a missing name
+    private static long lastNameKey(String lastName) {
+        if (lastName == null) {
+            return -1L;
+        }
+        long key = 0;
+        for (int i = 0; i < 4; i++) {
+            char c = i < lastName.length() ? Character.toLowerCase(Character.toUpperCase(lastName.charAt(i))) : 0;
+            key = key << 16 | c;
+        }
+        return key;
+    }
+
+    private void addLoaded(List<Patient> patients) {
+        lock.writeLock().lock();
+        try {
+            for (Patient patient : patients) {
+                // Live writes that arrived during the load are newer than what the cursor read
+                if (!ordinals.containsKey(patient.getNationalId()) && !removedWhileLoading.contains(patient.getNationalId())) {
+                    add(new Entry(patient.getId(), patient.getNationalId(), patient.getFirstName(), patient.getLastName()));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(Entry entry) {
+        int ordinal = entries.size();
+        entries.add(entry);
+        ordinals.put(entry.nationalId(), ordinal);
+        if (ordinal == lastNameKeys.length) {
+            lastNameKeys = Arrays.copyOf(lastNameKeys, ordinal * 2);
+        }
+        lastNameKeys[ordinal] = lastNameKey(entry.lastName());
+        for (String token : entry.nameTokens()) {
+            IntList list = postings.get(token);
+            if (list == null) {
+                list = new IntList();
+                postings.put(token, list);
+                int tokenId = vocabulary.size();
+                vocabulary.add(token);
+                for (String gram : trigramsOf(token)) {
+                    trigrams.computeIfAbsent(gram, g -> new IntList()).add(tokenId);
+                }
+            }
+            list.add(ordinal);
+        }
+    }
+
+    private void kill(int ordinal) {
+        entries.set(ordinal, null);
+        dead++;
+    }
+
+    // Rebuilds everything from the live entries once a quarter of the ordinals are dead
+    private void compactIfNeeded() {
+        if (dead < 1024 || dead < entries.size() / 4) {
+            return;
+        }
+        List<Entry> live = entries.stream().filter(Objects::nonNull).toList();
+        entries.clear();
+        ordinals.clear();
+        postings.clear();
+        vocabulary.clear();
+        trigrams.clear();
+        dead = 0;
+        live.forEach(this::add);
+    }
+
+    // Distinct, so a repeated trigram ("anana") is counted once on both the token and the query side
+    private static List<String> trigramsOf(String token) {
+        String padded = "$" + token + "$";
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return new ArrayList<>(grams);
+    }
+
+    private record Entry(String id, String nationalId, String firstName, String lastName) {
+        List<String> nameTokens() {
+            List<String> tokens = new ArrayList<>(tokens(firstName));
+            for (String token : tokens(lastName)) {
+                if (!tokens.contains(token)) {
+                    tokens.add(token);
+                }
+            }
+            return tokens;
+        }
+    }
+
+    // Open-addressing ordinal -> score map; scores are always positive, so 0 means absent.
+    // Keys are stored as ordinal + 1 so an empty slot is 0 and the arrays need no fill.
+    private static final class ScoreMap {
+        int[] keys;
+        float[] values;
+        int size;
+
+        ScoreMap(int expected) {
+            // At most half full
+            int capacity = Integer.highestOneBit(Math.max(8, expected) * 2 - 1) << 1;
+            keys = new int[capacity];
+            values = new float[capacity];
+        }
+
+        float get(int ordinal) {
+            int slot = slotOf(ordinal + 1);
+            return keys[slot] == 0 ? 0 : values[slot];
+        }
+
+        // Keeps the higher score; true when the ordinal was not in the map yet
+        boolean raise(int ordinal, float score) {
+            int slot = slotOf(ordinal + 1);
+            if (keys[slot] != 0) {
+                values[slot] = Math.max(values[slot], score);
+                return false;
+            }
+            keys[slot] = ordinal + 1;
+            values[slot] = score;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+            return true;
+        }
+
+        private int slotOf(int key) {
+            int mask = keys.length - 1;
+            int h = key * 0x9E3779B9;
+            int slot = (h ^ h >>> 16) & mask;
+            while (keys[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            float[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new float[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = slotOf(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
+
+    // Open-addressing token id -> count map, laid out like ScoreMap. It never holds more keys than
+    // the increments it was sized for, so it stays at most half full without growing.
+    private static final class CountMap {
+        final int[] keys;
+        final int[] counts;
+
+        CountMap(int increments) {
+            int capacity = Integer.highestOneBit(Math.max(8, increments) * 2 - 1) << 1;
+            keys = new int[capacity];
+            counts = new int[capacity];
+        }
+
+        // The count after this increment
+        int increment(int tokenId) {
+            int key = tokenId + 1;
+            int mask = keys.length - 1;
+            int h = key * 0x9E3779B9;
+            int slot = (h ^ h >>> 16) & mask;
+            while (keys[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            return ++counts[slot];
+        }
+    }
+
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -1,64 +1,235 @@
 package fact.it.patientservice.service;
 
+import fact.it.patientservice.dto.PatientPageResponse;
 import fact.it.patientservice.dto.PatientRequest;
 import fact.it.patientservice.dto.PatientResponse;
+import fact.it.patientservice.event.PatientChangedEvent;
 import fact.it.patientservice.model.Patient;
 import fact.it.patientservice.repository.PatientRepository;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
 
 @Service
 @RequiredArgsConstructor
 public class PatientService {
 
+    public static final int MAX_LOOKUP_IDS = 1000;
+    static final int LOOKUP_CHUNK_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 1000;
+    static final Set<String> PROJECTABLE_FIELDS = Set.of("id", "nationalId", "firstName", "lastName", "email", "phone");
+    static final int STREAM_BATCH_SIZE = 500;
+
     private final PatientRepository patientRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MongoTemplate mongoTemplate;
+    private final PatientSearchIndex searchIndex;
 
     public void createPatient(PatientRequest patientRequest) {
-        Patient patient = Patient.builder()
-                .nationalId(patientRequest.getNationalId())
-                .firstName(patientRequest.getFirstName())
-                .lastName(patientRequest.getLastName())
-                .email(patientRequest.getEmail())
-                .phone(patientRequest.getPhone())
-                .build();
-
+        Patient patient = newPatient(patientRequest);
         patientRepository.save(patient);
+        searchIndex.put(patient);
     }
 
-    public List<PatientResponse> getAllPatients() {
-        return patientRepository.findAll()
+    // Keyset pagination on _id: each page is an index range scan from the cursor, however deep the caller pages
+    public PatientPageResponse getPatientPage(String after, int limit, List<String> fields) {
+        List<PatientResponse> patients = mongoTemplate.find(pageQuery(after, limit, fields), Patient.class)
                 .stream()
-                .map(this::mapToPatientResponse)
+                .map(PatientService::mapToPatientResponse)
                 .toList();
+        return toPage(patients, limit);
+    }
+
+    // Backed by a Mongo cursor: documents are fetched in batches as the caller consumes them,
+    // so the collection is never held in memory. The caller must close the stream.
+    public Stream<PatientResponse> streamPatients(List<String> fields) {
+        Query query = listingQuery(fields).cursorBatchSize(STREAM_BATCH_SIZE);
+        return mongoTemplate.stream(query, Patient.class).map(PatientService::mapToPatientResponse);
     }
 
     public PatientResponse getByNationalId(String nationalId) {
         return patientRepository.findByNationalId(nationalId)
-                .map(this::mapToPatientResponse)
+                .map(PatientService::mapToPatientResponse)
                 .orElse(null);
     }
 
+    // One entry per requested ID, in request order; IDs without a patient come back as {nationalId, found: false}.
+    // Distinct IDs are resolved with $in queries on the unique nationalId index, LOOKUP_CHUNK_SIZE at a time.
+    public List<PatientResponse> lookupByNationalIds(List<String> nationalIds) {
+        if (nationalIds == null || nationalIds.isEmpty()) {
+            return List.of();
+        }
+        List<String> distinct = distinctLookupIds(nationalIds);
+        Map<String, PatientResponse> found = new HashMap<>(distinct.size() * 2);
+        for (int from = 0; from < distinct.size(); from += LOOKUP_CHUNK_SIZE) {
+            for (Patient patient : patientRepository.findByNationalIdIn(
+                    distinct.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, distinct.size())))) {
+                found.put(patient.getNationalId(), foundPatient(patient));
+            }
+        }
+        return inRequestOrder(nationalIds, found);
+    }
+
     public boolean updatePatient(String nationalId, PatientRequest req) {
         return patientRepository.findByNationalId(nationalId)
                 .map(p -> {
-                    p.setFirstName(req.getFirstName());
-                    p.setLastName(req.getLastName());
-                    p.setEmail(req.getEmail());
-                    p.setPhone(req.getPhone());
+                    replaceFields(p, req);
                     patientRepository.save(p);
+                    searchIndex.put(p);
+                    eventPublisher.publishEvent(new PatientChangedEvent(nationalId));
                     return true;
                 })
                 .orElse(false);
     }
 
+    // Only the non-null fields of the request go into one $set matched by nationalId: a single round trip,
+    // and concurrent edits to the other fields are not overwritten the way a read-modify-write save would.
+    public boolean patchPatient(String nationalId, PatientRequest req) {
+        boolean matched = mongoTemplate.updateFirst(byNationalId(nationalId), patchUpdate(nationalId, req), Patient.class)
+                .getMatchedCount() > 0;
+        if (matched) {
+            searchIndex.updateNames(nationalId, req.getFirstName(), req.getLastName());
+            eventPublisher.publishEvent(new PatientChangedEvent(nationalId));
+        }
+        return matched;
+    }
+
+    // Same single $set, as a findAndModify that returns the document after the update; null when no patient matched
+    public PatientResponse patchAndGetPatient(String nationalId, PatientRequest req) {
+        Patient patched = mongoTemplate.findAndModify(byNationalId(nationalId), patchUpdate(nationalId, req),
+                FindAndModifyOptions.options().returnNew(true), Patient.class);
+        if (patched == null) {
+            return null;
+        }
+        searchIndex.put(patched);
+        eventPublisher.publishEvent(new PatientChangedEvent(nationalId));
+        return mapToPatientResponse(patched);
+    }
+
     public boolean deleteByNationalId(String nationalId) {
-        return patientRepository.deleteByNationalId(nationalId) > 0;
+        boolean deleted = patientRepository.deleteByNationalId(nationalId) > 0;
+        if (deleted) {
+            searchIndex.remove(nationalId);
+            eventPublisher.publishEvent(new PatientChangedEvent(nationalId));
+        }
+        return deleted;
+    }
+
+    // Query building, validation and mapping below are shared with ReactivePatientService
+
+    static Patient newPatient(PatientRequest req) {
+        return Patient.builder()
+                .nationalId(req.getNationalId())
+                .firstName(req.getFirstName())
+                .lastName(req.getLastName())
+                .email(req.getEmail())
+                .phone(req.getPhone())
+                .build();
+    }
+
+    static void replaceFields(Patient patient, PatientRequest req) {
+        patient.setFirstName(req.getFirstName());
+        patient.setLastName(req.getLastName());
+        patient.setEmail(req.getEmail());
+        patient.setPhone(req.getPhone());
     }
 
+    static Query byNationalId(String nationalId) {
+        return Query.query(where("nationalId").is(nationalId));
+    }
+
+    static Update patchUpdate(String nationalId, PatientRequest req) {
+        if (req.getNationalId() != null && !req.getNationalId().equals(nationalId)) {
+            throw new IllegalArgumentException("nationalId cannot be changed");
+        }
+        Update update = new Update();
+        setIfPresent(update, "firstName", req.getFirstName());
+        setIfPresent(update, "lastName", req.getLastName());
+        setIfPresent(update, "email", req.getEmail());
+        setIfPresent(update, "phone", req.getPhone());
+        if (update.getUpdateObject().isEmpty()) {
+            throw new IllegalArgumentException("No fields to update");
+        }
+        return update;
+    }
+
+    private static void setIfPresent(Update update, String field, String value) {
+        if (value != null) {
+            update.set(field, value);
+        }
+    }
+
+    static List<String> distinctLookupIds(List<String> nationalIds) {
+        if (nationalIds.size() > MAX_LOOKUP_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_LOOKUP_IDS + " national IDs per lookup, got " + nationalIds.size());
+        }
+        if (nationalIds.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("nationalIds must not contain null");
+        }
+        return nationalIds.stream().distinct().toList();
+    }
+
+    static PatientResponse foundPatient(Patient patient) {
+        PatientResponse response = mapToPatientResponse(patient);
+        response.setFound(true);
+        return response;
+    }
+
+    static List<PatientResponse> inRequestOrder(List<String> nationalIds, Map<String, PatientResponse> found) {
+        return nationalIds.stream()
+                .map(id -> found.getOrDefault(id, PatientResponse.builder().nationalId(id).found(false).build()))
+                .toList();
+    }
+
+    static Query pageQuery(String after, int limit, List<String> fields) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Query query = listingQuery(fields).limit(limit);
+        if (after != null) {
+            if (!ObjectId.isValid(after)) {
+                throw new IllegalArgumentException("Invalid cursor " + after);
+            }
+            query.addCriteria(where("id").gt(new ObjectId(after)));
+        }
+        return query;
+    }
+
+    static PatientPageResponse toPage(List<PatientResponse> patients, int limit) {
+        String nextCursor = patients.size() == limit ? patients.get(limit - 1).getId() : null;
+        return PatientPageResponse.builder().patients(patients).nextCursor(nextCursor).build();
+    }
+
+    static Query listingQuery(List<String> fields) {
+        Query query = new Query().with(Sort.by("id"));
+        if (fields != null && !fields.isEmpty()) {
+            for (String field : fields) {
+                if (!PROJECTABLE_FIELDS.contains(field)) {
+                    throw new IllegalArgumentException("Unknown field " + field + ", use any of " + PROJECTABLE_FIELDS);
+                }
+            }
+            // _id is always returned, it is the page cursor
+            query.fields().include(fields.toArray(String[]::new));
+        }
+        return query;
+    }
 
-    private PatientResponse mapToPatientResponse(Patient patient) {
+    static PatientResponse mapToPatientResponse(Patient patient) {
         return PatientResponse.builder()
                 .id(patient.getId())
                 .nationalId(patient.getNationalId())
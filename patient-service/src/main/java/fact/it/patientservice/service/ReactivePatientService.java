@@ -0,0 +1,117 @@
+package fact.it.patientservice.service;
+
+import fact.it.patientservice.dto.PatientPageResponse;
+import fact.it.patientservice.dto.PatientRequest;
+import fact.it.patientservice.dto.PatientResponse;
+import fact.it.patientservice.event.PatientChangedEvent;
+import fact.it.patientservice.model.Patient;
+import fact.it.patientservice.repository.ReactivePatientRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// PatientService on the reactive driver for the "reactive" profile: same queries and semantics,
+// but no request ever holds a thread while Mongo answers.
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePatientService {
+
+    private final ReactivePatientRepository patientRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final PatientSearchIndex searchIndex;
+
+    public Mono<Void> createPatient(PatientRequest patientRequest) {
+        return patientRepository.save(PatientService.newPatient(patientRequest))
+                .doOnNext(searchIndex::put)
+                .then();
+    }
+
+    public Mono<PatientPageResponse> getPatientPage(String after, int limit, List<String> fields) {
+        return Mono.fromSupplier(() -> PatientService.pageQuery(after, limit, fields))
+                .flatMap(query -> mongoTemplate.find(query, Patient.class)
+                        .map(PatientService::mapToPatientResponse)
+                        .collectList())
+                .map(patients -> PatientService.toPage(patients, limit));
+    }
+
+    // Demand-driven: the driver fetches the next cursor batch only as the response is written out
+    public Flux<PatientResponse> streamPatients(List<String> fields) {
+        return Mono.fromSupplier(() -> PatientService.listingQuery(fields).cursorBatchSize(PatientService.STREAM_BATCH_SIZE))
+                .flatMapMany(query -> mongoTemplate.find(query, Patient.class))
+                .map(PatientService::mapToPatientResponse);
+    }
+
+    public Mono<PatientResponse> getByNationalId(String nationalId) {
+        return patientRepository.findByNationalId(nationalId)
+                .map(PatientService::mapToPatientResponse);
+    }
+
+    public Mono<List<PatientResponse>> lookupByNationalIds(List<String> nationalIds) {
+        if (nationalIds == null || nationalIds.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return Mono.fromSupplier(() -> PatientService.distinctLookupIds(nationalIds))
+                .flatMapMany(Flux::fromIterable)
+                .buffer(PatientService.LOOKUP_CHUNK_SIZE)
+                .concatMap(patientRepository::findByNationalIdIn)
+                .collectMap(Patient::getNationalId, PatientService::foundPatient)
+                .map(found -> PatientService.inRequestOrder(nationalIds, found));
+    }
+
+    public Mono<Boolean> updatePatient(String nationalId, PatientRequest req) {
+        return patientRepository.findByNationalId(nationalId)
+                .flatMap(p -> {
+                    PatientService.replaceFields(p, req);
+                    return patientRepository.save(p);
+                })
+                .doOnNext(saved -> {
+                    searchIndex.put(saved);
+                    eventPublisher.publishEvent(new PatientChangedEvent(nationalId));
+                })
+                .hasElement();
+    }
+
+    public Mono<Boolean> patchPatient(String nationalId, PatientRequest req) {
+        return Mono.fromSupplier(() -> PatientService.patchUpdate(nationalId, req))
+                .flatMap(update -> mongoTemplate.updateFirst(PatientService.byNationalId(nationalId), update, Patient.class))
+                .map(result -> result.getMatchedCount() > 0)
+                .doOnNext(matched -> {
+                    if (matched) {
+                        searchIndex.updateNames(nationalId, req.getFirstName(), req.getLastName());
+                        eventPublisher.publishEvent(new PatientChangedEvent(nationalId));
+                    }
+                });
+    }
+
+    // Empty when no patient matched
+    public Mono<PatientResponse> patchAndGetPatient(String nationalId, PatientRequest req) {
+        return Mono.fromSupplier(() -> PatientService.patchUpdate(nationalId, req))
+                .flatMap(update -> mongoTemplate.findAndModify(PatientService.byNationalId(nationalId), update,
+                        FindAndModifyOptions.options().returnNew(true), Patient.class))
+                .doOnNext(patched -> {
+                    searchIndex.put(patched);
+                    eventPublisher.publishEvent(new PatientChangedEvent(nationalId));
+                })
+                .map(PatientService::mapToPatientResponse);
+    }
+
+    public Mono<Boolean> deleteByNationalId(String nationalId) {
+        return patientRepository.deleteByNationalId(nationalId)
+                .map(deleted -> deleted > 0)
+                .doOnNext(deleted -> {
+                    if (deleted) {
+                        searchIndex.remove(nationalId);
+                        eventPublisher.publishEvent(new PatientChangedEvent(nationalId));
+                    }
+                });
+    }
+}
@@ -0,0 +1,170 @@
+package fact.it.patientservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import fact.it.patientservice.dto.PatientImportResponse;
+import fact.it.patientservice.event.PatientChangedEvent;
+import fact.it.patientservice.model.Patient;
+import fact.it.patientservice.service.PatientImportService;
+import fact.it.patientservice.service.PatientSearchIndex;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PatientImportServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private PatientSearchIndex searchIndex;
+
+    private PatientImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new PatientImportService(mongoTemplate, eventPublisher, searchIndex, new ObjectMapper(), 2);
+        lenient().when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Patient.class)).thenReturn(bulkOperations);
+    }
+
+    @Test
+    void testNdjsonIsWrittenInBatchesAndBadLinesAreSkipped() throws Exception {
+        String ndjson = """
+                {"nationalId":"BEL1","firstName":"Alice","lastName":"Jensen"}
+                {"nationalId":"BEL2","firstName":"Bob"}
+                not json
+                {"firstName":"No id"}
+
+                {"nationalId":"BEL3","firstName":"Carol"}
+                """;
+        // batch 1: BEL1 new, BEL2 existing; batch 2: BEL3 new
+        when(bulkOperations.execute())
+                .thenReturn(result(1, upsert(0)))
+                .thenReturn(result(0, upsert(0)));
+
+        PatientImportResponse resp = importService.importPatients(stream(ndjson), PatientImportService.NDJSON);
+
+        assertEquals(2, resp.getInserted());
+        assertEquals(1, resp.getUpdated());
+        assertEquals(2, resp.getFailed());
+        assertTrue(resp.getErrors().get(0).startsWith("line 3: "));
+        assertEquals("line 4: nationalId is required", resp.getErrors().get(1));
+        verify(bulkOperations, times(2)).execute();
+        verify(bulkOperations, times(3)).upsert(any(Query.class), any(Update.class));
+        // Only the patient that already existed is invalidated downstream, and its missing last name stays indexed
+        verify(eventPublisher).publishEvent(new PatientChangedEvent("BEL2"));
+        verify(searchIndex).updateNames("BEL2", "Bob", null);
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    void testCsvColumnsFollowTheHeaderAndQuotedFieldsAreKept() throws Exception {
+        String csv = """
+                lastName,nationalId,firstName,email
+                "Jensen, Jr.",BEL1,Alice,alice@example.com
+                "O""Brien",BEL2,Bob,
+                """;
+        when(bulkOperations.execute()).thenReturn(result(0, upsert(0), upsert(1)));
+
+        PatientImportResponse resp = importService.importPatients(stream(csv), PatientImportService.CSV);
+
+        assertEquals(2, resp.getInserted());
+        assertEquals(0, resp.getFailed());
+        // Empty and missing columns are left out, so a re-import never wipes fields the patient already has
+        verify(bulkOperations).upsert(
+                eq(Query.query(Criteria.where("nationalId").is("BEL1"))),
+                eq(new Update().setOnInsert("nationalId", "BEL1").set("firstName", "Alice").set("lastName", "Jensen, Jr.")
+                        .set("email", "alice@example.com")));
+        verify(bulkOperations).upsert(
+                eq(Query.query(Criteria.where("nationalId").is("BEL2"))),
+                eq(new Update().setOnInsert("nationalId", "BEL2").set("firstName", "Bob").set("lastName", "O\"Brien")));
+    }
+
+    @Test
+    void testRepeatedNationalIdInOneBatchIsMergedIntoOneUpsert() throws Exception {
+        String ndjson = """
+                {"nationalId":"BEL1","email":"alice@example.com"}
+                {"nationalId":"BEL1","phone":"0470"}
+                """;
+        when(bulkOperations.execute()).thenReturn(result(0, upsert(0)));
+
+        PatientImportResponse resp = importService.importPatients(stream(ndjson), PatientImportService.NDJSON);
+
+        // A new patient seen twice is one insert, not an insert plus an update
+        assertEquals(1, resp.getInserted());
+        assertEquals(0, resp.getUpdated());
+        verify(bulkOperations).upsert(
+                eq(Query.query(Criteria.where("nationalId").is("BEL1"))),
+                eq(new Update().setOnInsert("nationalId", "BEL1").set("email", "alice@example.com").set("phone", "0470")));
+        verify(bulkOperations, times(1)).upsert(any(Query.class), any(Update.class));
+    }
+
+    @Test
+    void testRowsRejectedByMongoAreCountedAndTheRestOfTheBatchStands() throws Exception {
+        String ndjson = """
+                {"nationalId":"BEL1"}
+                {"nationalId":"BEL2"}
+                """;
+        BulkWriteError duplicate = new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 1);
+        when(bulkOperations.execute()).thenThrow(new BulkOperationException("bulk write failed",
+                new MongoBulkWriteException(result(0, upsert(0)), List.of(duplicate), null, new ServerAddress(), Set.of())));
+
+        PatientImportResponse resp = importService.importPatients(stream(ndjson), PatientImportService.NDJSON);
+
+        assertEquals(1, resp.getInserted());
+        assertEquals(1, resp.getFailed());
+        assertEquals(List.of("line 2: E11000 duplicate key"), resp.getErrors());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testCsvWithoutNationalIdColumnIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importPatients(stream("firstName,lastName\nAlice,Jensen\n"), PatientImportService.CSV));
+        verifyNoInteractions(bulkOperations);
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static BulkWriteUpsert upsert(int index) {
+        return new BulkWriteUpsert(index, new BsonString("id-" + index));
+    }
+
+    private static BulkWriteResult result(int matched, BulkWriteUpsert... upserts) {
+        return BulkWriteResult.acknowledged(0, matched, 0, matched, List.of(upserts), List.of());
+    }
+}
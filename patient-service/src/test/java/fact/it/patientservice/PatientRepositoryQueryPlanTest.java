@@ -0,0 +1,205 @@
+package fact.it.patientservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import fact.it.patientservice.config.MongoIndexInitializer;
+import fact.it.patientservice.dto.PatientPageResponse;
+import fact.it.patientservice.dto.PatientRequest;
+import fact.it.patientservice.model.Patient;
+import fact.it.patientservice.repository.PatientRepository;
+import fact.it.patientservice.service.PatientImportService;
+import fact.it.patientservice.service.PatientSearchIndex;
+import fact.it.patientservice.service.PatientService;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs every PatientRepository query and every MongoTemplate query of PatientService and PatientImportService
+// against a real mongod, records the commands the driver sends and explains each one;
+// a winning plan with a COLLSCAN stage fails the build.
+// Skipped where Docker is unavailable.
+@DataMongoTest
+@Testcontainers(disabledWithoutDocker = true)
+@Import({MongoIndexInitializer.class, PatientRepositoryQueryPlanTest.CommandCapture.class})
+class PatientRepositoryQueryPlanTest {
+
+    private static final Set<String> QUERY_COMMANDS = Set.of("find", "count", "distinct", "aggregate", "update", "delete", "findAndModify");
+    private static final List<BsonDocument> CAPTURED_COMMANDS = new CopyOnWriteArrayList<>();
+    private static final Set<String> DRIVER_FIELDS = Set.of("$db", "lsid", "$clusterTime", "$readPreference", "txnNumber", "autocommit", "apiVersion");
+    // Explain takes a single update or delete statement, so bulk writes are explained one statement at a time
+    private static final Map<String, String> STATEMENT_ARRAYS = Map.of("update", "updates", "delete", "deletes");
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private PatientService patientService;
+    private PatientImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        PatientSearchIndex searchIndex = new PatientSearchIndex(mongoTemplate, false);
+        patientService = new PatientService(patientRepository, event -> { }, mongoTemplate, searchIndex);
+        importService = new PatientImportService(mongoTemplate, event -> { }, searchIndex, new ObjectMapper(), 1000);
+        patientRepository.deleteAll();
+        patientRepository.saveAll(IntStream.range(0, 200)
+                .mapToObj(i -> Patient.builder().nationalId("BEL" + i).firstName("First" + i).lastName("Last" + i).build())
+                .toList());
+        CAPTURED_COMMANDS.clear();
+    }
+
+    @Test
+    void testEveryQueryIsCoveredHere() {
+        // A new query method must be exercised in testRepositoryQueriesAreServedByAnIndex
+        // or testServiceQueriesAreServedByAnIndex before it ships
+        assertEquals(Set.of("findByNationalId", "findByNationalIdIn", "deleteByNationalId"),
+                declaredMethods(PatientRepository.class));
+        assertEquals(Set.of("createPatient", "getPatientPage", "streamPatients", "getByNationalId", "lookupByNationalIds",
+                "updatePatient", "patchPatient", "patchAndGetPatient", "deleteByNationalId"), declaredMethods(PatientService.class));
+        assertEquals(Set.of("importPatients"), declaredMethods(PatientImportService.class));
+    }
+
+    @Test
+    void testRepositoryQueriesAreServedByAnIndex() {
+        patientRepository.findByNationalId("BEL1");
+        patientRepository.findByNationalIdIn(List.of("BEL2", "BEL3", "BEL404"));
+        patientRepository.deleteByNationalId("BEL4");
+
+        assertNoCollectionScan();
+    }
+
+    @Test
+    void testServiceQueriesAreServedByAnIndex() throws Exception {
+        // Keyset pages on _id, first and following, with and without a projection
+        PatientPageResponse first = patientService.getPatientPage(null, 10, null);
+        patientService.getPatientPage(first.getNextCursor(), 10, List.of("nationalId", "lastName"));
+        try (Stream<?> patients = patientService.streamPatients(List.of("nationalId", "firstName"))) {
+            patients.forEach(patient -> { });
+        }
+        patientService.lookupByNationalIds(List.of("BEL2", "BEL3", "BEL404"));
+        patientService.getByNationalId("BEL1");
+        patientService.createPatient(PatientRequest.builder().nationalId("BEL800").firstName("New").build());
+        patientService.updatePatient("BEL5", PatientRequest.builder().firstName("Replaced").build());
+        patientService.patchPatient("BEL6", PatientRequest.builder().email("bel6@example.com").build());
+        patientService.patchAndGetPatient("BEL7", PatientRequest.builder().phone("0470").build());
+        patientService.deleteByNationalId("BEL8");
+        // One bulk write: an upsert that matches and one that inserts
+        importService.importPatients(new ByteArrayInputStream("""
+                {"nationalId":"BEL9","email":"bel9@example.com"}
+                {"nationalId":"BEL900","firstName":"Imported"}
+                """.getBytes(StandardCharsets.UTF_8)), PatientImportService.NDJSON);
+
+        Set<String> seen = CAPTURED_COMMANDS.stream().map(BsonDocument::getFirstKey).collect(Collectors.toSet());
+        assertTrue(seen.containsAll(Set.of("find", "update", "findAndModify", "delete")), seen::toString);
+        assertNoCollectionScan();
+    }
+
+    @Test
+    void testNationalIdIsUnique() {
+        Patient duplicate = Patient.builder().nationalId("BEL1").firstName("Other").build();
+
+        assertThrows(DuplicateKeyException.class, () -> patientRepository.save(duplicate));
+    }
+
+    private static Set<String> declaredMethods(Class<?> type) {
+        return Arrays.stream(type.getDeclaredMethods())
+                .filter(method -> Modifier.isPublic(method.getModifiers()))
+                .map(Method::getName)
+                .collect(Collectors.toSet());
+    }
+
+    private void assertNoCollectionScan() {
+        assertFalse(CAPTURED_COMMANDS.isEmpty());
+        for (BsonDocument command : CAPTURED_COMMANDS) {
+            for (BsonDocument statement : statements(command)) {
+                BsonDocument winningPlan = explain(statement).getDocument("queryPlanner").getDocument("winningPlan");
+                assertFalse(hasStage(winningPlan, "COLLSCAN"),
+                        () -> statement.toJson() + " falls back to a collection scan: " + winningPlan.toJson());
+            }
+        }
+    }
+
+    private static List<BsonDocument> statements(BsonDocument command) {
+        String array = STATEMENT_ARRAYS.get(command.getFirstKey());
+        if (array == null || command.getArray(array).size() <= 1) {
+            return List.of(command);
+        }
+        return command.getArray(array).stream()
+                .map(statement -> command.clone().append(array, new BsonArray(List.of(statement))))
+                .toList();
+    }
+
+    private BsonDocument explain(BsonDocument command) {
+        BsonDocument query = new BsonDocument();
+        command.forEach((key, value) -> {
+            if (!DRIVER_FIELDS.contains(key)) {
+                query.append(key, value);
+            }
+        });
+        return mongoTemplate.getDb().runCommand(
+                new BsonDocument("explain", query).append("verbosity", new BsonString("queryPlanner")), BsonDocument.class);
+    }
+
+    private static boolean hasStage(BsonValue plan, String stage) {
+        if (plan.isDocument()) {
+            BsonDocument node = plan.asDocument();
+            BsonValue name = node.get("stage");
+            return (name != null && name.isString() && stage.equals(name.asString().getValue()))
+                    || node.values().stream().anyMatch(child -> hasStage(child, stage));
+        }
+        return plan.isArray() && plan.asArray().stream().anyMatch(child -> hasStage(child, stage));
+    }
+
+    @TestConfiguration
+    static class CommandCapture {
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer commandCapture() {
+            return settings -> settings.addCommandListener(new CommandListener() {
+                @Override
+                public void commandStarted(CommandStartedEvent event) {
+                    if (QUERY_COMMANDS.contains(event.getCommandName())) {
+                        CAPTURED_COMMANDS.add(event.getCommand().clone());
+                    }
+                }
+            });
+        }
+    }
+}
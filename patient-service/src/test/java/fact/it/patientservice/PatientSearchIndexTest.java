@@ -0,0 +1,141 @@
+package fact.it.patientservice;
+
+import fact.it.patientservice.dto.PatientResponse;
+import fact.it.patientservice.dto.PatientSearchResponse;
+import fact.it.patientservice.model.Patient;
+import fact.it.patientservice.service.PatientSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PatientSearchIndexTest {
+
+    private PatientSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PatientSearchIndex(mock(MongoTemplate.class), false);
+        index.put("1", "BEL1", "Alice", "Jensen");
+        index.put("2", "BEL2", "Alicia", "Keys");
+        index.put("3", "BEL3", "Bob", "Jenkins");
+        index.put("4", "BEL4", "Zoë", "Müller");
+    }
+
+    private List<String> search(String q) {
+        return index.search(q, 0, 20).getPatients().stream().map(PatientResponse::getNationalId).toList();
+    }
+
+    @Test
+    void testPrefixMatchesRankExactFirst() {
+        assertEquals(List.of("BEL1", "BEL2"), search("ali"));
+        assertEquals("BEL1", search("alice").get(0));
+        // Equal scores fall back to last name
+        assertEquals(List.of("BEL3", "BEL1"), search("jen"));
+    }
+
+    @Test
+    void testTyposAreTolerated() {
+        assertEquals(List.of("BEL1"), search("jansen"));
+        assertEquals(List.of("BEL1"), search("jnesen"));
+        assertEquals(List.of("BEL3"), search("jenkisn"));
+        // Three letters are too short to guess at
+        assertEquals(List.of(), search("bib"));
+    }
+
+    @Test
+    void testAccentsAndCaseAreIgnored() {
+        assertEquals(List.of("BEL4"), search("zoe muller"));
+        assertEquals(List.of("BEL4"), search("MÜLL"));
+    }
+
+    @Test
+    void testEveryTermMustMatch() {
+        assertEquals(List.of("BEL1"), search("alice jen"));
+        assertEquals(List.of(), search("alicia jensen"));
+    }
+
+    @Test
+    void testWritesAreVisibleImmediately() {
+        index.remove("BEL1");
+        assertEquals(List.of("BEL2"), search("ali"));
+
+        index.updateNames("BEL3", null, "Peeters");
+        assertEquals(List.of(), search("jenkins"));
+        PatientResponse bob = index.search("bob peeters", 0, 1).getPatients().get(0);
+        assertEquals("3", bob.getId());
+        assertEquals("Bob", bob.getFirstName());
+
+        // An upsert that matched an existing patient has no id of its own
+        index.put(null, "BEL2", "Alicia", "Vos");
+        assertEquals("2", index.search("vos", 0, 1).getPatients().get(0).getId());
+    }
+
+    @Test
+    void testPagingKeepsTheRankingAndTheTotal() {
+        for (int i = 0; i < 5; i++) {
+            index.put("p" + i, "PEE" + i, "Jan" + i, "Peeters");
+        }
+
+        PatientSearchResponse second = index.search("peeters", 1, 2);
+
+        assertEquals(5, second.getTotal());
+        assertEquals(List.of("PEE2", "PEE3"), second.getPatients().stream().map(PatientResponse::getNationalId).toList());
+        assertEquals(1, index.search("peeters", 2, 2).getPatients().size());
+    }
+
+    @Test
+    void testManyMatchesAreIntersectedAndSummed() {
+        // Enough matches per term to grow the score maps several times
+        for (int i = 0; i < 1000; i++) {
+            index.put("p" + i, "PEE" + i, i % 10 == 0 ? "Emma" : "Jan", i % 2 == 0 ? "Peeters" : "Peetermans");
+        }
+
+        PatientSearchResponse emmaPeeters = index.search("emma peeters", 0, 5);
+        PatientSearchResponse peeters = index.search("peeters", 0, 5);
+
+        assertEquals(100, emmaPeeters.getTotal());
+        assertTrue(emmaPeeters.getPatients().stream().allMatch(p -> p.getFirstName().equals("Emma") && p.getLastName().equals("Peeters")));
+        // exact surnames (1.0) rank above prefix matches (0.8)
+        assertEquals(1000, peeters.getTotal());
+        assertEquals("Peeters", peeters.getPatients().get(0).getLastName());
+        assertEquals(0, index.search("emma jensen", 0, 5).getTotal());
+    }
+
+    @Test
+    void testInvalidSearchesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> index.search("a", 0, 20));
+        assertThrows(IllegalArgumentException.class, () -> index.search("--", 0, 20));
+        assertThrows(IllegalArgumentException.class, () -> index.search("alice", 0, PatientSearchIndex.MAX_PAGE_SIZE + 1));
+        assertThrows(IllegalArgumentException.class, () -> index.search("alice", -1, 20));
+    }
+
+    @Test
+    void testStartupLoadDoesNotOverwriteLiveWrites() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.stream(any(Query.class), eq(Patient.class))).thenReturn(Stream.of(
+                Patient.builder().id("1").nationalId("BEL1").firstName("Alice").lastName("Jensen").build(),
+                Patient.builder().id("2").nationalId("BEL2").firstName("Alicia").lastName("Keys").build(),
+                Patient.builder().id("3").nationalId("BEL3").firstName("Bob").lastName("Jenkins").build()));
+        PatientSearchIndex loading = new PatientSearchIndex(mongoTemplate, true);
+        assertFalse(loading.isReady());
+
+        loading.put("1", "BEL1", "Alice", "Vos");
+        loading.remove("BEL3");
+        loading.load();
+
+        assertTrue(loading.isReady());
+        assertEquals(List.of(), loading.search("jensen", 0, 20).getPatients());
+        assertEquals(1, loading.search("vos", 0, 20).getTotal());
+        assertEquals(0, loading.search("bob", 0, 20).getTotal());
+        assertEquals(2, loading.search("ali", 0, 20).getTotal());
+    }
+}
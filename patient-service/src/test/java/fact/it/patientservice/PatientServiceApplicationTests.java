@@ -3,7 +3,8 @@ package fact.it.patientservice;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// No Mongo here, so skip the startup index creation and search index load that would wait for it
+@SpringBootTest(properties = {"patient.indexes.create-on-startup=false", "patient.search.load-on-startup=false"})
 class PatientServiceApplicationTests {
 
     @Test
@@ -1,21 +1,38 @@
 package fact.it.patientservice;
 
+import com.mongodb.client.result.UpdateResult;
+import fact.it.patientservice.dto.PatientPageResponse;
 import fact.it.patientservice.dto.PatientRequest;
 import fact.it.patientservice.dto.PatientResponse;
+import fact.it.patientservice.event.PatientChangedEvent;
 import fact.it.patientservice.model.Patient;
 import fact.it.patientservice.repository.PatientRepository;
+import fact.it.patientservice.service.PatientSearchIndex;
 import fact.it.patientservice.service.PatientService;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +44,15 @@ class PatientServiceUnitTest {
     @Mock
     private PatientRepository patientRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private PatientSearchIndex searchIndex;
+
     @Test
     void testCreatePatient() {
         PatientRequest req = new PatientRequest("BEL123", "Alice", "Jensen", "alice@example.com", "+3212345678");
@@ -37,7 +63,7 @@ class PatientServiceUnitTest {
     }
 
     @Test
-    void testGetAllPatients() {
+    void testStreamPatients() {
         Patient p = Patient.builder()
                 .id("id-1")
                 .nationalId("BEL123")
@@ -46,9 +72,12 @@ class PatientServiceUnitTest {
                 .email("alice@example.com")
                 .phone("+3212345678")
                 .build();
-        when(patientRepository.findAll()).thenReturn(List.of(p));
+        when(mongoTemplate.stream(any(Query.class), eq(Patient.class))).thenReturn(Stream.of(p));
 
-        List<PatientResponse> out = patientService.getAllPatients();
+        List<PatientResponse> out;
+        try (Stream<PatientResponse> patients = patientService.streamPatients(null)) {
+            out = patients.toList();
+        }
 
         assertEquals(1, out.size());
         PatientResponse r = out.get(0);
@@ -58,7 +87,42 @@ class PatientServiceUnitTest {
         assertEquals("Jensen", r.getLastName());
         assertEquals("alice@example.com", r.getEmail());
         assertEquals("+3212345678", r.getPhone());
-        verify(patientRepository, times(1)).findAll();
+        verify(patientRepository, never()).findAll();
+    }
+
+    @Test
+    void testGetPatientPage_KeysetAndProjection() {
+        String after = "650000000000000000000001";
+        List<Patient> page = List.of(
+                Patient.builder().id("650000000000000000000002").firstName("Alice").build(),
+                Patient.builder().id("650000000000000000000003").firstName("Bob").build());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(query.capture(), eq(Patient.class))).thenReturn(page);
+
+        PatientPageResponse out = patientService.getPatientPage(after, 2, List.of("firstName"));
+
+        assertEquals(2, out.getPatients().size());
+        assertEquals("650000000000000000000003", out.getNextCursor());
+        assertEquals(new Document("id", new Document("$gt", new ObjectId(after))), query.getValue().getQueryObject());
+        assertEquals(new Document("firstName", 1), query.getValue().getFieldsObject());
+        assertEquals(new Document("id", 1), query.getValue().getSortObject());
+        assertEquals(2, query.getValue().getLimit());
+    }
+
+    @Test
+    void testGetPatientPage_LastPageHasNoCursor() {
+        when(mongoTemplate.find(any(Query.class), eq(Patient.class)))
+                .thenReturn(List.of(Patient.builder().id("650000000000000000000002").build()));
+
+        assertNull(patientService.getPatientPage(null, 100, null).getNextCursor());
+    }
+
+    @Test
+    void testGetPatientPage_RejectsBadInput() {
+        assertThrows(IllegalArgumentException.class, () -> patientService.getPatientPage("not-a-cursor", 10, null));
+        assertThrows(IllegalArgumentException.class, () -> patientService.getPatientPage(null, 10, List.of("ssn")));
+        assertThrows(IllegalArgumentException.class, () -> patientService.getPatientPage(null, 5000, null));
+        verifyNoInteractions(mongoTemplate);
     }
 
     @Test
@@ -87,6 +151,88 @@ class PatientServiceUnitTest {
         assertNull(patientService.getByNationalId("NOPE"));
     }
 
+    @Test
+    void testLookupByNationalIds() {
+        Patient p = Patient.builder().id("id-1").nationalId("BEL123").firstName("Alice").build();
+        when(patientRepository.findByNationalIdIn(List.of("NOPE", "BEL123"))).thenReturn(List.of(p));
+
+        List<PatientResponse> out = patientService.lookupByNationalIds(List.of("NOPE", "BEL123", "NOPE"));
+
+        // Input order is kept and unknown IDs are marked, duplicates are queried once
+        assertEquals(3, out.size());
+        assertEquals("NOPE", out.get(0).getNationalId());
+        assertFalse(out.get(0).getFound());
+        assertNull(out.get(0).getId());
+        assertEquals("id-1", out.get(1).getId());
+        assertTrue(out.get(1).getFound());
+        assertFalse(out.get(2).getFound());
+        verify(patientRepository, times(1)).findByNationalIdIn(List.of("NOPE", "BEL123"));
+    }
+
+    @Test
+    void testLookupByNationalIds_LargeInputIsChunked() {
+        List<String> ids = IntStream.range(0, PatientService.MAX_LOOKUP_IDS).mapToObj(i -> "BEL" + i).toList();
+        when(patientRepository.findByNationalIdIn(anyCollection())).thenReturn(List.of());
+
+        assertEquals(ids.size(), patientService.lookupByNationalIds(ids).size());
+
+        verify(patientRepository, times(2)).findByNationalIdIn(anyCollection());
+    }
+
+    @Test
+    void testLookupByNationalIds_RejectsOversizedRequest() {
+        List<String> ids = IntStream.rangeClosed(0, PatientService.MAX_LOOKUP_IDS).mapToObj(i -> "BEL" + i).toList();
+
+        assertThrows(IllegalArgumentException.class, () -> patientService.lookupByNationalIds(ids));
+        verifyNoInteractions(patientRepository);
+    }
+
+    @Test
+    void testPatchPatient_SetsOnlySuppliedFields() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Patient.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        boolean ok = patientService.patchPatient("BEL123", PatientRequest.builder().email("new@x").build());
+
+        assertTrue(ok);
+        verify(mongoTemplate).updateFirst(Query.query(Criteria.where("nationalId").is("BEL123")),
+                new Update().set("email", "new@x"), Patient.class);
+        verify(patientRepository, never()).save(any());
+        verify(eventPublisher).publishEvent(new PatientChangedEvent("BEL123"));
+    }
+
+    @Test
+    void testPatchPatient_NotFound() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Patient.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertFalse(patientService.patchPatient("NOPE", PatientRequest.builder().phone("1").build()));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testPatchAndGetPatient_ReturnsDocumentAfterUpdate() {
+        Patient patched = Patient.builder().id("id-1").nationalId("BEL123").firstName("Alice").phone("+320000").build();
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        when(mongoTemplate.findAndModify(any(Query.class), eq(new Update().set("phone", "+320000")), options.capture(), eq(Patient.class)))
+                .thenReturn(patched);
+
+        PatientResponse r = patientService.patchAndGetPatient("BEL123", PatientRequest.builder().phone("+320000").build());
+
+        assertEquals("Alice", r.getFirstName());
+        assertEquals("+320000", r.getPhone());
+        assertTrue(options.getValue().isReturnNew());
+        verify(eventPublisher).publishEvent(new PatientChangedEvent("BEL123"));
+    }
+
+    @Test
+    void testPatchPatient_RejectsEmptyPatchAndNationalIdChange() {
+        assertThrows(IllegalArgumentException.class, () -> patientService.patchPatient("BEL123", new PatientRequest()));
+        assertThrows(IllegalArgumentException.class,
+                () -> patientService.patchPatient("BEL123", PatientRequest.builder().nationalId("BEL999").build()));
+        verifyNoInteractions(mongoTemplate);
+    }
+
     @Test
     void testUpdatePatient_Found() {
         Patient existing = Patient.builder()
@@ -101,6 +247,7 @@ class PatientServiceUnitTest {
 
         assertTrue(ok);
         verify(patientRepository, times(1)).save(any(Patient.class));
+        verify(eventPublisher, times(1)).publishEvent(new PatientChangedEvent("BEL123"));
     }
 
     @Test
@@ -110,6 +257,7 @@ class PatientServiceUnitTest {
                 new PatientRequest("NOPE", "A", "B", "a@b", "123"));
         assertFalse(ok);
         verify(patientRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
@@ -119,6 +267,7 @@ class PatientServiceUnitTest {
 
         assertTrue(patientService.deleteByNationalId("BEL123"));
         assertFalse(patientService.deleteByNationalId("NOPE"));
+        verify(eventPublisher, times(1)).publishEvent(new PatientChangedEvent("BEL123"));
     }
 }
 
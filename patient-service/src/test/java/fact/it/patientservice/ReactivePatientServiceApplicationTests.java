@@ -0,0 +1,26 @@
+package fact.it.patientservice;
+
+import fact.it.patientservice.controller.PatientController;
+import fact.it.patientservice.controller.ReactivePatientController;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The reactive profile must come up on WebFlux with only the reactive controller mapped
+@SpringBootTest(properties = {"patient.indexes.create-on-startup=false", "patient.search.load-on-startup=false"})
+@ActiveProfiles("reactive")
+class ReactivePatientServiceApplicationTests {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void contextLoadsOnWebFlux() {
+        assertEquals(1, context.getBeanNamesForType(ReactivePatientController.class).length);
+        assertEquals(0, context.getBeanNamesForType(PatientController.class).length);
+    }
+}
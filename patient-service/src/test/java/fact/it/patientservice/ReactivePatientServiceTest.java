@@ -0,0 +1,112 @@
+package fact.it.patientservice;
+
+import com.mongodb.client.result.UpdateResult;
+import fact.it.patientservice.dto.PatientRequest;
+import fact.it.patientservice.event.PatientChangedEvent;
+import fact.it.patientservice.model.Patient;
+import fact.it.patientservice.repository.ReactivePatientRepository;
+import fact.it.patientservice.service.PatientSearchIndex;
+import fact.it.patientservice.service.ReactivePatientService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactivePatientServiceTest {
+
+    @InjectMocks
+    private ReactivePatientService patientService;
+
+    @Mock
+    private ReactivePatientRepository patientRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @Mock
+    private PatientSearchIndex searchIndex;
+
+    @Test
+    void testLookupKeepsRequestOrderAndChunksTheQuery() {
+        List<String> ids = IntStream.range(0, 600).mapToObj(i -> "BEL" + i).toList();
+        when(patientRepository.findByNationalIdIn(anyCollection())).thenReturn(Flux.empty());
+        when(patientRepository.findByNationalIdIn(ids.subList(0, 500)))
+                .thenReturn(Flux.just(Patient.builder().id("id-7").nationalId("BEL7").build()));
+
+        StepVerifier.create(patientService.lookupByNationalIds(ids))
+                .assertNext(out -> {
+                    assertEquals(600, out.size());
+                    assertEquals("BEL0", out.get(0).getNationalId());
+                    assertFalse(out.get(0).getFound());
+                    assertEquals("id-7", out.get(7).getId());
+                    assertTrue(out.get(7).getFound());
+                })
+                .verifyComplete();
+        verify(patientRepository, times(2)).findByNationalIdIn(anyCollection());
+    }
+
+    @Test
+    void testPatchPatientIsOneUpdateAndInvalidates() {
+        when(mongoTemplate.updateFirst(any(Query.class), eq(new Update().set("lastName", "Peeters")), eq(Patient.class)))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+        StepVerifier.create(patientService.patchPatient("BEL123", PatientRequest.builder().lastName("Peeters").build()))
+                .expectNext(true)
+                .verifyComplete();
+        verify(eventPublisher).publishEvent(new PatientChangedEvent("BEL123"));
+    }
+
+    @Test
+    void testPatchAndGetPatientIsEmptyWhenNotFound() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Patient.class)))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(patientService.patchAndGetPatient("NOPE", PatientRequest.builder().phone("1").build()))
+                .verifyComplete();
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testInvalidInputIsSignalledAsError() {
+        StepVerifier.create(patientService.patchPatient("BEL123", new PatientRequest()))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        StepVerifier.create(patientService.getPatientPage(null, 10, List.of("ssn")))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void testDeleteInvalidatesOnlyWhenSomethingWasDeleted() {
+        when(patientRepository.deleteByNationalId("BEL123")).thenReturn(Mono.just(1L));
+        when(patientRepository.deleteByNationalId("NOPE")).thenReturn(Mono.just(0L));
+
+        StepVerifier.create(patientService.deleteByNationalId("BEL123")).expectNext(true).verifyComplete();
+        StepVerifier.create(patientService.deleteByNationalId("NOPE")).expectNext(false).verifyComplete();
+
+        verify(eventPublisher, times(1)).publishEvent(new PatientChangedEvent("BEL123"));
+    }
+}